@@ -0,0 +1,92 @@
+package com.amigoscode.customer;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+//needs Docker: compares N single registrations against one batch of N, password hashing excluded
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class CustomerBatchInsertBenchmark {
+
+    @Param({"100", "1000"})
+    private int customers;
+
+    private PostgreSQLContainer<?> postgreSQLContainer;
+    private HikariDataSource dataSource;
+    private CustomerJDBCDataAccessService customerDAO;
+    private final AtomicLong round = new AtomicLong();
+    private List<Customer> batch;
+
+    @Setup(Level.Trial)
+    public void startDatabase() {
+        postgreSQLContainer = new PostgreSQLContainer<>("postgres:latest")
+                .withDatabaseName("customer-benchmark")
+                .withUsername("amigoscode")
+                .withPassword("password");
+        postgreSQLContainer.start();
+
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(postgreSQLContainer.getJdbcUrl());
+        dataSource.setUsername(postgreSQLContainer.getUsername());
+        dataSource.setPassword(postgreSQLContainer.getPassword());
+        Flyway.configure().dataSource(dataSource).load().migrate();
+
+        customerDAO = new CustomerJDBCDataAccessService(new JdbcTemplate(dataSource), new CustomerRowMapper());
+    }
+
+    //fresh emails every invocation so nothing is skipped by ON CONFLICT
+    @Setup(Level.Invocation)
+    public void nextBatch() {
+        long n = round.incrementAndGet();
+        batch = new ArrayList<>(customers);
+        for (int i = 0; i < customers; i++) {
+            batch.add(new Customer(
+                    "customer-" + i, "customer-%s-%s@benchmark".formatted(n, i), "hash", 30, Gender.MALE
+            ));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stopDatabase() {
+        dataSource.close();
+        postgreSQLContainer.stop();
+    }
+
+    //what N calls to POST /api/v1/customers cost the database
+    @Benchmark
+    public int singleInserts() {
+        int inserted = 0;
+        for (Customer customer : batch) {
+            if (!customerDAO.existsPersonWithEmail(customer.getEmail())) {
+                customerDAO.insertCustomer(customer);
+                inserted++;
+            }
+        }
+        return inserted;
+    }
+
+    @Benchmark
+    public int batchInsert() {
+        List<String> emails = batch.stream().map(Customer::getEmail).toList();
+        customerDAO.selectExistingEmails(emails);
+        return customerDAO.insertCustomers(batch).size();
+    }
+}
@@ -0,0 +1,53 @@
+package com.amigoscode.customer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+//writing a page of customers the way the HTTP message converter does, with Spring Boot's ObjectMapper defaults
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CustomerDTOSerializationBenchmark {
+
+    @Param({"1", "100", "1000"})
+    private int customers;
+
+    private ObjectWriter writer;
+    private List<CustomerDTO> page;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        writer = objectMapper.writerFor(objectMapper.getTypeFactory()
+                .constructCollectionType(List.class, CustomerDTO.class));
+        page = new ArrayList<>(customers);
+        CustomerDTOMapper customerDTOMapper = new CustomerDTOMapper();
+        for (long id = 1; id <= customers; id++) {
+            Customer customer = new Customer(
+                    id, "customer-" + id, "customer-" + id + "@gmail.com", "password", 18 + (int) (id % 70),
+                    id % 2 == 0 ? Gender.MALE : Gender.FEMALE
+            );
+            customer.setVersion(id);
+            page.add(customerDTOMapper.apply(customer));
+        }
+    }
+
+    @Benchmark
+    public byte[] writeValueAsBytes() throws JsonProcessingException {
+        return writer.writeValueAsBytes(page);
+    }
+}
@@ -0,0 +1,79 @@
+package com.amigoscode.customer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class CustomerListDataAccessServiceBenchmark {
+
+    @Param({"1000", "100000"})
+    private int customers;
+
+    private CustomerListDataAccessService indexed;
+    private final List<Customer> legacy = new ArrayList<>();
+
+    @Setup
+    public void setUp() {
+        indexed = new CustomerListDataAccessService();
+        for (long id = 3; id < customers + 3; id++) {
+            Customer customer = new Customer(id, "customer-" + id, email(id), "password", 30, Gender.MALE);
+            legacy.add(customer);
+            indexed.insertCustomer(customer);
+        }
+    }
+
+    //what CustomerListDataAccessService did before: a stream scan of an ArrayList per lookup
+    @Benchmark
+    public Optional<Customer> legacySelectById() {
+        long id = randomId();
+        return legacy.stream().filter(c -> c.getId().equals(id)).findFirst();
+    }
+
+    @Benchmark
+    public boolean legacyExistsByEmail() {
+        String email = email(randomId());
+        return legacy.stream().anyMatch(c -> c.getEmail().equals(email));
+    }
+
+    @Benchmark
+    public Optional<Customer> indexedSelectById() {
+        return indexed.selectCustomerByID(randomId());
+    }
+
+    @Benchmark
+    public boolean indexedExistsByEmail() {
+        return indexed.existsPersonWithEmail(email(randomId()));
+    }
+
+    //the legacy list cannot take concurrent writers at all
+    @Benchmark
+    @Threads(4)
+    public Optional<CustomerRevision> indexedConcurrentPatch() {
+        long id = randomId();
+        long version = indexed.selectCustomerByID(id).orElseThrow().getVersion();
+        return indexed.patchCustomer(new CustomerPatch(id, version, new CustomerUpdateRequest(null, null, 31)));
+    }
+
+    private long randomId() {
+        return ThreadLocalRandom.current().nextLong(3, customers + 3);
+    }
+
+    private static String email(long id) {
+        return "customer-" + id + "@benchmark";
+    }
+}
@@ -0,0 +1,144 @@
+package com.amigoscode.customer;
+
+import com.amigoscode.sqltrace.SqlTraceRecorder;
+import com.amigoscode.sqltrace.SqlTraceListener;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import javax.sql.DataSource;
+import javax.sql.rowset.CachedRowSet;
+import javax.sql.rowset.RowSetMetaDataImpl;
+import javax.sql.rowset.RowSetProvider;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+//per-row cost of the JDBC mapping and of the entity -> DTO copy, without a database:
+//the row lives in the JDK's in-memory CachedRowSet, which resolves column labels like a driver does.
+//run with -Djmh.args="CustomerMappingBenchmark -prof gc" to compare gc.alloc.rate.norm (bytes per row).
+//the traced* variants read the same rows through the ResultSet proxy SqlTraceListener.trace hands out
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CustomerMappingBenchmark {
+    private static final Timestamp UPDATED_AT = Timestamp.valueOf("2026-01-01 00:00:00");
+
+    private final CustomerRowMapper customerRowMapper = new CustomerRowMapper();
+    private final CustomerDTOMapper customerDTOMapper = new CustomerDTOMapper();
+    private final CustomerDTORowMapper customerDTORowMapper = new CustomerDTORowMapper();
+    private CachedRowSet entityRow;
+    private CachedRowSet projectionRow;
+    private ResultSet tracedEntityRow;
+    private ResultSet tracedProjectionRow;
+    private SqlTraceRecorder recorder;
+    private Customer customer;
+
+    @Setup
+    public void setUp() throws SQLException {
+        //the columns CustomerJDBCDataAccessService selects
+        entityRow = row(
+                new String[]{"id", "name", "email", "password", "age", "gender", "version", "updated_at"},
+                new int[]{Types.BIGINT, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.INTEGER, Types.VARCHAR, Types.BIGINT,
+                        Types.TIMESTAMP},
+                new Object[]{42L, "Alex", "alex@gmail.com",
+                        "$2a$10$7EqJtq98hPqEX7fNZaFWoOhi5BWX4Z3KjfXNkbO2Q6Le8gc0yTk7i", 30, "MALE", 3L, UPDATED_AT}
+        );
+        //CustomerDTORowMapper.COLUMNS
+        projectionRow = row(
+                new String[]{"id", "name", "email", "age", "gender", "version", "updated_at"},
+                new int[]{Types.BIGINT, Types.VARCHAR, Types.VARCHAR, Types.INTEGER, Types.VARCHAR, Types.BIGINT, Types.TIMESTAMP},
+                new Object[]{42L, "Alex", "alex@gmail.com", 30, "MALE", 3L, UPDATED_AT}
+        );
+        customer = customerRowMapper.mapRow(entityRow, 0);
+        recorder = new SqlTraceRecorder(Duration.ofSeconds(1), 0.0, 1024, new SimpleMeterRegistry());
+        tracedEntityRow = traced(entityRow);
+        tracedProjectionRow = traced(projectionRow);
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        recorder.destroy();
+    }
+
+    @Benchmark
+    public Customer mapRow() throws SQLException {
+        return customerRowMapper.mapRow(entityRow, 0);
+    }
+
+    @Benchmark
+    public CustomerDTO toDTO() {
+        return customerDTOMapper.apply(customer);
+    }
+
+    //the list and get endpoints before the projection: entity by column label, then copied into the DTO
+    @Benchmark
+    public CustomerDTO mapRowToDTO() throws SQLException {
+        return customerDTOMapper.apply(customerRowMapper.mapRow(entityRow, 0));
+    }
+
+    @Benchmark
+    public CustomerDTO projectRow() throws SQLException {
+        return customerDTORowMapper.mapRow(projectionRow, 0);
+    }
+
+    @Benchmark
+    public Customer tracedMapRow() throws SQLException {
+        return customerRowMapper.mapRow(tracedEntityRow, 0);
+    }
+
+    @Benchmark
+    public CustomerDTO tracedProjectRow() throws SQLException {
+        return customerDTORowMapper.mapRow(tracedProjectionRow, 0);
+    }
+
+    //the driver side is stubbed, only the proxies SqlTraceListener.trace adds sit between the mapper and the row
+    private ResultSet traced(ResultSet row) throws SQLException {
+        DataSource dataSource = mock(DataSource.class);
+        Connection connection = mock(Connection.class);
+        PreparedStatement statement = mock(PreparedStatement.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        when(statement.executeQuery()).thenReturn(row);
+        return SqlTraceListener.trace(dataSource, recorder)
+                .getConnection()
+                .prepareStatement("SELECT * FROM customer WHERE id = ?")
+                .executeQuery();
+    }
+
+    private static CachedRowSet row(String[] columns, int[] types, Object[] values) throws SQLException {
+        RowSetMetaDataImpl metaData = new RowSetMetaDataImpl();
+        metaData.setColumnCount(columns.length);
+        for (int i = 0; i < columns.length; i++) {
+            metaData.setColumnName(i + 1, columns[i]);
+            metaData.setColumnLabel(i + 1, columns[i]);
+            metaData.setColumnType(i + 1, types[i]);
+        }
+        CachedRowSet row = RowSetProvider.newFactory().createCachedRowSet();
+        row.setMetaData(metaData);
+        row.moveToInsertRow();
+        for (int i = 0; i < values.length; i++) {
+            row.updateObject(i + 1, values[i]);
+        }
+        row.insertRow();
+        row.moveToCurrentRow();
+        row.beforeFirst();
+        row.next();
+        return row;
+    }
+}
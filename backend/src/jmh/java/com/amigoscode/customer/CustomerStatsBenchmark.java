@@ -0,0 +1,92 @@
+package com.amigoscode.customer;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.util.concurrent.TimeUnit;
+
+//needs Docker: the columnar snapshot against the same aggregation done with GROUP BY in PostgreSQL
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CustomerStatsBenchmark {
+
+    @Param({"100000", "1000000"})
+    private int customers;
+
+    private PostgreSQLContainer<?> postgreSQLContainer;
+    private HikariDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private CustomerStatsService customerStatsService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        postgreSQLContainer = new PostgreSQLContainer<>("postgres:latest")
+                .withDatabaseName("customer-benchmark")
+                .withUsername("amigoscode")
+                .withPassword("password");
+        postgreSQLContainer.start();
+
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(postgreSQLContainer.getJdbcUrl());
+        dataSource.setUsername(postgreSQLContainer.getUsername());
+        dataSource.setPassword(postgreSQLContainer.getPassword());
+        Flyway.configure().dataSource(dataSource).load().migrate();
+
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.update("""
+                INSERT INTO customer(name, email, password, age, gender)
+                SELECT 'customer-' || n, 'customer-' || n || '@benchmark', 'hash',
+                       18 + n % 70, CASE WHEN n % 2 = 0 THEN 'MALE' ELSE 'FEMALE' END
+                FROM generate_series(1, ?) AS n
+                """, customers);
+        jdbcTemplate.execute("ANALYZE customer");
+
+        customerStatsService = new CustomerStatsService(
+                new CustomerJDBCDataAccessService(jdbcTemplate, new CustomerRowMapper()),
+                new SimpleMeterRegistry()
+        );
+        customerStatsService.rebuild();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        dataSource.close();
+        postgreSQLContainer.stop();
+    }
+
+    @Benchmark
+    public CustomerStats columnarSnapshot() {
+        return customerStatsService.getStats(10);
+    }
+
+    //the database does the scan, the JVM only folds the (age, gender) groups into the same shape
+    @Benchmark
+    public CustomerStats sqlGroupBy() {
+        long[] ageCounts = new long[CustomerColumns.MAX_AGE + 1];
+        long[] genderCounts = new long[Gender.values().length];
+        jdbcTemplate.query("""
+                SELECT age, gender, count(*) AS customers
+                FROM customer
+                GROUP BY age, gender
+                """, rs -> {
+            long count = rs.getLong("customers");
+            ageCounts[Math.min(rs.getInt("age"), CustomerColumns.MAX_AGE)] += count;
+            genderCounts[Gender.valueOf(rs.getString("gender")).ordinal()] += count;
+        });
+        return CustomerStatsService.toStats(new CustomerColumns.Counts(ageCounts, genderCounts), 10);
+    }
+}
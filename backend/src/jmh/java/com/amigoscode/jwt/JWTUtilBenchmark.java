@@ -0,0 +1,68 @@
+package com.amigoscode.jwt;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.security.Key;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JWTUtilBenchmark {
+
+    private static final String SECRET_KEY =
+            "foobar_123456789_foobar_123456789_foobar_123456789_foobar_123456789";
+
+    private JWTUtil jwtUtil;
+    private String token;
+    private String subject;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = new JWTUtil();
+        subject = "alex@gmail.com";
+        token = jwtUtil.issueToken(subject, "ROLE_USER");
+    }
+
+    //what JWTAuthenticationFilter used to do: getSubject, then isTokenValid (getSubject + isTokenExpired)
+    @Benchmark
+    public boolean legacyFilterPath() {
+        String parsedSubject = legacyClaims(token).getSubject();
+        return legacyClaims(token).getSubject().equals(parsedSubject)
+                && !legacyClaims(token).getExpiration().before(new Date());
+    }
+
+    @Benchmark
+    public String issueToken() {
+        return jwtUtil.issueToken(subject, "ROLE_USER");
+    }
+
+    @Benchmark
+    public VerifiedToken verify() {
+        return jwtUtil.verify(token);
+    }
+
+    @Benchmark
+    public String getSubject() {
+        return jwtUtil.getSubject(token);
+    }
+
+    private static Claims legacyClaims(String token) {
+        Key key = Keys.hmacShaKeyFor(SECRET_KEY.getBytes());
+        return Jwts.parserBuilder()
+                .setSigningKey(key)
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+    }
+}
@@ -0,0 +1,132 @@
+package com.amigoscode.load;
+
+import com.amigoscode.auth.AuthenticationRequest;
+import com.amigoscode.auth.AuthenticationResponse;
+import com.amigoscode.customer.CustomerRegistrationRequest;
+import com.amigoscode.customer.CustomerUpdateRequest;
+import com.amigoscode.customer.Gender;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.javafaker.Faker;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+// one method per endpoint; every call is timed into the LatencyReport under its endpoint,
+// and a non-2xx response fails the journey it belongs to.
+// a journey's client also charges every call with the time the journey queued past its scheduled start,
+// so per-endpoint latencies are corrected for coordinated omission just like the journey's own
+class CustomerClient {
+    private static final String AUTHENTICATION_PATH = "/api/v1/auth";
+    private static final String CUSTOMER_PATH = "/api/v1/customers";
+    private static final Faker FAKER = new Faker();
+
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final URI baseUri;
+    private final LatencyReport report;
+    private final long queuedNanos;
+
+    CustomerClient(URI baseUri, LatencyReport report) {
+        this(
+                HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build(),
+                Jackson2ObjectMapperBuilder.json().build(),
+                baseUri,
+                report,
+                0
+        );
+    }
+
+    private CustomerClient(HttpClient httpClient,
+                           ObjectMapper objectMapper,
+                           URI baseUri,
+                           LatencyReport report,
+                           long queuedNanos) {
+        this.httpClient = httpClient;
+        this.objectMapper = objectMapper;
+        this.baseUri = baseUri;
+        this.report = report;
+        this.queuedNanos = queuedNanos;
+    }
+
+    //a client for one journey, called when a virtual user picks up the journey scheduled at the given nanoTime
+    CustomerClient scheduledAt(long scheduled) {
+        return new CustomerClient(
+                httpClient, objectMapper, baseUri, report, Math.max(0, System.nanoTime() - scheduled)
+        );
+    }
+
+    record Credentials(Long id, String name, String email, String password) {
+    }
+
+    Credentials register() throws IOException, InterruptedException {
+        String name = FAKER.name().fullName();
+        String email = FAKER.name().lastName() + "-" + UUID.randomUUID() + "@amigoscode.com";
+        int age = ThreadLocalRandom.current().nextInt(16, 99);
+        CustomerRegistrationRequest request = new CustomerRegistrationRequest(
+                name, email, "password", age, age % 2 == 0 ? Gender.MALE : Gender.FEMALE
+        );
+        send("POST " + CUSTOMER_PATH, json(CUSTOMER_PATH, null)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(request))));
+        return new Credentials(null, name, email, "password");
+    }
+
+    AuthenticationResponse login(Credentials credentials) throws IOException, InterruptedException {
+        AuthenticationRequest request = new AuthenticationRequest(credentials.email(), credentials.password());
+        byte[] body = send("POST " + AUTHENTICATION_PATH + "/login", json(AUTHENTICATION_PATH + "/login", null)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(request))));
+        return objectMapper.readValue(body, AuthenticationResponse.class);
+    }
+
+    void listCustomers(String token) throws IOException, InterruptedException {
+        send("GET " + CUSTOMER_PATH, json(CUSTOMER_PATH, token).GET());
+    }
+
+    void getCustomer(String token, long id) throws IOException, InterruptedException {
+        send("GET " + CUSTOMER_PATH + "/{id}", json(CUSTOMER_PATH + "/" + id, token).GET());
+    }
+
+    void updateCustomer(String token, long id, CustomerUpdateRequest update) throws IOException, InterruptedException {
+        send("PUT " + CUSTOMER_PATH + "/{id}", json(CUSTOMER_PATH + "/" + id, token)
+                .PUT(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(update))));
+    }
+
+    void deleteCustomer(String token, long id) throws IOException, InterruptedException {
+        send("DELETE " + CUSTOMER_PATH + "/{id}", json(CUSTOMER_PATH + "/" + id, token).DELETE());
+    }
+
+    private HttpRequest.Builder json(String path, String token) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(baseUri.resolve(path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Accept", "application/json")
+                .header("Content-Type", "application/json");
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        return request;
+    }
+
+    private byte[] send(String endpoint, HttpRequest.Builder request) throws IOException, InterruptedException {
+        long start = System.nanoTime() - queuedNanos;
+        HttpResponse<byte[]> response;
+        try {
+            response = httpClient.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+        } catch (IOException e) {
+            report.recordError(endpoint, System.nanoTime() - start);
+            throw e;
+        }
+        long elapsed = System.nanoTime() - start;
+        if (response.statusCode() / 100 != 2) {
+            report.recordError(endpoint, elapsed);
+            throw new IOException("%s returned %s".formatted(endpoint, response.statusCode()));
+        }
+        report.record(endpoint, elapsed);
+        return response.body();
+    }
+}
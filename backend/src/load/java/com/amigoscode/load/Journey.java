@@ -0,0 +1,39 @@
+package com.amigoscode.load;
+
+import com.amigoscode.auth.AuthenticationResponse;
+import com.amigoscode.customer.CustomerUpdateRequest;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+// the flows CustomerIT and AuthenticationIT script, replayed over plain HTTP
+public enum Journey {
+    //register -> login -> list -> get -> update -> delete, as a new customer
+    REGISTER {
+        @Override
+        void run(CustomerClient client, List<CustomerClient.Credentials> seeded) throws Exception {
+            CustomerClient.Credentials credentials = client.register();
+            AuthenticationResponse login = client.login(credentials);
+            long id = login.customerDTO().id();
+            client.listCustomers(login.token());
+            client.getCustomer(login.token(), id);
+            client.updateCustomer(login.token(), id, new CustomerUpdateRequest(
+                    credentials.name() + " updated", null, null
+            ));
+            client.deleteCustomer(login.token(), id);
+        }
+    },
+    //login -> list -> get, as one of the customers registered before the run
+    BROWSE {
+        @Override
+        void run(CustomerClient client, List<CustomerClient.Credentials> seeded) throws Exception {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            AuthenticationResponse login = client.login(seeded.get(random.nextInt(seeded.size())));
+            client.listCustomers(login.token());
+            CustomerClient.Credentials other = seeded.get(random.nextInt(seeded.size()));
+            client.getCustomer(login.token(), other.id());
+        }
+    };
+
+    abstract void run(CustomerClient client, List<CustomerClient.Credentials> seeded) throws Exception;
+}
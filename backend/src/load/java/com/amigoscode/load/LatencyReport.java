@@ -0,0 +1,70 @@
+package com.amigoscode.load;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// per-endpoint HdrHistograms in microseconds; Recorder makes recording wait-free from any virtual user
+class LatencyReport {
+    private final Map<String, Endpoint> endpoints = new ConcurrentSkipListMap<>();
+
+    void record(String endpoint, long nanos) {
+        endpoint(endpoint).latencies.recordValue(TimeUnit.NANOSECONDS.toMicros(nanos));
+    }
+
+    void recordError(String endpoint, long nanos) {
+        Endpoint stats = endpoint(endpoint);
+        stats.errors.increment();
+        stats.latencies.recordValue(TimeUnit.NANOSECONDS.toMicros(nanos));
+    }
+
+    //drops everything recorded so far, at the end of the warmup
+    void reset() {
+        endpoints.values().forEach(Endpoint::reset);
+    }
+
+    void print(PrintStream out, Duration elapsed) {
+        double seconds = elapsed.toNanos() / 1e9;
+        out.printf("%-32s %9s %7s %9s %9s %9s %9s %9s %9s%n",
+                "endpoint", "count", "errors", "req/s", "p50 ms", "p95 ms", "p99 ms", "p99.9 ms", "max ms");
+        endpoints.forEach((name, endpoint) -> {
+            Histogram histogram = endpoint.latencies.getIntervalHistogram();
+            out.printf("%-32s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    name,
+                    histogram.getTotalCount(),
+                    endpoint.errors.sum(),
+                    histogram.getTotalCount() / seconds,
+                    millis(histogram.getValueAtPercentile(50)),
+                    millis(histogram.getValueAtPercentile(95)),
+                    millis(histogram.getValueAtPercentile(99)),
+                    millis(histogram.getValueAtPercentile(99.9)),
+                    millis(histogram.getMaxValue()));
+        });
+    }
+
+    private Endpoint endpoint(String endpoint) {
+        return endpoints.computeIfAbsent(endpoint, ignored -> new Endpoint());
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+
+    private static final class Endpoint {
+        //three significant digits, resizing to whatever the slowest response needs
+        private final Recorder latencies = new Recorder(3);
+        private final LongAdder errors = new LongAdder();
+
+        private void reset() {
+            latencies.reset();
+            errors.reset();
+        }
+    }
+}
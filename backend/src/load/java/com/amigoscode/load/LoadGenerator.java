@@ -0,0 +1,95 @@
+package com.amigoscode.load;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+// open model: journeys are scheduled at a fixed interval and queue for a virtual user when all are busy.
+// journey latency is measured from the scheduled start, not from when a virtual user picked it up,
+// so a slow server shows up as latency instead of as a lower arrival rate (coordinated omission).
+// the endpoint latencies of a journey are shifted back by the same queueing delay
+class LoadGenerator {
+    private final LoadProfile profile;
+    private final CustomerClient client;
+    private final List<CustomerClient.Credentials> seeded;
+    private final LatencyReport report;
+    private final Journey[] wheel;
+
+    LoadGenerator(LoadProfile profile,
+                  CustomerClient client,
+                  List<CustomerClient.Credentials> seeded,
+                  LatencyReport report) {
+        this.profile = profile;
+        this.client = client;
+        this.seeded = seeded;
+        this.report = report;
+        List<Journey> journeys = new ArrayList<>();
+        for (Map.Entry<Journey, Integer> entry : profile.mix().entrySet()) {
+            for (int i = 0; i < entry.getValue(); i++) {
+                journeys.add(entry.getKey());
+            }
+        }
+        this.wheel = journeys.toArray(Journey[]::new);
+    }
+
+    //returns the nanos measured after the warmup
+    long run() throws InterruptedException {
+        int users = profile.virtualUsers();
+        ThreadPoolExecutor virtualUsers = new ThreadPoolExecutor(
+                users, users, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "virtual-user");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        long interval = (long) (TimeUnit.SECONDS.toNanos(1) / profile.arrivalRate());
+        long start = System.nanoTime();
+        long measureFrom = start + profile.warmup().toNanos();
+        long end = measureFrom + profile.duration().toNanos();
+        boolean warm = profile.warmup().isZero();
+        for (long arrival = 0; ; arrival++) {
+            long scheduled = start + arrival * interval;
+            if (scheduled >= end) {
+                break;
+            }
+            parkUntil(scheduled);
+            if (!warm && scheduled >= measureFrom) {
+                report.reset();
+                warm = true;
+            }
+            Journey journey = wheel[ThreadLocalRandom.current().nextInt(wheel.length)];
+            virtualUsers.execute(() -> run(journey, scheduled));
+        }
+        virtualUsers.shutdown();
+        if (!virtualUsers.awaitTermination(1, TimeUnit.MINUTES)) {
+            virtualUsers.shutdownNow();
+        }
+        return System.nanoTime() - measureFrom;
+    }
+
+    private void run(Journey journey, long scheduled) {
+        String name = "journey " + journey.name().toLowerCase();
+        try {
+            journey.run(client.scheduledAt(scheduled), seeded);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } catch (Exception e) {
+            report.recordError(name, System.nanoTime() - scheduled);
+            return;
+        }
+        report.record(name, System.nanoTime() - scheduled);
+    }
+
+    private static void parkUntil(long deadline) {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+}
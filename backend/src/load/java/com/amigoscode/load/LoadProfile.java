@@ -0,0 +1,84 @@
+package com.amigoscode.load;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+// what to run: journeys start at a fixed rate whatever the response times (open model), and at most
+// virtualUsers of them are in flight; the mix weighs how often each journey is picked
+public record LoadProfile(
+        double arrivalRate,
+        int virtualUsers,
+        Duration warmup,
+        Duration duration,
+        Map<Journey, Integer> mix,
+        int seedCustomers
+) {
+    static final LoadProfile DEFAULTS = new LoadProfile(
+            20, 32, Duration.ofSeconds(10), Duration.ofSeconds(60),
+            new EnumMap<>(Map.of(Journey.REGISTER, 1, Journey.BROWSE, 9)), 100
+    );
+
+    public LoadProfile {
+        if (arrivalRate <= 0) {
+            throw new IllegalArgumentException("rate must be positive");
+        }
+        if (virtualUsers < 1) {
+            throw new IllegalArgumentException("users must be at least 1");
+        }
+        if (mix.isEmpty() || mix.values().stream().anyMatch(weight -> weight < 0)
+                || mix.values().stream().mapToInt(Integer::intValue).sum() == 0) {
+            throw new IllegalArgumentException("mix needs at least one journey with a positive weight");
+        }
+        if (seedCustomers < 1) {
+            throw new IllegalArgumentException("seed-customers must be at least 1");
+        }
+    }
+
+    //rate=50 users=64 warmup=PT10S duration=PT2M mix=register:1,browse:9 seed-customers=100
+    static LoadProfile parse(String[] args) {
+        LoadProfile profile = DEFAULTS;
+        for (String arg : args) {
+            String[] option = arg.split("=", 2);
+            if (option.length != 2) {
+                throw new IllegalArgumentException("expected key=value but got [%s]".formatted(arg));
+            }
+            String value = option[1];
+            profile = switch (option[0]) {
+                case "rate" -> new LoadProfile(Double.parseDouble(value), profile.virtualUsers, profile.warmup,
+                        profile.duration, profile.mix, profile.seedCustomers);
+                case "users" -> new LoadProfile(profile.arrivalRate, Integer.parseInt(value), profile.warmup,
+                        profile.duration, profile.mix, profile.seedCustomers);
+                case "warmup" -> new LoadProfile(profile.arrivalRate, profile.virtualUsers, Duration.parse(value),
+                        profile.duration, profile.mix, profile.seedCustomers);
+                case "duration" -> new LoadProfile(profile.arrivalRate, profile.virtualUsers, profile.warmup,
+                        Duration.parse(value), profile.mix, profile.seedCustomers);
+                case "mix" -> new LoadProfile(profile.arrivalRate, profile.virtualUsers, profile.warmup,
+                        profile.duration, parseMix(value), profile.seedCustomers);
+                case "seed-customers" -> new LoadProfile(profile.arrivalRate, profile.virtualUsers, profile.warmup,
+                        profile.duration, profile.mix, Integer.parseInt(value));
+                default -> throw new IllegalArgumentException("unknown option [%s]".formatted(option[0]));
+            };
+        }
+        return profile;
+    }
+
+    private static Map<Journey, Integer> parseMix(String mix) {
+        return Arrays.stream(mix.split(","))
+                .map(entry -> entry.split(":", 2))
+                .collect(Collectors.toMap(
+                        entry -> Journey.valueOf(entry[0].trim().toUpperCase()),
+                        entry -> entry.length == 2 ? Integer.parseInt(entry[1].trim()) : 1,
+                        Integer::sum,
+                        () -> new EnumMap<>(Journey.class)
+                ));
+    }
+
+    @Override
+    public String toString() {
+        return "rate=%s/s users=%s warmup=%s duration=%s mix=%s seed-customers=%s"
+                .formatted(arrivalRate, virtualUsers, warmup, duration, mix, seedCustomers);
+    }
+}
@@ -0,0 +1,61 @@
+package com.amigoscode.load;
+
+import com.amigoscode.Main;
+import com.amigoscode.auth.AuthenticationResponse;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+// mvn -Ploadtest test-compile exec:exec [-Dload.args="rate=50 users=64 duration=PT2M mix=register:1,browse:9"]
+// starts PostgreSQL in a container and the application on a random port, seeds customers to browse,
+// then replays the journeys and prints latency percentiles and throughput per endpoint
+public class LoadTest {
+
+    public static void main(String[] args) throws Exception {
+        LoadProfile profile = LoadProfile.parse(args);
+        System.out.println("load profile: " + profile);
+
+        try (PostgreSQLContainer<?> postgreSQLContainer = new PostgreSQLContainer<>("postgres:latest")
+                .withDatabaseName("customer-load")
+                .withUsername("amigoscode")
+                .withPassword("password")) {
+            postgreSQLContainer.start();
+
+            try (ConfigurableApplicationContext application = new SpringApplicationBuilder(Main.class)
+                    .properties(
+                            "server.port=0",
+                            "spring.datasource.url=" + postgreSQLContainer.getJdbcUrl(),
+                            "spring.datasource.username=" + postgreSQLContainer.getUsername(),
+                            "spring.datasource.password=" + postgreSQLContainer.getPassword()
+                    )
+                    .run()) {
+                int port = ((WebServerApplicationContext) application).getWebServer().getPort();
+                LatencyReport report = new LatencyReport();
+                CustomerClient client = new CustomerClient(URI.create("http://localhost:" + port), report);
+
+                List<CustomerClient.Credentials> seeded = seed(client, profile.seedCustomers());
+                report.reset();
+                long measured = new LoadGenerator(profile, client, seeded, report).run();
+                report.print(System.out, Duration.ofNanos(measured));
+            }
+        }
+    }
+
+    private static List<CustomerClient.Credentials> seed(CustomerClient client, int customers) throws Exception {
+        List<CustomerClient.Credentials> seeded = new ArrayList<>(customers);
+        for (int i = 0; i < customers; i++) {
+            CustomerClient.Credentials credentials = client.register();
+            AuthenticationResponse login = client.login(credentials);
+            seeded.add(new CustomerClient.Credentials(
+                    login.customerDTO().id(), credentials.name(), credentials.email(), credentials.password()
+            ));
+        }
+        return seeded;
+    }
+}
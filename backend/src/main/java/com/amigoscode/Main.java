@@ -9,12 +9,14 @@ import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 import java.util.Random;
 import java.util.UUID;
 
 @SpringBootApplication
+@EnableScheduling
 public class Main {
 
     public static void main(String[] args) {
@@ -33,9 +35,14 @@ public class Main {
             String lastName = name.lastName();
             int age = random.nextInt(16, 99);
             Gender gender = age % 2 == 0 ? Gender.MALE : Gender.FEMALE;
+            String email = firstName.toLowerCase() + "." + lastName.toLowerCase() + "amigoscode.com";
+            //email is unique, so a name faker already produced must not stop the application from starting
+            if (customerRepository.existsCustomerByEmail(email)) {
+                return;
+            }
             Customer customer = new Customer(
                     firstName + " " + lastName,
-                    firstName.toLowerCase() + "." + lastName.toLowerCase() + "amigoscode.com",
+                    email,
                     passwordEncoder.encode(UUID.randomUUID().toString()),
                     age,
                     gender
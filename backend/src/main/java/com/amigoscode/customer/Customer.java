@@ -1,15 +1,18 @@
 package com.amigoscode.customer;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.DynamicUpdate;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
+import java.time.Instant;
 import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
 
 @Entity
+@DynamicUpdate
 @Table(
         name = "customer",
         uniqueConstraints = {
@@ -20,6 +23,9 @@ import java.util.Objects;
         }
 )
 public class Customer implements UserDetails {
+    //every customer has the same single role; both lists are immutable, so they are shared, not built per call
+    static final List<String> ROLES = List.of("ROLE_USER");
+    private static final List<GrantedAuthority> AUTHORITIES = List.of(new SimpleGrantedAuthority("ROLE_USER"));
 
     @Id
     @SequenceGenerator(
@@ -54,6 +60,18 @@ public class Customer implements UserDetails {
             nullable = false
     )
     private String password;
+    @Version
+    @Column(
+            nullable = false
+    )
+    private Long version;
+    //maintained by the database (column default and update trigger)
+    @Column(
+            name = "updated_at",
+            insertable = false,
+            updatable = false
+    )
+    private Instant updatedAt;
 
 
     public Customer(Long id, String name, String email, String password, Integer age, Gender gender) {
@@ -115,6 +133,22 @@ public class Customer implements UserDetails {
         this.gender = gender;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(Instant updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -141,7 +175,7 @@ public class Customer implements UserDetails {
 
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
-        return List.of(new SimpleGrantedAuthority("ROLE_USER"));
+        return AUTHORITIES;
     }
 
     @Override
@@ -0,0 +1,23 @@
+package com.amigoscode.customer;
+
+import java.util.List;
+
+public record CustomerBatchRegistrationResult(
+        int created,
+        int duplicates,
+        int invalid,
+        List<Item> items
+) {
+    public enum Status {
+        CREATED, DUPLICATE, INVALID
+    }
+
+    public record Item(
+            int index,
+            String email,
+            Status status,
+            Long id,
+            String message
+    ) {
+    }
+}
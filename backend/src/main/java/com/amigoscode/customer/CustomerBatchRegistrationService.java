@@ -0,0 +1,123 @@
+package com.amigoscode.customer;
+
+import com.amigoscode.customer.CustomerBatchRegistrationResult.Item;
+import com.amigoscode.customer.CustomerBatchRegistrationResult.Status;
+import com.amigoscode.exception.RequestValidationException;
+import com.amigoscode.security.BoundedPasswordEncoder;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Service
+public class CustomerBatchRegistrationService {
+
+    private final CustomerDAO customerDAO;
+    private final BoundedPasswordEncoder passwordEncoder;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CustomerSummaryService customerSummaryService;
+    private final TransactionOperations transactionOperations;
+    private final int maxBatchSize;
+
+    public CustomerBatchRegistrationService(@Qualifier("jdbc") CustomerDAO customerDAO,
+                                            @Qualifier("bulkPasswordEncoder") BoundedPasswordEncoder passwordEncoder,
+                                            ApplicationEventPublisher eventPublisher,
+                                            CustomerSummaryService customerSummaryService,
+                                            TransactionOperations transactionOperations,
+                                            @Value("${customer.batch.max-size:10000}") int maxBatchSize) {
+        this.customerDAO = customerDAO;
+        this.passwordEncoder = passwordEncoder;
+        this.eventPublisher = eventPublisher;
+        this.customerSummaryService = customerSummaryService;
+        this.transactionOperations = transactionOperations;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    public CustomerBatchRegistrationResult registerCustomers(List<CustomerRegistrationRequest> requests) {
+        if (requests == null || requests.isEmpty() || requests.size() > maxBatchSize) {
+            throw new RequestValidationException(
+                    "batch must contain between 1 and %s customers".formatted(maxBatchSize)
+            );
+        }
+
+        Item[] items = new Item[requests.size()];
+        List<Integer> accepted = new ArrayList<>();
+        Set<String> batchEmails = new HashSet<>();
+        for (int i = 0; i < requests.size(); i++) {
+            CustomerRegistrationRequest request = requests.get(i);
+            String problem = CustomerRegistrationRules.violation(request);
+            if (problem != null) {
+                items[i] = new Item(i, request == null ? null : request.email(), Status.INVALID, null, problem);
+            } else if (!batchEmails.add(request.email())) {
+                items[i] = new Item(i, request.email(), Status.DUPLICATE, null, "email repeated in batch");
+            } else {
+                accepted.add(i);
+            }
+        }
+
+        //one round trip for every email in the batch
+        Set<String> taken = customerDAO.selectExistingEmails(batchEmails);
+        accepted.removeIf(i -> {
+            if (taken.contains(requests.get(i).email())) {
+                items[i] = new Item(i, requests.get(i).email(), Status.DUPLICATE, null, "email already taken");
+                return true;
+            }
+            return false;
+        });
+
+        //hashed on the bulk pool, never on the request thread's common pool or the login pool
+        List<String> hashes = accepted.isEmpty()
+                ? List.of()
+                : passwordEncoder.encodeAll(accepted.stream().map(i -> requests.get(i).password()).toList());
+        List<Customer> customers = new ArrayList<>(accepted.size());
+        for (int i = 0; i < accepted.size(); i++) {
+            CustomerRegistrationRequest request = requests.get(accepted.get(i));
+            customers.add(new Customer(
+                    request.name(),
+                    request.email(),
+                    hashes.get(i),
+                    request.age(),
+                    request.gender()
+            ));
+        }
+
+        Map<String, Customer> inserted = new HashMap<>();
+        transactionOperations.executeWithoutResult(status -> {
+            List<Customer> created = customerDAO.insertCustomers(customers);
+            customerSummaryService.recordCreated(created);
+            created.forEach(c -> inserted.put(c.getEmail(), c));
+        });
+
+        for (int i : accepted) {
+            String email = requests.get(i).email();
+            Customer customer = inserted.get(email);
+            if (customer == null) {
+                //registered concurrently between the existence query and the insert
+                items[i] = new Item(i, email, Status.DUPLICATE, null, "email already taken");
+            } else {
+                items[i] = new Item(i, email, Status.CREATED, customer.getId(), null);
+                eventPublisher.publishEvent(CustomerChangedEvent.created(customer));
+            }
+        }
+
+        return new CustomerBatchRegistrationResult(
+                count(items, Status.CREATED),
+                count(items, Status.DUPLICATE),
+                count(items, Status.INVALID),
+                Arrays.asList(items)
+        );
+    }
+
+    private static int count(Item[] items, Status status) {
+        return (int) Arrays.stream(items).filter(item -> item.status() == status).count();
+    }
+}
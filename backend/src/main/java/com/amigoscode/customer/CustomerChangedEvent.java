@@ -0,0 +1,28 @@
+package com.amigoscode.customer;
+
+// previous is null for CREATED, current is null for DELETED
+public record CustomerChangedEvent(
+        Type type,
+        Customer previous,
+        Customer current
+) {
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+
+    public static CustomerChangedEvent created(Customer current) {
+        return new CustomerChangedEvent(Type.CREATED, null, current);
+    }
+
+    public static CustomerChangedEvent updated(Customer previous, Customer current) {
+        return new CustomerChangedEvent(Type.UPDATED, previous, current);
+    }
+
+    public static CustomerChangedEvent deleted(Customer previous) {
+        return new CustomerChangedEvent(Type.DELETED, previous, null);
+    }
+
+    public boolean emailChanged() {
+        return previous != null && (current == null || !previous.getEmail().equals(current.getEmail()));
+    }
+}
@@ -0,0 +1,171 @@
+package com.amigoscode.customer;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// parallel primitive columns sorted by id: row i is (ids[i], ages[i], genders[i]).
+// ids arrive almost always in ascending order, so upserts are appends and lookups binary searches.
+// not thread-safe, CustomerStatsService guards it
+final class CustomerColumns {
+    static final int MAX_AGE = 150;
+    private static final int PARALLEL_THRESHOLD = 1 << 16;
+    private static final Gender[] GENDERS = Gender.values();
+    //8 bits of age (MAX_AGE < 256) and 1 bit of gender ordinal
+    private static final int PACKED_ROW_BITS = 9;
+
+    static {
+        if (GENDERS.length > 2) {
+            throw new IllegalStateException("sortById packs the gender ordinal into one bit");
+        }
+    }
+
+    private long[] ids;
+    private int[] ages;
+    private byte[] genders;
+    private int size;
+
+    CustomerColumns(int initialCapacity) {
+        int capacity = Math.max(initialCapacity, 16);
+        this.ids = new long[capacity];
+        this.ages = new int[capacity];
+        this.genders = new byte[capacity];
+    }
+
+    int size() {
+        return size;
+    }
+
+    void upsert(long id, int age, Gender gender) {
+        int row = Arrays.binarySearch(ids, 0, size, id);
+        if (row < 0) {
+            row = -(row + 1);
+            if (size == ids.length) {
+                grow();
+            }
+            if (row < size) {
+                System.arraycopy(ids, row, ids, row + 1, size - row);
+                System.arraycopy(ages, row, ages, row + 1, size - row);
+                System.arraycopy(genders, row, genders, row + 1, size - row);
+            }
+            ids[row] = id;
+            size++;
+        }
+        ages[row] = Math.max(0, Math.min(age, MAX_AGE));
+        genders[row] = (byte) gender.ordinal();
+    }
+
+    // bulk load path: rows may arrive in any order, call sortById() before the next upsert or remove
+    void append(long id, int age, Gender gender) {
+        if (size == ids.length) {
+            grow();
+        }
+        ids[size] = id;
+        ages[size] = Math.max(0, Math.min(age, MAX_AGE));
+        genders[size] = (byte) gender.ordinal();
+        size++;
+    }
+
+    // packs (id, age, gender) into one long so a single primitive sort reorders all three columns
+    void sortById() {
+        boolean sorted = true;
+        long maxId = 0;
+        for (int i = 0; i < size; i++) {
+            sorted &= i == 0 || ids[i - 1] < ids[i];
+            maxId = Math.max(maxId, ids[i]);
+        }
+        if (sorted) {
+            return;
+        }
+        if (maxId >= 1L << (Long.SIZE - PACKED_ROW_BITS - 1)) {
+            throw new IllegalStateException("customer id %s is too large to pack".formatted(maxId));
+        }
+        long[] packed = new long[size];
+        for (int i = 0; i < size; i++) {
+            packed[i] = ids[i] << PACKED_ROW_BITS | (long) ages[i] << 1 | genders[i];
+        }
+        Arrays.parallelSort(packed);
+        for (int i = 0; i < size; i++) {
+            ids[i] = packed[i] >>> PACKED_ROW_BITS;
+            ages[i] = (int) (packed[i] >>> 1 & 0xFF);
+            genders[i] = (byte) (packed[i] & 1);
+        }
+    }
+
+    void remove(long id) {
+        int row = Arrays.binarySearch(ids, 0, size, id);
+        if (row < 0) {
+            return;
+        }
+        int tail = size - row - 1;
+        System.arraycopy(ids, row + 1, ids, row, tail);
+        System.arraycopy(ages, row + 1, ages, row, tail);
+        System.arraycopy(genders, row + 1, genders, row, tail);
+        size--;
+    }
+
+    // one pass over the age and gender columns; ageCounts[age] and genderCounts[ordinal]
+    Counts count() {
+        long[] ageCounts = new long[MAX_AGE + 1];
+        long[] genderCounts = new long[GENDERS.length];
+        if (size < PARALLEL_THRESHOLD) {
+            scan(0, size, ageCounts, genderCounts);
+        } else {
+            ForkJoinPool.commonPool().invoke(new Scan(0, size, ageCounts, genderCounts));
+        }
+        return new Counts(ageCounts, genderCounts);
+    }
+
+    private void scan(int from, int to, long[] ageCounts, long[] genderCounts) {
+        for (int i = from; i < to; i++) {
+            ageCounts[ages[i]]++;
+            genderCounts[genders[i]]++;
+        }
+    }
+
+    private void grow() {
+        int capacity = ids.length + (ids.length >> 1);
+        ids = Arrays.copyOf(ids, capacity);
+        ages = Arrays.copyOf(ages, capacity);
+        genders = Arrays.copyOf(genders, capacity);
+    }
+
+    record Counts(long[] ageCounts, long[] genderCounts) {
+    }
+
+    // each half counts into its own small arrays and the results are summed on the way back up
+    private final class Scan extends RecursiveAction {
+        private final int from;
+        private final int to;
+        private final long[] ageCounts;
+        private final long[] genderCounts;
+
+        Scan(int from, int to, long[] ageCounts, long[] genderCounts) {
+            this.from = from;
+            this.to = to;
+            this.ageCounts = ageCounts;
+            this.genderCounts = genderCounts;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= PARALLEL_THRESHOLD) {
+                scan(from, to, ageCounts, genderCounts);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            long[] rightAges = new long[ageCounts.length];
+            long[] rightGenders = new long[genderCounts.length];
+            invokeAll(
+                    new Scan(from, middle, ageCounts, genderCounts),
+                    new Scan(middle, to, rightAges, rightGenders)
+            );
+            for (int i = 0; i < ageCounts.length; i++) {
+                ageCounts[i] += rightAges[i];
+            }
+            for (int i = 0; i < genderCounts.length; i++) {
+                genderCounts[i] += rightGenders[i];
+            }
+        }
+    }
+}
@@ -1,32 +1,168 @@
 package com.amigoscode.customer;
 
+import com.amigoscode.exception.RequestValidationException;
 import com.amigoscode.jwt.JWTUtil;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 
 @RestController
 @RequestMapping("api/v1/customers")
 public class CustomerController {
 
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final CustomerService customerService;
+    private final CustomerExportService customerExportService;
+    private final CustomerBatchRegistrationService customerBatchRegistrationService;
+    private final CustomerImportService customerImportService;
+    private final CustomerStatsService customerStatsService;
+    private final CustomerSummaryService customerSummaryService;
+    private final CustomerListSnapshot customerListSnapshot;
     private final JWTUtil jwtUtil;
 
-    public CustomerController(CustomerService customerService, JWTUtil jwtUtil) {
+    public CustomerController(CustomerService customerService,
+                              CustomerExportService customerExportService,
+                              CustomerBatchRegistrationService customerBatchRegistrationService,
+                              CustomerImportService customerImportService,
+                              CustomerStatsService customerStatsService,
+                              CustomerSummaryService customerSummaryService,
+                              CustomerListSnapshot customerListSnapshot,
+                              JWTUtil jwtUtil) {
         this.customerService = customerService;
+        this.customerExportService = customerExportService;
+        this.customerBatchRegistrationService = customerBatchRegistrationService;
+        this.customerImportService = customerImportService;
+        this.customerStatsService = customerStatsService;
+        this.customerSummaryService = customerSummaryService;
+        this.customerListSnapshot = customerListSnapshot;
         this.jwtUtil = jwtUtil;
     }
 
     @GetMapping
-    public List<CustomerDTO> getCustomers() {
-        return customerService.getAllCustomers();
+    public ResponseEntity<?> getCustomers(
+            @RequestParam(value = "after", required = false) String after,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "sort", required = false) String sort,
+            @RequestParam(value = "ids", required = false) List<Long> ids,
+            @RequestParam(value = "fields", required = false) String fields,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            WebRequest webRequest) {
+        //a sparse fieldset is always read through the DAO; without paging parameters it gets every customer,
+        //like the unpaged list it narrows
+        if (fields != null) {
+            CustomerFields customerFields = CustomerFields.parse(fields);
+            if (ids != null) {
+                return ResponseEntity.ok(customerService.getCustomers(ids, customerFields));
+            }
+            if (after == null && limit == null && sort == null) {
+                return ResponseEntity.ok(customerService.getAllCustomers(customerFields));
+            }
+            return page(customerService.getCustomers(sort, after, limit, customerFields));
+        }
+        if (ids != null) {
+            return ResponseEntity.ok(customerService.getCustomers(ids));
+        }
+        if (after == null && limit == null && sort == null) {
+            return allCustomers(acceptEncoding, webRequest);
+        }
+
+        return page(customerService.getCustomers(sort, after, limit));
+    }
+
+    private static <T> ResponseEntity<List<T>> page(CustomerPage<T> page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.nextCursor());
+        }
+        return response.body(page.customers());
+    }
+
+    //the unpaged list is served from pre-serialized bytes until the next write
+    private ResponseEntity<byte[]> allCustomers(String acceptEncoding, WebRequest webRequest) {
+        CustomerListSnapshot.Snapshot snapshot = customerListSnapshot.current();
+        boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+        //strong ETags are per representation, so the gzipped bytes get their own
+        String eTag = gzip ? snapshot.eTag() + "-gzip" : snapshot.eTag();
+        if (webRequest.checkNotModified(eTag, snapshot.lastModified().toEpochMilli())) {
+            return null;
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(snapshot.gzip());
+        }
+        return response.body(snapshot.json());
+    }
+
+    @GetMapping("export")
+    public void exportCustomers(@RequestParam(value = "format", defaultValue = "ndjson") String format,
+                                HttpServletResponse response) throws IOException {
+        CustomerExportFormat exportFormat = CustomerExportFormat.fromExtension(format);
+        response.setContentType(exportFormat.contentType());
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"customers.%s\"".formatted(exportFormat.extension()));
+        customerExportService.export(exportFormat, response.getOutputStream());
+    }
+
+    @GetMapping("stats")
+    public CustomerStats getStats(@RequestParam(value = "bucket", defaultValue = "10") int bucket) {
+        return customerStatsService.getStats(bucket);
+    }
+
+    @GetMapping("stats/summary")
+    public CustomerSummary getSummary() {
+        return customerSummaryService.getSummary();
     }
 
     @GetMapping("{customerId}")
-    public CustomerDTO getCustomer(@PathVariable("customerId") Long customerId) {
-        return customerService.getCustomer(customerId);
+    public ResponseEntity<?> getCustomer(@PathVariable("customerId") Long customerId,
+                                         @RequestParam(value = "fields", required = false) String fields,
+                                         HttpServletRequest request) {
+        //answer revalidations from the version lookup alone. it is checked without the response, so a miss
+        //leaves no validators behind: those always come from the body that is actually returned
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null || request.getHeader(HttpHeaders.IF_MODIFIED_SINCE) != null) {
+            CustomerVersion version = customerService.getCustomerVersion(customerId);
+            String eTag = String.valueOf(version.version());
+            if (new ServletWebRequest(request).checkNotModified(eTag, version.updatedAt().toEpochMilli())) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                        .eTag(eTag)
+                        .lastModified(version.updatedAt())
+                        .build();
+            }
+        }
+        if (fields != null) {
+            CustomerFields requested = CustomerFields.parse(fields);
+            Map<String, Object> customer = customerService.getCustomer(
+                    customerId, requested.with(CustomerField.VERSION, CustomerField.UPDATED_AT)
+            );
+            return ResponseEntity.ok()
+                    .eTag(String.valueOf(customer.get(CustomerField.VERSION.field())))
+                    .lastModified((Instant) customer.get(CustomerField.UPDATED_AT.field()))
+                    .body(requested.select(customer));
+        }
+        CustomerDTO customer = customerService.getCustomer(customerId);
+        return ResponseEntity.ok()
+                .eTag(String.valueOf(customer.version()))
+                .lastModified(customer.updatedAt())
+                .body(customer);
     }
 
     @PostMapping
@@ -38,17 +174,57 @@ public class CustomerController {
                 .build();
     }
 
+    @PostMapping("batch")
+    public CustomerBatchRegistrationResult registerCustomers(@RequestBody List<CustomerRegistrationRequest> requests) {
+        return customerBatchRegistrationService.registerCustomers(requests);
+    }
+
+    @PostMapping(value = "imports", consumes = {"text/csv", MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    public ResponseEntity<CustomerImportStatus> startImport(InputStream csv) {
+        UUID importId = customerImportService.startImport(csv);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/v1/customers/imports/" + importId))
+                .body(customerImportService.getImport(importId));
+    }
+
+    @GetMapping("imports/{importId}")
+    public CustomerImportStatus getImport(@PathVariable("importId") UUID importId) {
+        return customerImportService.getImport(importId);
+    }
+
     @DeleteMapping("{customerId}")
     public void deleteCustomer(@PathVariable("customerId") Long customerId){
         customerService.deleteCustomerById(customerId);
     }
 
+    @PatchMapping("{customerId}")
+    public ResponseEntity<CustomerDTO> patchCustomer(@RequestBody CustomerUpdateRequest updateRequest,
+                                                     @PathVariable("customerId") Long customerId,
+                                                     @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        CustomerDTO customer = customerService.patchCustomer(customerId, parseVersion(ifMatch), updateRequest);
+        return ResponseEntity.ok()
+                .eTag(String.valueOf(customer.version()))
+                .body(customer);
+    }
+
     @PutMapping("{customerId}")
     public void updateCustomer(@RequestBody CustomerUpdateRequest updateRequest, @PathVariable("customerId") Long customerId) {
         customerService.updateCustomer(updateRequest, customerId);
     }
-}
-
-
-
 
+    //If-Match carries the version the client last saw, either bare or as a quoted strong ETag
+    private static long parseVersion(String ifMatch) {
+        if (ifMatch == null) {
+            throw new RequestValidationException("If-Match header with the customer version is required");
+        }
+        String value = ifMatch.trim();
+        if (value.length() > 1 && value.startsWith("\"") && value.endsWith("\"")) {
+            value = value.substring(1, value.length() - 1);
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new RequestValidationException("If-Match must carry the customer version");
+        }
+    }
+}
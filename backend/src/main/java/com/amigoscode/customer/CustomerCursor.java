@@ -0,0 +1,54 @@
+package com.amigoscode.customer;
+
+import com.amigoscode.exception.RequestValidationException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+public record CustomerCursor(
+        CustomerSort sort,
+        boolean descending,
+        Comparable<?> key,
+        Long id
+) {
+
+    public static CustomerCursor of(CustomerSort sort, boolean descending, Customer last) {
+        return new CustomerCursor(sort, descending, sort.keyOf(last), last.getId());
+    }
+
+    public static CustomerCursor of(CustomerSort sort, boolean descending, CustomerDTO last) {
+        return new CustomerCursor(sort, descending, sort.keyOf(last), last.id());
+    }
+
+    public String encode() {
+        String raw = "%s:%s:%d:%s".formatted(
+                sort.column(), descending ? "desc" : "asc", id, key
+        );
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static CustomerCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":", 4);
+            CustomerSort sort = CustomerSort.fromColumn(parts[0]);
+            return new CustomerCursor(
+                    sort,
+                    parts[1].equals("desc"),
+                    sort.parseKey(parts[3]),
+                    Long.valueOf(parts[2])
+            );
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            throw new RequestValidationException("invalid cursor [%s]".formatted(token));
+        }
+    }
+
+    // > 0 when the customer sorts after this cursor in ascending order
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public int compare(Customer customer) {
+        int result = ((Comparable) sort.keyOf(customer)).compareTo(key);
+        return result != 0 ? result : Long.compare(customer.getId(), id);
+    }
+}
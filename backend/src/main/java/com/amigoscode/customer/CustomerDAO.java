@@ -1,16 +1,30 @@
 package com.amigoscode.customer;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
 public interface CustomerDAO {
     List<Customer> selectAllCustomers();
+    List<Customer> selectCustomers(CustomerPageRequest pageRequest);
+    void forEachCustomer(Consumer<Customer> action);
+    long countCustomers();
     Optional<Customer> selectCustomerByID(Long id);
+    List<Customer> selectCustomersByIds(Collection<Long> ids);
+    List<Map<String, Object>> selectCustomerFields(CustomerPageRequest pageRequest, CustomerFields fields);
+    List<Map<String, Object>> selectCustomerFieldsByIds(Collection<Long> ids, CustomerFields fields);
+    Optional<CustomerVersion> selectCustomerVersion(Long id);
     void insertCustomer(Customer customer);
+    List<Customer> insertCustomers(List<Customer> customers);
+    Set<String> selectExistingEmails(Collection<String> emails);
     boolean existsPersonWithEmail(String email);
-    void deleteCustomerById(Long customerId);
+    Optional<Customer> deleteCustomerById(Long customerId);
     boolean existsPersonWithId(Long id);
     void updateCustomerById(Customer update);
+    Optional<CustomerRevision> patchCustomer(CustomerPatch patch);
     Optional<Customer> selectUserByEmail(String email);
 
 }
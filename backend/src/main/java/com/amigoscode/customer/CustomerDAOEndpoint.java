@@ -0,0 +1,98 @@
+package com.amigoscode.customer;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+// side-by-side view of the customer.dao meters: /actuator/customerdao, or /actuator/customerdao/{implementation}.
+// "dto" is CustomerDTODataAccessService, which serves the list and get endpoints
+@Component
+@Endpoint(id = "customerdao")
+public class CustomerDAOEndpoint {
+    private final MeterRegistry meterRegistry;
+
+    public CustomerDAOEndpoint(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @ReadOperation
+    public Map<String, List<MethodStats>> implementations() {
+        return meterRegistry.find(InstrumentedCustomerDAO.TIMER).tag("outcome", "success").timers().stream()
+                .map(timer -> timer.getId().getTag("implementation"))
+                .distinct()
+                .collect(Collectors.toMap(
+                        implementation -> implementation,
+                        this::implementation,
+                        (a, b) -> a,
+                        TreeMap::new
+                ));
+    }
+
+    @ReadOperation
+    public List<MethodStats> implementation(@Selector String implementation) {
+        return meterRegistry.find(InstrumentedCustomerDAO.TIMER)
+                .tags("implementation", implementation, "outcome", "success")
+                .timers().stream()
+                .map(timer -> methodStats(implementation, timer))
+                .filter(stats -> stats.calls() > 0 || stats.errors() > 0)
+                .sorted(Comparator.comparing(MethodStats::method))
+                .collect(Collectors.toList());
+    }
+
+    private MethodStats methodStats(String implementation, Timer success) {
+        String method = success.getId().getTag("method");
+        Timer error = meterRegistry.find(InstrumentedCustomerDAO.TIMER)
+                .tags("implementation", implementation, "method", method, "outcome", "error")
+                .timer();
+        DistributionSummary rows = meterRegistry.find(InstrumentedCustomerDAO.ROWS)
+                .tags("implementation", implementation, "method", method)
+                .summary();
+        HistogramSnapshot snapshot = success.takeSnapshot();
+        return new MethodStats(
+                method,
+                snapshot.count(),
+                error == null ? 0 : error.count(),
+                snapshot.mean(TimeUnit.MILLISECONDS),
+                percentile(snapshot, 0.5),
+                percentile(snapshot, 0.95),
+                percentile(snapshot, 0.99),
+                snapshot.max(TimeUnit.MILLISECONDS),
+                rows == null ? 0 : rows.mean()
+        );
+    }
+
+    private static double percentile(HistogramSnapshot snapshot, double percentile) {
+        for (ValueAtPercentile value : snapshot.percentileValues()) {
+            if (value.percentile() == percentile) {
+                return value.value(TimeUnit.MILLISECONDS);
+            }
+        }
+        return Double.NaN;
+    }
+
+    public record MethodStats(
+            String method,
+            long calls,
+            long errors,
+            double meanMs,
+            double p50Ms,
+            double p95Ms,
+            double p99Ms,
+            double maxMs,
+            double meanRows
+    ) {
+    }
+}
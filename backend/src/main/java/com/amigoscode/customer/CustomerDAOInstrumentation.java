@@ -0,0 +1,27 @@
+package com.amigoscode.customer;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+// wraps each CustomerDAO bean ("jdbc", "jpa", "list") in an InstrumentedCustomerDAO tagged with its bean name.
+// deliberately not Ordered: it runs after the transaction and exception translation proxies are applied,
+// so it wraps the finished bean instead of hiding @Transactional and @Repository from them
+@Component
+public class CustomerDAOInstrumentation implements BeanPostProcessor {
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    //resolved lazily: a post-processor that pulled in the registry eagerly would keep it from being post-processed
+    public CustomerDAOInstrumentation(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof CustomerDAO customerDAO && !(bean instanceof InstrumentedCustomerDAO)) {
+            return new InstrumentedCustomerDAO(customerDAO, beanName, meterRegistry.getObject());
+        }
+        return bean;
+    }
+}
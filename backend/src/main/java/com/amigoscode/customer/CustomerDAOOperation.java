@@ -0,0 +1,64 @@
+package com.amigoscode.customer;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+// the customer.dao and customer.dao.rows meters of one read or write, resolved once up front;
+// a call costs two clock reads and a histogram update
+final class CustomerDAOOperation {
+    private final Timer success;
+    private final Timer error;
+    private final DistributionSummary rows;
+
+    CustomerDAOOperation(MeterRegistry meterRegistry, String implementation, String method) {
+        this.success = Timer.builder(InstrumentedCustomerDAO.TIMER)
+                .tag("implementation", implementation)
+                .tag("method", method)
+                .tag("outcome", "success")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        //failures are counted and timed, without a latency distribution of their own
+        this.error = Timer.builder(InstrumentedCustomerDAO.TIMER)
+                .tag("implementation", implementation)
+                .tag("method", method)
+                .tag("outcome", "error")
+                .register(meterRegistry);
+        this.rows = DistributionSummary.builder(InstrumentedCustomerDAO.ROWS)
+                .tag("implementation", implementation)
+                .tag("method", method)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    //rowCount is null for writes that report no rows
+    <T> T record(Supplier<T> call, ToIntFunction<T> rowCount) {
+        long start = System.nanoTime();
+        T result;
+        try {
+            result = call.get();
+        } catch (RuntimeException | Error e) {
+            error.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+        success.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        if (rowCount != null) {
+            rows.record(rowCount.applyAsInt(result));
+        }
+        return result;
+    }
+
+    static int optionalRows(Optional<?> result) {
+        return result.isPresent() ? 1 : 0;
+    }
+
+    static int existsRows(boolean exists) {
+        return exists ? 1 : 0;
+    }
+}
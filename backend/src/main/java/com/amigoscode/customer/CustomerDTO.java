@@ -1,7 +1,11 @@
 package com.amigoscode.customer;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.time.Instant;
 import java.util.List;
 
+//updatedAt travels as the Last-Modified header, not in the body
 public record CustomerDTO(
         Long id,
         String name,
@@ -9,6 +13,8 @@ public record CustomerDTO(
         Gender gender,
         Integer age,
         List<String> roles,
-        String username
+        String username,
+        Long version,
+        @JsonIgnore Instant updatedAt
 ) {
 }
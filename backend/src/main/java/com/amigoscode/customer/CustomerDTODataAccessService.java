@@ -0,0 +1,73 @@
+package com.amigoscode.customer;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+// read side of the list and get endpoints: selects only what a CustomerDTO shows and maps it
+// without going through Customer. writes and anything needing the password stay on CustomerDAO.
+// not a CustomerDAO, so it records its own customer.dao meters under implementation "dto"
+@Repository
+@Transactional(readOnly = true)
+public class CustomerDTODataAccessService {
+    private static final String SELECT_ALL = """
+            SELECT %s
+            FROM customer
+            """.formatted(CustomerDTORowMapper.COLUMNS);
+    private static final String SELECT_BY_ID = """
+            SELECT %s
+            FROM customer
+            WHERE id = ?
+            """.formatted(CustomerDTORowMapper.COLUMNS);
+    private static final String SELECT_BY_IDS = """
+            SELECT %s
+            FROM customer
+            WHERE id = ANY(?)
+            """.formatted(CustomerDTORowMapper.COLUMNS);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CustomerDTORowMapper customerDTORowMapper;
+    private final CustomerDAOOperation selectAllCustomers;
+    private final CustomerDAOOperation selectCustomers;
+    private final CustomerDAOOperation selectCustomerByID;
+    private final CustomerDAOOperation selectCustomersByIds;
+
+    public CustomerDTODataAccessService(JdbcTemplate jdbcTemplate,
+                                        CustomerDTORowMapper customerDTORowMapper,
+                                        MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.customerDTORowMapper = customerDTORowMapper;
+        this.selectAllCustomers = new CustomerDAOOperation(meterRegistry, "dto", "selectAllCustomers");
+        this.selectCustomers = new CustomerDAOOperation(meterRegistry, "dto", "selectCustomers");
+        this.selectCustomerByID = new CustomerDAOOperation(meterRegistry, "dto", "selectCustomerByID");
+        this.selectCustomersByIds = new CustomerDAOOperation(meterRegistry, "dto", "selectCustomersByIds");
+    }
+
+    public List<CustomerDTO> selectAllCustomers() {
+        return selectAllCustomers.record(() -> jdbcTemplate.query(SELECT_ALL, customerDTORowMapper), List::size);
+    }
+
+    public List<CustomerDTO> selectCustomers(CustomerPageRequest pageRequest) {
+        return selectCustomers.record(() -> jdbcTemplate.query(
+                pageRequest.sql(CustomerDTORowMapper.COLUMNS), customerDTORowMapper, pageRequest.parameters()
+        ), List::size);
+    }
+
+    public Optional<CustomerDTO> selectCustomerByID(Long id) {
+        return selectCustomerByID.record(
+                () -> jdbcTemplate.query(SELECT_BY_ID, customerDTORowMapper, id).stream().findFirst(),
+                CustomerDAOOperation::optionalRows
+        );
+    }
+
+    public List<CustomerDTO> selectCustomersByIds(Collection<Long> ids) {
+        return selectCustomersByIds.record(() -> jdbcTemplate.query(SELECT_BY_IDS, ps -> ps.setArray(1,
+                ps.getConnection().createArrayOf("bigint", ids.toArray())
+        ), customerDTORowMapper), List::size);
+    }
+}
@@ -1,10 +1,8 @@
 package com.amigoscode.customer;
 
 import org.springframework.stereotype.Service;
-import org.springframework.security.core.GrantedAuthority;
 
 import java.util.function.Function;
-import java.util.stream.Collectors;
 
 @Service
 public class CustomerDTOMapper implements Function<Customer, CustomerDTO> {
@@ -16,11 +14,10 @@ public class CustomerDTOMapper implements Function<Customer, CustomerDTO> {
                 customer.getEmail(),
                 customer.getGender(),
                 customer.getAge(),
-                customer.getAuthorities()
-                        .stream()
-                        .map(GrantedAuthority::getAuthority)
-                        .collect(Collectors.toList()),
-                customer.getUsername()
+                Customer.ROLES,
+                customer.getUsername(),
+                customer.getVersion(),
+                customer.getUpdatedAt()
         );
     }
 }
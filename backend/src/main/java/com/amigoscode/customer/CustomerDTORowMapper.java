@@ -0,0 +1,30 @@
+package com.amigoscode.customer;
+
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+// builds the CustomerDTO straight from a row of COLUMNS, by position: no label lookups,
+// no password hash, no entity in between, and the shared role list
+@Component
+public class CustomerDTORowMapper implements RowMapper<CustomerDTO> {
+    static final String COLUMNS = "id, name, email, age, gender, version, updated_at";
+
+    @Override
+    public CustomerDTO mapRow(ResultSet rs, int rowNum) throws SQLException {
+        String email = rs.getString(3);
+        return new CustomerDTO(
+                rs.getLong(1),
+                rs.getString(2),
+                email,
+                Gender.valueOf(rs.getString(5)),
+                rs.getInt(4),
+                Customer.ROLES,
+                email,
+                rs.getLong(6),
+                rs.getTimestamp(7).toInstant()
+        );
+    }
+}
@@ -0,0 +1,156 @@
+package com.amigoscode.customer;
+
+import com.amigoscode.datasource.ReadWriteRoutingDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.function.Predicate;
+
+// answers "definitely not registered" without touching the database; only "maybe" answers
+// are confirmed with a query. Until the first build completes every check goes to the database.
+@Component
+public class CustomerEmailFilter {
+    private static final long MIN_INSERTIONS = 1024;
+
+    private final CustomerDAO customerDAO;
+    private final double headroom;
+    private final double falsePositiveRate;
+    private final Counter negatives;
+    private final Counter truePositives;
+    private final Counter falsePositives;
+
+    private volatile EmailBloomFilter filter;
+    private volatile EmailBloomFilter building;
+
+    public CustomerEmailFilter(@Qualifier("jdbc") CustomerDAO customerDAO,
+                               MeterRegistry meterRegistry,
+                               @Value("${customer.email-filter.headroom:2.0}") double headroom,
+                               @Value("${customer.email-filter.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.customerDAO = customerDAO;
+        this.headroom = headroom;
+        this.falsePositiveRate = falsePositiveRate;
+        this.negatives = checks(meterRegistry, "negative");
+        this.truePositives = checks(meterRegistry, "positive");
+        this.falsePositives = checks(meterRegistry, "false-positive");
+        Gauge.builder("customer.email-filter.expected-false-positive-rate", this,
+                        f -> f.filter == null ? Double.NaN : f.filter.expectedFalsePositiveRate())
+                .register(meterRegistry);
+        Gauge.builder("customer.email-filter.observed-false-positive-rate", this,
+                        CustomerEmailFilter::observedFalsePositiveRate)
+                .register(meterRegistry);
+        Gauge.builder("customer.email-filter.insertions", this,
+                        f -> f.filter == null ? 0 : f.filter.insertions())
+                .register(meterRegistry);
+    }
+
+    private static Counter checks(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("customer.email-filter.checks")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    public boolean existsPersonWithEmail(String email, Predicate<String> lookup) {
+        EmailBloomFilter current = filter;
+        if (current != null && !current.mightContain(email)) {
+            negatives.increment();
+            return false;
+        }
+        boolean exists = lookup.test(email);
+        if (current != null) {
+            (exists ? truePositives : falsePositives).increment();
+        }
+        return exists;
+    }
+
+    public synchronized RebuildResult rebuild() {
+        Instant start = Instant.now();
+        EmailBloomFilter next = ReadWriteRoutingDataSource.readFromPrimary(() -> {
+            //sized for the customers there are now plus room to grow, so the false positive rate holds until the next rebuild
+            long customers = customerDAO.countCustomers();
+            return new EmailBloomFilter(Math.max(MIN_INSERTIONS, (long) Math.ceil(customers * headroom)), falsePositiveRate);
+        });
+        //emails registered while the table is being streamed are added to both filters
+        building = next;
+        try {
+            ReadWriteRoutingDataSource.runOnPrimary(() ->
+                    customerDAO.forEachCustomer(customer -> next.put(customer.getEmail())));
+            filter = next;
+        } finally {
+            building = null;
+        }
+        return new RebuildResult(
+                next.insertions(),
+                next.expectedFalsePositiveRate(),
+                Duration.between(start, Instant.now())
+        );
+    }
+
+    public Status status() {
+        EmailBloomFilter current = filter;
+        return new Status(
+                current != null,
+                current == null ? 0 : current.insertions(),
+                current == null ? Double.NaN : current.expectedFalsePositiveRate(),
+                observedFalsePositiveRate()
+        );
+    }
+
+    public double observedFalsePositiveRate() {
+        double falsePositive = falsePositives.count();
+        double definiteNo = negatives.count();
+        return falsePositive + definiteNo == 0 ? 0 : falsePositive / (falsePositive + definiteNo);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    //bloom filters cannot forget, so deleted or replaced emails simply stay "maybe" until the next rebuild
+    @EventListener
+    public void onCustomerChanged(CustomerChangedEvent event) {
+        if (event.current() != null) {
+            add(event.current().getEmail());
+        }
+    }
+
+    //imported rows bypass CustomerChangedEvent, so the filter would report false negatives
+    @EventListener
+    public void onCustomersImported(CustomersImportedEvent event) {
+        rebuild();
+    }
+
+    void add(String email) {
+        EmailBloomFilter current = filter;
+        if (current != null) {
+            current.put(email);
+        }
+        EmailBloomFilter next = building;
+        if (next != null) {
+            next.put(email);
+        }
+    }
+
+    public record Status(
+            boolean ready,
+            long insertions,
+            double expectedFalsePositiveRate,
+            double observedFalsePositiveRate
+    ) {
+    }
+
+    public record RebuildResult(
+            long insertions,
+            double expectedFalsePositiveRate,
+            Duration duration
+    ) {
+    }
+}
@@ -0,0 +1,26 @@
+package com.amigoscode.customer;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+@Component
+@Endpoint(id = "emailfilter")
+public class CustomerEmailFilterEndpoint {
+    private final CustomerEmailFilter customerEmailFilter;
+
+    public CustomerEmailFilterEndpoint(CustomerEmailFilter customerEmailFilter) {
+        this.customerEmailFilter = customerEmailFilter;
+    }
+
+    @ReadOperation
+    public CustomerEmailFilter.Status status() {
+        return customerEmailFilter.status();
+    }
+
+    @WriteOperation
+    public CustomerEmailFilter.RebuildResult rebuild() {
+        return customerEmailFilter.rebuild();
+    }
+}
@@ -0,0 +1,89 @@
+package com.amigoscode.customer;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+@Service
+public class CustomerExportService {
+
+    private final CustomerDAO customerDAO;
+    private final CustomerDTOMapper customerDTOMapper;
+    private final ObjectWriter objectWriter;
+
+    public CustomerExportService(@Qualifier("jdbc") CustomerDAO customerDAO,
+                                 CustomerDTOMapper customerDTOMapper,
+                                 ObjectMapper objectMapper) {
+        this.customerDAO = customerDAO;
+        this.customerDTOMapper = customerDTOMapper;
+        //flushing after every row would turn each customer into its own network write
+        this.objectWriter = objectMapper.writerFor(CustomerDTO.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    public void export(CustomerExportFormat format, OutputStream outputStream) throws IOException {
+        try {
+            switch (format) {
+                case NDJSON -> exportNdjson(outputStream);
+                case CSV -> exportCsv(outputStream);
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private void exportNdjson(OutputStream outputStream) throws IOException {
+        try (JsonGenerator generator = objectWriter.createGenerator(outputStream)) {
+            generator.setRootValueSeparator(null);
+            customerDAO.forEachCustomer(customer -> {
+                try {
+                    objectWriter.writeValue(generator, customerDTOMapper.apply(customer));
+                    generator.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+
+    private void exportCsv(OutputStream outputStream) throws IOException {
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8))) {
+            writer.write("id,name,email,gender,age\n");
+            customerDAO.forEachCustomer(customer -> {
+                try {
+                    writer.write(String.valueOf(customer.getId()));
+                    writer.write(',');
+                    writer.write(csvField(customer.getName()));
+                    writer.write(',');
+                    writer.write(csvField(customer.getEmail()));
+                    writer.write(',');
+                    writer.write(customer.getGender().name());
+                    writer.write(',');
+                    writer.write(String.valueOf(customer.getAge()));
+                    writer.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+
+    private static String csvField(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0
+                && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,69 @@
+package com.amigoscode.customer;
+
+import com.amigoscode.exception.RequestValidationException;
+
+import java.util.Arrays;
+
+// the CustomerDTO properties a client can ask for with ?fields=, and the column each one is read from.
+// the column names double as the Customer attribute names for JPA projections, unless an attribute is given
+public enum CustomerField {
+    ID("id", "id"),
+    NAME("name", "name"),
+    EMAIL("email", "email"),
+    GENDER("gender", "gender"),
+    AGE("age", "age"),
+    //the same for every customer, nothing to read
+    ROLES("roles", null),
+    USERNAME("username", "email"),
+    VERSION("version", "version"),
+    UPDATED_AT("updatedAt", "updated_at", "updatedAt");
+
+    private final String field;
+    private final String column;
+    private final String attribute;
+
+    CustomerField(String field, String column) {
+        this(field, column, column);
+    }
+
+    CustomerField(String field, String column, String attribute) {
+        this.field = field;
+        this.column = column;
+        this.attribute = attribute;
+    }
+
+    //the Customer attribute a selected column is read from in JPA projections
+    static String attribute(String column) {
+        return Arrays.stream(values())
+                .filter(value -> column.equals(value.column))
+                .findFirst()
+                .map(value -> value.attribute)
+                .orElse(column);
+    }
+
+    public static CustomerField fromField(String field) {
+        return Arrays.stream(values())
+                .filter(value -> value.field.equals(field))
+                .findFirst()
+                .orElseThrow(() -> new RequestValidationException(
+                        "field [%s] is not supported".formatted(field)
+                ));
+    }
+
+    static CustomerField of(CustomerSort sort) {
+        return switch (sort) {
+            case ID -> ID;
+            case NAME -> NAME;
+            case EMAIL -> EMAIL;
+            case AGE -> AGE;
+        };
+    }
+
+    public String field() {
+        return field;
+    }
+
+    public String column() {
+        return column;
+    }
+}
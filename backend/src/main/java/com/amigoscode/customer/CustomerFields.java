@@ -0,0 +1,91 @@
+package com.amigoscode.customer;
+
+import com.amigoscode.exception.RequestValidationException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+// a sparse fieldset, e.g. ?fields=id,name. the DAOs select only columns() and hand back one
+// map per customer, with the fields in CustomerDTO order
+public record CustomerFields(Set<CustomerField> fields) {
+
+    public CustomerFields {
+        if (fields.isEmpty()) {
+            throw new RequestValidationException("fields must name at least one field");
+        }
+        fields = Collections.unmodifiableSet(EnumSet.copyOf(fields));
+    }
+
+    public static CustomerFields parse(String fields) {
+        EnumSet<CustomerField> parsed = EnumSet.noneOf(CustomerField.class);
+        Arrays.stream(fields.split(","))
+                .map(String::trim)
+                .filter(field -> !field.isEmpty())
+                .map(CustomerField::fromField)
+                .forEach(parsed::add);
+        return new CustomerFields(parsed);
+    }
+
+    public static CustomerFields of(CustomerField... fields) {
+        return new CustomerFields(EnumSet.copyOf(Arrays.asList(fields)));
+    }
+
+    public CustomerFields with(CustomerField... extra) {
+        EnumSet<CustomerField> combined = EnumSet.copyOf(fields);
+        combined.addAll(Arrays.asList(extra));
+        return new CustomerFields(combined);
+    }
+
+    public boolean contains(CustomerField field) {
+        return fields.contains(field);
+    }
+
+    //distinct columns to select, in field order; roles alone still need a column to count rows by
+    public List<String> columns() {
+        List<String> columns = new ArrayList<>();
+        for (CustomerField field : fields) {
+            if (field.column() != null && !columns.contains(field.column())) {
+                columns.add(field.column());
+            }
+        }
+        if (columns.isEmpty()) {
+            columns.add(CustomerField.ID.column());
+        }
+        return columns;
+    }
+
+    //columnValue is asked once per selected field, by column name
+    public Map<String, Object> row(Function<String, Object> columnValue) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        for (CustomerField field : fields) {
+            row.put(field.field(), field == CustomerField.ROLES ? Customer.ROLES : columnValue.apply(field.column()));
+        }
+        return row;
+    }
+
+    public Map<String, Object> row(Customer customer) {
+        return row(column -> switch (column) {
+            case "id" -> customer.getId();
+            case "name" -> customer.getName();
+            case "email" -> customer.getEmail();
+            case "gender" -> customer.getGender();
+            case "age" -> customer.getAge();
+            case "version" -> customer.getVersion();
+            case "updated_at" -> customer.getUpdatedAt();
+            default -> throw new IllegalArgumentException("unknown column [%s]".formatted(column));
+        });
+    }
+
+    //drops the fields the caller added on top of what the client asked for
+    public Map<String, Object> select(Map<String, Object> row) {
+        row.keySet().removeIf(field -> !fields.contains(CustomerField.fromField(field)));
+        return row;
+    }
+}
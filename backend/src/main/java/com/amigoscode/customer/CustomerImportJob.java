@@ -0,0 +1,109 @@
+package com.amigoscode.customer;
+
+import com.amigoscode.customer.CustomerImportStatus.State;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+// progress of one import, written by the worker thread and read by status requests
+class CustomerImportJob {
+    static final int MAX_REPORTED_ERRORS = 100;
+
+    private final UUID id;
+    private final Clock clock;
+    private final AtomicLong rowsRead = new AtomicLong();
+    private final AtomicLong rowsStaged = new AtomicLong();
+    private final AtomicLong rowsInvalid = new AtomicLong();
+    private final List<String> errors = new ArrayList<>();
+    private volatile State state = State.QUEUED;
+    private volatile long rowsImported;
+    private volatile long rowsDuplicate;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile String failure;
+
+    CustomerImportJob(UUID id, Clock clock) {
+        this.id = id;
+        this.clock = clock;
+    }
+
+    UUID id() {
+        return id;
+    }
+
+    void start() {
+        startedAt = clock.instant();
+        state = State.RUNNING;
+    }
+
+    void rowRead() {
+        rowsRead.incrementAndGet();
+    }
+
+    void rowsStaged(int count) {
+        rowsStaged.addAndGet(count);
+    }
+
+    void rowInvalid(long line, String message) {
+        rowsInvalid.incrementAndGet();
+        synchronized (errors) {
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add("line %s: %s".formatted(line, message));
+            }
+        }
+    }
+
+    void complete(long imported) {
+        rowsImported = imported;
+        rowsDuplicate = rowsStaged.get() - imported;
+        finishedAt = clock.instant();
+        state = State.COMPLETED;
+    }
+
+    void fail(String message) {
+        failure = message;
+        finishedAt = clock.instant();
+        state = State.FAILED;
+    }
+
+    boolean finishedBefore(Instant cutoff) {
+        Instant finished = finishedAt;
+        return finished != null && finished.isBefore(cutoff);
+    }
+
+    CustomerImportStatus status() {
+        List<String> reportedErrors;
+        synchronized (errors) {
+            reportedErrors = List.copyOf(errors);
+        }
+        return new CustomerImportStatus(
+                id,
+                state,
+                rowsRead.get(),
+                rowsStaged.get(),
+                rowsInvalid.get(),
+                rowsImported,
+                rowsDuplicate,
+                rowsPerSecond(),
+                startedAt,
+                finishedAt,
+                reportedErrors,
+                failure
+        );
+    }
+
+    private double rowsPerSecond() {
+        Instant started = startedAt;
+        if (started == null) {
+            return 0;
+        }
+        Instant finished = finishedAt;
+        long millis = Duration.between(started, finished == null ? clock.instant() : finished).toMillis();
+        return millis == 0 ? 0 : rowsRead.get() * 1000.0 / millis;
+    }
+}
@@ -0,0 +1,350 @@
+package com.amigoscode.customer;
+
+import com.amigoscode.customer.CustomerSummaryDataAccessService.CustomerSummaryRow;
+import com.amigoscode.exception.RequestValidationException;
+import com.amigoscode.exception.ResourceNotFoundException;
+import com.amigoscode.exception.ServiceOverloadedException;
+import com.amigoscode.security.BoundedPasswordEncoder;
+import com.amigoscode.sqltrace.SqlTraceRecorder;
+import org.postgresql.PGConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+// CSV file -> parse and validate in chunks -> hash in parallel -> one short COPY per chunk into an unlogged
+// staging table -> one INSERT ... SELECT into customer that skips taken emails
+@Service
+public class CustomerImportService implements DisposableBean {
+    static final List<String> COLUMNS = List.of("name", "email", "password", "age", "gender");
+    private static final String COPY_SQL = """
+            COPY customer_import_staging(job_id, line, name, email, password, age, gender)
+            FROM STDIN WITH (FORMAT csv)
+            """;
+    private static final Logger log = LoggerFactory.getLogger(CustomerImportService.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BoundedPasswordEncoder passwordEncoder;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CustomerSummaryService summaryService;
+    private final TransactionOperations transactionOperations;
+    private final ObjectProvider<SqlTraceRecorder> sqlTraceRecorder;
+    private final Clock clock;
+    private final int chunkSize;
+    private final Duration retention;
+    private final ThreadPoolExecutor jobExecutor;
+    private final Map<UUID, CustomerImportJob> jobs = new ConcurrentHashMap<>();
+
+    public CustomerImportService(JdbcTemplate jdbcTemplate,
+                                 @Qualifier("bulkPasswordEncoder") BoundedPasswordEncoder passwordEncoder,
+                                 ApplicationEventPublisher eventPublisher,
+                                 CustomerSummaryService summaryService,
+                                 TransactionOperations transactionOperations,
+                                 ObjectProvider<SqlTraceRecorder> sqlTraceRecorder,
+                                 @Value("${customer.import.concurrent-jobs:1}") int concurrentJobs,
+                                 @Value("${customer.import.queue-capacity:4}") int queueCapacity,
+                                 @Value("${customer.import.chunk-size:5000}") int chunkSize,
+                                 @Value("${customer.import.retention:24h}") Duration retention) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.passwordEncoder = passwordEncoder;
+        this.eventPublisher = eventPublisher;
+        this.summaryService = summaryService;
+        this.transactionOperations = transactionOperations;
+        this.sqlTraceRecorder = sqlTraceRecorder;
+        this.clock = Clock.systemUTC();
+        this.chunkSize = chunkSize;
+        this.retention = retention;
+        this.jobExecutor = new ThreadPoolExecutor(
+                concurrentJobs, concurrentJobs,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("customer-import-"),
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+    }
+
+    public UUID startImport(InputStream csv) {
+        forgetFinishedJobs();
+        Path file = spool(csv);
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            columnPositions(reader.readLine());
+        } catch (IOException | RuntimeException e) {
+            deleteQuietly(file);
+            if (e instanceof RequestValidationException requestValidationException) {
+                throw requestValidationException;
+            }
+            throw new RequestValidationException("could not read CSV header");
+        }
+        CustomerImportJob job = new CustomerImportJob(UUID.randomUUID(), clock);
+        jobs.put(job.id(), job);
+        try {
+            jobExecutor.execute(() -> run(job, file));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id());
+            deleteQuietly(file);
+            throw new ServiceOverloadedException("too many customer imports in progress, try again later");
+        }
+        return job.id();
+    }
+
+    public CustomerImportStatus getImport(UUID id) {
+        CustomerImportJob job = jobs.get(id);
+        if (job == null) {
+            throw new ResourceNotFoundException(
+                    "customer import with id [%s] not found".formatted(id)
+            );
+        }
+        return job.status();
+    }
+
+    @Override
+    public void destroy() {
+        jobExecutor.shutdownNow();
+    }
+
+    void run(CustomerImportJob job, Path file) {
+        job.start();
+        try {
+            stage(job, file);
+            long imported = merge(job.id());
+            job.complete(imported);
+            if (imported > 0) {
+                eventPublisher.publishEvent(new CustomersImportedEvent(job.id(), imported));
+            }
+        } catch (Exception e) {
+            log.warn("customer import {} failed", job.id(), e);
+            job.fail(e.getMessage());
+        } finally {
+            try {
+                jdbcTemplate.update("DELETE FROM customer_import_staging WHERE job_id = ?", job.id());
+            } catch (RuntimeException e) {
+                log.warn("could not clear staging rows of customer import {}", job.id(), e);
+            }
+            deleteQuietly(file);
+        }
+    }
+
+    private void stage(CustomerImportJob job, Path file) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            int[] positions = columnPositions(reader.readLine());
+            List<ImportRow> chunk = new ArrayList<>(chunkSize);
+            long lineNumber = 1;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                job.rowRead();
+                ImportRow row = parse(job, lineNumber, line, positions);
+                if (row != null) {
+                    chunk.add(row);
+                }
+                if (chunk.size() == chunkSize) {
+                    copy(job, chunk);
+                    chunk.clear();
+                }
+            }
+            copy(job, chunk);
+        }
+    }
+
+    private long merge(UUID jobId) {
+        //the first occurrence of an email in the file wins, rows whose email is taken are skipped;
+        //the inserted rows are counted per summary cell and applied in the same transaction
+        var sql = """
+                WITH inserted AS (
+                    INSERT INTO customer(name, email, password, age, gender)
+                    SELECT DISTINCT ON (email) name, email, password, age, gender
+                    FROM customer_import_staging
+                    WHERE job_id = ?
+                    ORDER BY email, line
+                    ON CONFLICT (email) DO NOTHING
+                    RETURNING gender, age
+                )
+                SELECT gender, age / %1$s * %1$s AS age_bucket, count(*) AS customers
+                FROM inserted
+                GROUP BY gender, age / %1$s * %1$s
+                """.formatted(CustomerSummaryDataAccessService.AGE_BUCKET_WIDTH);
+        List<CustomerSummaryRow> cells = Objects.requireNonNull(transactionOperations.execute(status -> {
+            List<CustomerSummaryRow> inserted = jdbcTemplate.query(sql, (rs, rowNum) -> new CustomerSummaryRow(
+                    Gender.valueOf(rs.getString("gender")),
+                    rs.getInt("age_bucket"),
+                    rs.getLong("customers")
+            ), jobId);
+            summaryService.recordDeltas(inserted);
+            return inserted;
+        }));
+        return cells.stream().mapToLong(CustomerSummaryRow::customers).sum();
+    }
+
+    //hashed before a connection is taken, so each COPY holds one only for as long as the bytes take to send;
+    //chunks staged before a failure are cleared with the rest of the job's staging rows
+    private void copy(CustomerImportJob job, List<ImportRow> chunk) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        List<String> hashes = hash(chunk);
+        StringBuilder csv = new StringBuilder(chunk.size() * 128);
+        for (int i = 0; i < chunk.size(); i++) {
+            ImportRow row = chunk.get(i);
+            CustomerRegistrationRequest request = row.request();
+            csv.append(job.id()).append(',')
+                    .append(row.line()).append(',')
+                    .append(CustomerCsv.quote(request.name())).append(',')
+                    .append(CustomerCsv.quote(request.email())).append(',')
+                    .append(CustomerCsv.quote(hashes.get(i))).append(',')
+                    .append(request.age()).append(',')
+                    .append(request.gender().name()).append('\n');
+        }
+        byte[] bytes = csv.toString().getBytes(StandardCharsets.UTF_8);
+        //the COPY API talks to the driver's connection behind the tracing proxy, so it is reported here
+        jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            long start = System.nanoTime();
+            try {
+                long rows = connection.unwrap(PGConnection.class).getCopyAPI()
+                        .copyIn(COPY_SQL, new ByteArrayInputStream(bytes));
+                sqlTraceRecorder.ifAvailable(recorder -> recorder.record(
+                        COPY_SQL, 0, 0, System.nanoTime() - start, rows
+                ));
+                return rows;
+            } catch (IOException e) {
+                throw new SQLException("could not stream rows to COPY", e);
+            }
+        });
+        job.rowsStaged(chunk.size());
+    }
+
+    //the bulk encoder waits for room on its own pool instead of failing the job or taking login threads
+    private List<String> hash(List<ImportRow> chunk) {
+        return passwordEncoder.encodeAll(chunk.stream().map(row -> row.request().password()).toList());
+    }
+
+    static int[] columnPositions(String header) {
+        if (header == null) {
+            throw new RequestValidationException("CSV file is empty");
+        }
+        List<String> names = CustomerCsv.parseLine(header).stream()
+                .map(name -> name.trim().toLowerCase(Locale.ROOT))
+                .toList();
+        int[] positions = new int[COLUMNS.size()];
+        for (int i = 0; i < COLUMNS.size(); i++) {
+            positions[i] = names.indexOf(COLUMNS.get(i));
+            if (positions[i] < 0) {
+                throw new RequestValidationException(
+                        "CSV header must contain the columns %s".formatted(COLUMNS)
+                );
+            }
+        }
+        return positions;
+    }
+
+    static ImportRow parse(CustomerImportJob job, long lineNumber, String line, int[] positions) {
+        List<String> fields;
+        try {
+            fields = CustomerCsv.parseLine(line);
+        } catch (IllegalArgumentException e) {
+            job.rowInvalid(lineNumber, e.getMessage());
+            return null;
+        }
+        for (int position : positions) {
+            if (position >= fields.size()) {
+                job.rowInvalid(lineNumber, "expected %s columns".formatted(COLUMNS.size()));
+                return null;
+            }
+        }
+
+        Integer age;
+        try {
+            age = fields.get(positions[3]).isBlank() ? null : Integer.valueOf(fields.get(positions[3]).trim());
+        } catch (NumberFormatException e) {
+            job.rowInvalid(lineNumber, "age must be a number");
+            return null;
+        }
+        Gender gender;
+        try {
+            gender = fields.get(positions[4]).isBlank()
+                    ? null
+                    : Gender.valueOf(fields.get(positions[4]).trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            job.rowInvalid(lineNumber, "gender must be one of %s".formatted(List.of(Gender.values())));
+            return null;
+        }
+
+        CustomerRegistrationRequest request = new CustomerRegistrationRequest(
+                fields.get(positions[0]),
+                fields.get(positions[1]).trim(),
+                fields.get(positions[2]),
+                age,
+                gender
+        );
+        String problem = CustomerRegistrationRules.violation(request);
+        if (problem != null) {
+            job.rowInvalid(lineNumber, problem);
+            return null;
+        }
+        return new ImportRow(lineNumber, request);
+    }
+
+    private void forgetFinishedJobs() {
+        var cutoff = clock.instant().minus(retention);
+        jobs.values().removeIf(job -> job.finishedBefore(cutoff));
+    }
+
+    private static Path spool(InputStream csv) {
+        try {
+            Path file = Files.createTempFile("customer-import-", ".csv");
+            try {
+                Files.copy(csv, file, StandardCopyOption.REPLACE_EXISTING);
+            } catch (IOException e) {
+                deleteQuietly(file);
+                throw e;
+            }
+            return file;
+        } catch (IOException e) {
+            throw new IllegalStateException("could not store uploaded CSV", e);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("could not delete {}", file, e);
+        }
+    }
+
+    record ImportRow(long line, CustomerRegistrationRequest request) {
+    }
+}
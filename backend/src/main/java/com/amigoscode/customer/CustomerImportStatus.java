@@ -0,0 +1,24 @@
+package com.amigoscode.customer;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+public record CustomerImportStatus(
+        UUID id,
+        State state,
+        long rowsRead,
+        long rowsStaged,
+        long rowsInvalid,
+        long rowsImported,
+        long rowsDuplicate,
+        double rowsPerSecond,
+        Instant startedAt,
+        Instant finishedAt,
+        List<String> errors,
+        String failure
+) {
+    public enum State {
+        QUEUED, RUNNING, COMPLETED, FAILED
+    }
+}
@@ -1,14 +1,32 @@
 package com.amigoscode.customer;
 
+import com.amigoscode.exception.DuplicateResourceException;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
 @Repository("jdbc")
 public class CustomerJDBCDataAccessService implements CustomerDAO{
 
+    static final int STREAM_FETCH_SIZE = 1000;
+    static final int INSERT_BATCH_SIZE = 500;
+
     private final JdbcTemplate jdbcTemplate;
     private final CustomerRowMapper customerRowMapper;
 
@@ -20,32 +38,140 @@ public class CustomerJDBCDataAccessService implements CustomerDAO{
     @Override
     public List<Customer> selectAllCustomers() {
         var sql = """
-                SELECT id, name, email, password, age, gender
+                SELECT id, name, email, password, age, gender, version, updated_at
                 FROM customer              
                 """;
 
         return jdbcTemplate.query(sql, customerRowMapper);
     }
 
+    @Override
+    public List<Customer> selectCustomers(CustomerPageRequest pageRequest) {
+        return jdbcTemplate.query(pageRequest.sql(), customerRowMapper, pageRequest.parameters());
+    }
+
+    //the postgres driver only uses a server-side cursor when the fetch size is set and autocommit is off
+    @Override
+    @Transactional(readOnly = true)
+    public void forEachCustomer(Consumer<Customer> action) {
+        var sql = """
+                SELECT id, name, email, password, age, gender, version, updated_at
+                FROM customer
+                """;
+
+        jdbcTemplate.query(
+                connection -> {
+                    PreparedStatement statement = connection.prepareStatement(
+                            sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY
+                    );
+                    statement.setFetchSize(STREAM_FETCH_SIZE);
+                    return statement;
+                },
+                (RowCallbackHandler) rs -> action.accept(customerRowMapper.mapRow(rs, rs.getRow()))
+        );
+    }
+
+    @Override
+    public long countCustomers() {
+        var sql = """
+                SELECT count(*)
+                FROM customer
+                """;
+
+        Long count = jdbcTemplate.queryForObject(sql, Long.class);
+        return count == null ? 0 : count;
+    }
+
     @Override
     public Optional<Customer> selectCustomerByID(Long id) {
         var sql = """
-                SELECT id, name, email, password, age, gender
+                SELECT id, name, email, password, age, gender, version, updated_at
                 FROM customer
                 WHERE id = ?            
                 """;
         return jdbcTemplate.query(sql, customerRowMapper, id).stream().findFirst();
     }
 
+    @Override
+    public List<Customer> selectCustomersByIds(Collection<Long> ids) {
+        var sql = """
+                SELECT id, name, email, password, age, gender, version, updated_at
+                FROM customer
+                WHERE id = ANY(?)
+                """;
+        return jdbcTemplate.query(sql, ps -> ps.setArray(1,
+                ps.getConnection().createArrayOf("bigint", ids.toArray())
+        ), customerRowMapper);
+    }
+
+    //only the columns behind the requested fields are selected
+    @Override
+    public List<Map<String, Object>> selectCustomerFields(CustomerPageRequest pageRequest, CustomerFields fields) {
+        List<String> columns = fields.columns();
+        return jdbcTemplate.query(
+                pageRequest.sql(String.join(", ", columns)), fieldsRowMapper(fields, columns), pageRequest.parameters()
+        );
+    }
+
+    @Override
+    public List<Map<String, Object>> selectCustomerFieldsByIds(Collection<Long> ids, CustomerFields fields) {
+        List<String> columns = fields.columns();
+        var sql = """
+                SELECT %s
+                FROM customer
+                WHERE id = ANY(?)
+                """.formatted(String.join(", ", columns));
+        return jdbcTemplate.query(sql, ps -> ps.setArray(1,
+                ps.getConnection().createArrayOf("bigint", ids.toArray())
+        ), fieldsRowMapper(fields, columns));
+    }
+
+    private static RowMapper<Map<String, Object>> fieldsRowMapper(CustomerFields fields, List<String> columns) {
+        return (rs, rowNum) -> {
+            Object[] values = new Object[columns.size()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = column(rs, i + 1, columns.get(i));
+            }
+            return fields.row(column -> values[columns.indexOf(column)]);
+        };
+    }
+
+    private static Object column(ResultSet rs, int index, String column) throws SQLException {
+        return switch (column) {
+            case "id", "version" -> rs.getLong(index);
+            case "age" -> rs.getInt(index);
+            case "gender" -> Gender.valueOf(rs.getString(index));
+            case "updated_at" -> rs.getTimestamp(index).toInstant();
+            default -> rs.getString(index);
+        };
+    }
+
+    @Override
+    public Optional<CustomerVersion> selectCustomerVersion(Long id) {
+        var sql = """
+                SELECT version, updated_at
+                FROM customer
+                WHERE id = ?
+                """;
+        return jdbcTemplate.query(sql, (rs, rowNum) -> new CustomerVersion(
+                rs.getLong("version"),
+                rs.getTimestamp("updated_at").toInstant()
+        ), id).stream().findFirst();
+    }
+
+    //one round trip: the unique index on email decides, no existence check beforehand
     @Override
     public void insertCustomer(Customer customer) {
         var sql = """
                 INSERT INTO customer(name, email, password, age, gender)
                 VALUES(?, ?, ?, ?, ?)
+                ON CONFLICT (email) DO NOTHING
+                RETURNING id
                 """;
 
-        int result = jdbcTemplate.update(
+        List<Long> ids = jdbcTemplate.queryForList(
                 sql,
+                Long.class,
                 customer.getName(),
                 customer.getEmail(),
                 customer.getPassword(),
@@ -53,7 +179,66 @@ public class CustomerJDBCDataAccessService implements CustomerDAO{
                 customer.getGender().name()
                 );
 
-        System.out.println("jdbcTemplate.update" + result);
+        if (ids.isEmpty()) {
+            throw new DuplicateResourceException("email already taken");
+        }
+        customer.setId(ids.get(0));
+    }
+
+    //returns the customers that were actually inserted, with their ids set. each chunk is one INSERT over
+    //column arrays, and RETURNING names exactly the rows it wrote; emails are distinct within a call
+    @Override
+    public List<Customer> insertCustomers(List<Customer> customers) {
+        var sql = """
+                INSERT INTO customer(name, email, password, age, gender)
+                SELECT * FROM unnest(?::text[], ?::text[], ?::text[], ?::int[], ?::text[])
+                ON CONFLICT (email) DO NOTHING
+                RETURNING id, email
+                """;
+
+        List<Customer> inserted = new ArrayList<>();
+        for (int from = 0; from < customers.size(); from += INSERT_BATCH_SIZE) {
+            List<Customer> chunk = customers.subList(from, Math.min(from + INSERT_BATCH_SIZE, customers.size()));
+            Map<String, Customer> byEmail = new HashMap<>();
+            chunk.forEach(customer -> byEmail.put(customer.getEmail(), customer));
+            jdbcTemplate.query(
+                    sql,
+                    ps -> {
+                        ps.setArray(1, ps.getConnection().createArrayOf(
+                                "text", chunk.stream().map(Customer::getName).toArray()));
+                        ps.setArray(2, ps.getConnection().createArrayOf(
+                                "text", chunk.stream().map(Customer::getEmail).toArray()));
+                        ps.setArray(3, ps.getConnection().createArrayOf(
+                                "text", chunk.stream().map(Customer::getPassword).toArray()));
+                        ps.setArray(4, ps.getConnection().createArrayOf(
+                                "int4", chunk.stream().map(Customer::getAge).toArray()));
+                        ps.setArray(5, ps.getConnection().createArrayOf(
+                                "text", chunk.stream().map(customer -> customer.getGender().name()).toArray()));
+                    },
+                    (RowCallbackHandler) rs -> {
+                        Customer customer = byEmail.get(rs.getString("email"));
+                        customer.setId(rs.getLong("id"));
+                        inserted.add(customer);
+                    }
+            );
+        }
+        return inserted;
+    }
+
+    @Override
+    public Set<String> selectExistingEmails(Collection<String> emails) {
+        if (emails.isEmpty()) {
+            return Set.of();
+        }
+        var sql = """
+                SELECT email
+                FROM customer
+                WHERE email = ANY(?)
+                """;
+
+        return new HashSet<>(jdbcTemplate.queryForList(
+                sql, String.class, (Object) emails.toArray(String[]::new)
+        ));
     }
 
     @Override
@@ -69,14 +254,14 @@ public class CustomerJDBCDataAccessService implements CustomerDAO{
     }
 
     @Override
-    public void deleteCustomerById(Long customerId) {
+    public Optional<Customer> deleteCustomerById(Long customerId) {
         var sql = """
                 DELETE FROM customer
                 WHERE id = ?
+                RETURNING id, name, email, password, age, gender, version, updated_at
                 """;
 
-        int result = jdbcTemplate.update(sql, customerId);
-        System.out.println("deleteCustomerById result = " + result);
+        return jdbcTemplate.query(sql, customerRowMapper, customerId).stream().findFirst();
     }
 
     @Override
@@ -93,41 +278,38 @@ public class CustomerJDBCDataAccessService implements CustomerDAO{
 
     @Override
     public void updateCustomerById(Customer update) {
-        if(update.getName() != null){
-            String sql = "UPDATE customer SET name = ? WHERE id = ?";
-            int result = jdbcTemplate.update(
-                    sql,
-                    update.getName(),
-                    update.getId()
-            );
-            System.out.println("updateCustomerById result = " + result);
-        }
-
-        if(update.getEmail() != null){
-            String sql = "UPDATE customer SET email = ? WHERE id = ?";
-            int result = jdbcTemplate.update(
-                    sql,
-                    update.getEmail(),
-                    update.getId()
-            );
-            System.out.println("updateCustomerById result = " + result);
-        }
+        var sql = """
+                UPDATE customer
+                SET name = COALESCE(?, name),
+                    email = COALESCE(?, email),
+                    age = COALESCE(?, age),
+                    version = version + 1
+                WHERE id = ?
+                """;
+        jdbcTemplate.update(
+                sql,
+                update.getName(),
+                update.getEmail(),
+                update.getAge(),
+                update.getId()
+        );
+    }
 
-        if(update.getAge() != null){
-            String sql = "UPDATE customer SET age = ? WHERE id = ?";
-            int result = jdbcTemplate.update(
-                    sql,
-                    update.getAge(),
-                    update.getId()
-            );
-            System.out.println("updateCustomerById result = " + result);
+    @Override
+    public Optional<CustomerRevision> patchCustomer(CustomerPatch patch) {
+        try {
+            return jdbcTemplate.query(patch.sql(), (rs, rowNum) -> CustomerPatch.mapRow(rs), patch.parameters())
+                    .stream()
+                    .findFirst();
+        } catch (DuplicateKeyException e) {
+            throw new DuplicateResourceException("email already taken");
         }
     }
 
     @Override
     public Optional<Customer> selectUserByEmail(String email) {
         var sql = """
-                SELECT id, name, email, password, age, gender
+                SELECT id, name, email, password, age, gender, version, updated_at
                 FROM customer
                 WHERE email = ?            
                 """;
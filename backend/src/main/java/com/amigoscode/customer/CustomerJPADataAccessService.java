@@ -1,9 +1,20 @@
 package com.amigoscode.customer;
 
+import com.amigoscode.exception.DuplicateResourceException;
+import com.amigoscode.exception.VersionConflictException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 @Repository("jpa")
 public class CustomerJPADataAccessService implements CustomerDAO{
@@ -15,28 +26,98 @@ public class CustomerJPADataAccessService implements CustomerDAO{
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<Customer> selectAllCustomers() {
         return customerRepository.findAll();
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public List<Customer> selectCustomers(CustomerPageRequest pageRequest) {
+        return customerRepository.findPage(pageRequest);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void forEachCustomer(Consumer<Customer> action) {
+        customerRepository.forEachCustomer(action);
+    }
+
+    @Override
+    public long countCustomers() {
+        return customerRepository.count();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public Optional<Customer> selectCustomerByID(Long id) {
         return customerRepository.findById(id);
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public List<Customer> selectCustomersByIds(Collection<Long> ids) {
+        return customerRepository.findAllByIdIn(ids);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> selectCustomerFields(CustomerPageRequest pageRequest, CustomerFields fields) {
+        return customerRepository.findFields(pageRequest, fields.columns()).stream()
+                .map(tuple -> fields.row(tuple::get))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> selectCustomerFieldsByIds(Collection<Long> ids, CustomerFields fields) {
+        return customerRepository.findFieldsByIdIn(ids, fields.columns()).stream()
+                .map(tuple -> fields.row(tuple::get))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<CustomerVersion> selectCustomerVersion(Long id) {
+        return customerRepository.findVersionById(id);
+    }
+
+    @Override
+    @Transactional
     public void insertCustomer(Customer customer) {
-        customerRepository.save(customer);
+        Long id = customerRepository.insertIfEmailAbsent(customer)
+                .orElseThrow(() -> new DuplicateResourceException("email already taken"));
+        customer.setId(id);
     }
 
     @Override
+    @Transactional
+    public List<Customer> insertCustomers(List<Customer> customers) {
+        List<Customer> inserted = new ArrayList<>();
+        for (Customer customer : customers) {
+            customerRepository.insertIfEmailAbsent(customer).ifPresent(id -> {
+                customer.setId(id);
+                inserted.add(customer);
+            });
+        }
+        return inserted;
+    }
+
+    @Override
+    public Set<String> selectExistingEmails(Collection<String> emails) {
+        return customerRepository.findExistingEmails(emails);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public boolean existsPersonWithEmail(String email) {
         return customerRepository.existsCustomerByEmail(email);
     }
 
     @Override
-    public void deleteCustomerById(Long customerId) {
-        customerRepository.deleteById(customerId);
+    @Transactional
+    public Optional<Customer> deleteCustomerById(Long customerId) {
+        return customerRepository.deleteReturning(customerId);
     }
 
     @Override
@@ -46,10 +127,27 @@ public class CustomerJPADataAccessService implements CustomerDAO{
 
     @Override
     public void updateCustomerById(Customer customer) {
-        customerRepository.save(customer);
+        try {
+            customerRepository.save(customer);
+        } catch (ObjectOptimisticLockingFailureException e) {
+            throw new VersionConflictException(
+                    "customer with id [%s] was modified concurrently".formatted(customer.getId())
+            );
+        }
+    }
+
+    @Override
+    @Transactional
+    public Optional<CustomerRevision> patchCustomer(CustomerPatch patch) {
+        try {
+            return customerRepository.patch(patch);
+        } catch (DataIntegrityViolationException e) {
+            throw new DuplicateResourceException("email already taken");
+        }
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Optional<Customer> selectUserByEmail(String email) {
         return customerRepository.findCustomerByEmail(email);
     }
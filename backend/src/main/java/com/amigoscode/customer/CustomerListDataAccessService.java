@@ -1,65 +1,265 @@
 package com.amigoscode.customer;
 
+import com.amigoscode.exception.DuplicateResourceException;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
-
+// in-memory store: customers are kept as private copies indexed by id and by email.
+// the email index is the uniqueness claim (putIfAbsent), writes to one id are serialised
+// by a lock stripe, and readers never lock
 @Repository("list")
 public class CustomerListDataAccessService implements CustomerDAO{
 
-    private static List<Customer> customers;
+    private static final int LOCK_STRIPES = 64;
 
-    static{
-        customers = new ArrayList<>();
+    private final ConcurrentHashMap<Long, Customer> customersById = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Long> idsByEmail = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final Object[] locks = new Object[LOCK_STRIPES];
 
-        Customer alex = new Customer(1L, "Alex", "Alex@gmail.com", "password", 21, Gender.MALE);
-        customers.add(alex);
-        Customer Jamila = new Customer(2L, "Jamila", "Jamila@gmail.com", "password", 19, Gender.FEMALE);
-        customers.add(Jamila);
+    public CustomerListDataAccessService() {
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new Object();
+        }
+        insertCustomer(new Customer(1L, "Alex", "Alex@gmail.com", "password", 21, Gender.MALE));
+        insertCustomer(new Customer(2L, "Jamila", "Jamila@gmail.com", "password", 19, Gender.FEMALE));
     }
 
     @Override
     public List<Customer> selectAllCustomers() {
-        return customers;
+        return customersById.values().stream()
+                .map(CustomerListDataAccessService::copy)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<Customer> selectCustomers(CustomerPageRequest pageRequest) {
+        Comparator<Customer> comparator = pageRequest.sort().comparator();
+        if (pageRequest.descending()) {
+            comparator = comparator.reversed();
+        }
+        CustomerCursor after = pageRequest.after();
+        return customersById.values().stream()
+                .filter(c -> after == null
+                        || (pageRequest.descending() ? after.compare(c) < 0 : after.compare(c) > 0))
+                .sorted(comparator)
+                .limit(pageRequest.limit())
+                .map(CustomerListDataAccessService::copy)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public void forEachCustomer(Consumer<Customer> action) {
+        customersById.values().forEach(customer -> action.accept(copy(customer)));
+    }
+
+    @Override
+    public long countCustomers() {
+        return customersById.size();
     }
 
     @Override
     public Optional<Customer> selectCustomerByID(Long id) {
-        return customers.stream().filter(c ->  c.getId().equals(id)).findFirst();
+        return Optional.ofNullable(customersById.get(id)).map(CustomerListDataAccessService::copy);
+    }
+
+    @Override
+    public List<Customer> selectCustomersByIds(Collection<Long> ids) {
+        return ids.stream()
+                .map(customersById::get)
+                .filter(Objects::nonNull)
+                .map(CustomerListDataAccessService::copy)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<Map<String, Object>> selectCustomerFields(CustomerPageRequest pageRequest, CustomerFields fields) {
+        return selectCustomers(pageRequest).stream()
+                .map(fields::row)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<Map<String, Object>> selectCustomerFieldsByIds(Collection<Long> ids, CustomerFields fields) {
+        return selectCustomersByIds(ids).stream()
+                .map(fields::row)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public Optional<CustomerVersion> selectCustomerVersion(Long id) {
+        return Optional.ofNullable(customersById.get(id))
+                .map(customer -> new CustomerVersion(versionOf(customer), customer.getUpdatedAt()));
     }
 
     @Override
     public void insertCustomer(Customer customer) {
-        customers.add(customer);
+        if (!insert(customer)) {
+            throw new DuplicateResourceException("email already taken");
+        }
+    }
+
+    @Override
+    public List<Customer> insertCustomers(List<Customer> customers) {
+        List<Customer> inserted = new ArrayList<>();
+        for (Customer customer : customers) {
+            if (insert(customer)) {
+                inserted.add(customer);
+            }
+        }
+        return inserted;
+    }
+
+    @Override
+    public Set<String> selectExistingEmails(Collection<String> emails) {
+        Set<String> existing = new HashSet<>();
+        for (String email : emails) {
+            if (existsPersonWithEmail(email)) {
+                existing.add(email);
+            }
+        }
+        return existing;
     }
 
     @Override
     public boolean existsPersonWithEmail(String email) {
-        return customers.stream().anyMatch(c ->  c.getEmail().equals(email));
+        return findByEmail(email) != null;
     }
 
     @Override
-    public void deleteCustomerById(Long customerId) {
-        customers.stream().filter(c -> c.getId().equals(customerId)).findFirst().ifPresent(customers::remove);
+    public Optional<Customer> deleteCustomerById(Long customerId) {
+        synchronized (lockFor(customerId)) {
+            Customer removed = customersById.remove(customerId);
+            if (removed != null) {
+                idsByEmail.remove(removed.getEmail(), customerId);
+            }
+            return Optional.ofNullable(removed).map(CustomerListDataAccessService::copy);
+        }
     }
 
     @Override
     public boolean existsPersonWithId(Long id) {
-        return customers.stream().anyMatch(c ->  c.getId().equals(id));
+        return customersById.containsKey(id);
+    }
+
+    @Override
+    public void updateCustomerById(Customer update) {
+        synchronized (lockFor(update.getId())) {
+            Customer current = customersById.get(update.getId());
+            if (current != null) {
+                replace(current, update.getName(), update.getEmail(), update.getAge());
+            }
+        }
     }
 
     @Override
-    public void updateCustomerById(Customer customer) {
-        customers.add(customer);
+    public Optional<CustomerRevision> patchCustomer(CustomerPatch patch) {
+        synchronized (lockFor(patch.id())) {
+            Customer current = customersById.get(patch.id());
+            if (current == null || versionOf(current) != patch.expectedVersion()) {
+                return Optional.empty();
+            }
+            CustomerUpdateRequest changes = patch.changes();
+            Customer updated = replace(current, changes.name(), changes.email(), changes.age());
+            return Optional.of(new CustomerRevision(copy(current), copy(updated)));
+        }
     }
 
     @Override
     public Optional<Customer> selectUserByEmail(String email) {
-        return customers.stream().filter(c ->  c.getUsername().equals(email)).findFirst();
+        return Optional.ofNullable(findByEmail(email)).map(CustomerListDataAccessService::copy);
     }
 
+    private boolean insert(Customer customer) {
+        long id = customer.getId() != null ? customer.getId() : sequence.incrementAndGet();
+        if (idsByEmail.putIfAbsent(customer.getEmail(), id) != null) {
+            return false;
+        }
+        sequence.accumulateAndGet(id, Math::max);
+        customer.setId(id);
+        if (customer.getVersion() == null) {
+            customer.setVersion(0L);
+        }
+        customer.setUpdatedAt(Instant.now());
+        if (customersById.putIfAbsent(id, copy(customer)) != null) {
+            idsByEmail.remove(customer.getEmail(), id);
+            throw new DuplicateResourceException("customer with id [%s] already exists".formatted(id));
+        }
+        return true;
+    }
+
+    //caller holds the stripe lock for current's id; stored customers are never mutated, only swapped
+    private Customer replace(Customer current, String name, String email, Integer age) {
+        Long id = current.getId();
+        boolean emailChanged = email != null && !email.equals(current.getEmail());
+        if (emailChanged) {
+            Long owner = idsByEmail.putIfAbsent(email, id);
+            if (owner != null && !owner.equals(id)) {
+                throw new DuplicateResourceException("email already taken");
+            }
+        }
+        Customer updated = copy(current);
+        if (name != null) {
+            updated.setName(name);
+        }
+        if (emailChanged) {
+            updated.setEmail(email);
+        }
+        if (age != null) {
+            updated.setAge(age);
+        }
+        updated.setVersion(versionOf(current) + 1);
+        updated.setUpdatedAt(Instant.now());
+        customersById.put(id, updated);
+        if (emailChanged) {
+            idsByEmail.remove(current.getEmail(), id);
+        }
+        return updated;
+    }
+
+    //the email index may briefly point at a customer whose email is being changed
+    private Customer findByEmail(String email) {
+        Long id = idsByEmail.get(email);
+        if (id == null) {
+            return null;
+        }
+        Customer customer = customersById.get(id);
+        return customer != null && customer.getEmail().equals(email) ? customer : null;
+    }
 
+    private Object lockFor(Long id) {
+        return locks[Math.floorMod(Long.hashCode(id), LOCK_STRIPES)];
+    }
+
+    private static long versionOf(Customer customer) {
+        return Objects.requireNonNullElse(customer.getVersion(), 0L);
+    }
+
+    private static Customer copy(Customer customer) {
+        Customer copy = new Customer(
+                customer.getId(),
+                customer.getName(),
+                customer.getEmail(),
+                customer.getPassword(),
+                customer.getAge(),
+                customer.getGender()
+        );
+        copy.setVersion(customer.getVersion());
+        copy.setUpdatedAt(customer.getUpdatedAt());
+        return copy;
+    }
 }
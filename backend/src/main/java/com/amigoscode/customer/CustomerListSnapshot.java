@@ -0,0 +1,143 @@
+package com.amigoscode.customer;
+
+import com.amigoscode.datasource.ReadWriteRoutingDataSource;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPOutputStream;
+
+// the full customer list serialized once per data version, plain and gzipped. every mutation bumps
+// the version; the next read rebuilds, and concurrent readers share that single rebuild
+@Component
+public class CustomerListSnapshot {
+    private final CustomerService customerService;
+    private final ObjectMapper objectMapper;
+    private final AtomicLong dataVersion = new AtomicLong();
+    private final AtomicReference<CompletableFuture<Snapshot>> rebuilding = new AtomicReference<>();
+    private final Counter rebuilds;
+
+    private volatile Snapshot snapshot;
+
+    public CustomerListSnapshot(CustomerService customerService,
+                                ObjectMapper objectMapper,
+                                MeterRegistry meterRegistry) {
+        this.customerService = customerService;
+        this.objectMapper = objectMapper;
+        this.rebuilds = Counter.builder("customer.list.snapshot.rebuilds")
+                .register(meterRegistry);
+        Gauge.builder("customer.list.snapshot.bytes", this,
+                        s -> s.snapshot == null ? 0 : s.snapshot.json().length)
+                .register(meterRegistry);
+    }
+
+    public Snapshot current() {
+        long wanted = dataVersion.get();
+        while (true) {
+            Snapshot current = snapshot;
+            if (current != null && current.version() >= wanted) {
+                return current;
+            }
+            CompletableFuture<Snapshot> mine = new CompletableFuture<>();
+            CompletableFuture<Snapshot> inFlight = rebuilding.compareAndExchange(null, mine);
+            if (inFlight != null) {
+                //a rebuild that began before our version was reached is not enough, so loop after it finishes
+                inFlight.join();
+                continue;
+            }
+            try {
+                Snapshot built = build();
+                snapshot = built;
+                mine.complete(built);
+            } catch (RuntimeException e) {
+                mine.completeExceptionally(e);
+                throw e;
+            } finally {
+                rebuilding.set(null);
+            }
+        }
+    }
+
+    public long dataVersion() {
+        return dataVersion.get();
+    }
+
+    @EventListener
+    public void onCustomerChanged(CustomerChangedEvent event) {
+        dataVersion.incrementAndGet();
+    }
+
+    @EventListener
+    public void onCustomersImported(CustomersImportedEvent event) {
+        dataVersion.incrementAndGet();
+    }
+
+    //rows written during startup (the seed runner) bypass the change events
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        dataVersion.incrementAndGet();
+    }
+
+    private Snapshot build() {
+        //read the version first: the list loaded afterwards contains at least every write it counts
+        long version = dataVersion.get();
+        try {
+            //the snapshot is served until the next write, so it must not be built from a lagging replica
+            byte[] json = objectMapper.writeValueAsBytes(
+                    ReadWriteRoutingDataSource.readFromPrimary(customerService::getAllCustomers));
+            rebuilds.increment();
+            String eTag = eTag(json);
+            //a write that left the list unchanged (e.g. a no-op import) keeps the client caches valid
+            Snapshot previous = snapshot;
+            Instant lastModified = previous != null && previous.eTag().equals(eTag)
+                    ? previous.lastModified()
+                    : Instant.now();
+            return new Snapshot(version, json, gzip(json), eTag, lastModified);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("could not serialize customer list", e);
+        }
+    }
+
+    private static String eTag(byte[] json) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(json);
+            return HexFormat.of().formatHex(digest, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(json.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return compressed.toByteArray();
+    }
+
+    public record Snapshot(
+            long version,
+            byte[] json,
+            byte[] gzip,
+            String eTag,
+            Instant lastModified
+    ) {
+    }
+}
@@ -0,0 +1,153 @@
+package com.amigoscode.customer;
+
+import com.amigoscode.datasource.ReadWriteRoutingDataSource;
+import com.amigoscode.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// merges single-id lookups that arrive within one window into a single selectCustomersByIds,
+// the way a DataLoader does. with no batch in flight there is nothing to merge with, so the first
+// lookup is dispatched straight away; while batches are in flight the first lookup schedules the
+// next dispatch one window out. everything queued by then goes out together, in chunks of at most
+// maxBatchSize ids
+@Component
+public class CustomerLookupBatcher implements DisposableBean {
+    private final CustomerDTODataAccessService customerDTODataAccessService;
+    private final Duration window;
+    private final int maxBatchSize;
+    private final Duration timeout;
+    private final ConcurrentLinkedQueue<PendingLookup> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean dispatchScheduled = new AtomicBoolean();
+    private final AtomicInteger batchesInFlight = new AtomicInteger();
+    private final ScheduledThreadPoolExecutor dispatcher;
+    private final DistributionSummary batchSizes;
+
+    public CustomerLookupBatcher(CustomerDTODataAccessService customerDTODataAccessService,
+                                 @Value("${customer.lookup.batch-window:2ms}") Duration window,
+                                 @Value("${customer.lookup.max-batch-size:100}") int maxBatchSize,
+                                 @Value("${customer.lookup.dispatch-threads:4}") int dispatchThreads,
+                                 @Value("${customer.lookup.timeout:5s}") Duration timeout,
+                                 MeterRegistry meterRegistry) {
+        this.customerDTODataAccessService = customerDTODataAccessService;
+        this.window = window;
+        this.maxBatchSize = maxBatchSize;
+        this.timeout = timeout;
+        this.dispatcher = new ScheduledThreadPoolExecutor(
+                dispatchThreads,
+                new CustomizableThreadFactory("customer-lookup-")
+        );
+        this.batchSizes = DistributionSummary.builder("customer.lookup.batch.size")
+                .register(meterRegistry);
+    }
+
+    public Optional<CustomerDTO> load(Long id) {
+        //a zero window turns batching off; a client reading its own writes needs the primary, which
+        //the dispatcher threads would not know about
+        if (window.isZero() || ReadWriteRoutingDataSource.isPrimaryRequired()) {
+            return customerDTODataAccessService.selectCustomerByID(id);
+        }
+        PendingLookup lookup = new PendingLookup(id, new CompletableFuture<>());
+        pending.add(lookup);
+        if (dispatchScheduled.compareAndSet(false, true)) {
+            long delay = batchesInFlight.get() == 0 ? 0 : window.toNanos();
+            try {
+                dispatcher.schedule(this::dispatch, delay, TimeUnit.NANOSECONDS);
+            } catch (RejectedExecutionException e) {
+                //shutting down: nothing else will drain the queue, so this caller does
+                dispatch();
+            }
+        }
+        try {
+            return lookup.result().orTimeout(timeout.toNanos(), TimeUnit.NANOSECONDS).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof TimeoutException) {
+                throw new ServiceOverloadedException(
+                        "customer lookup did not complete within %s".formatted(timeout)
+                );
+            }
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public void destroy() {
+        dispatcher.shutdown();
+    }
+
+    private void dispatch() {
+        //reset first: a lookup queued while we drain either makes it into this batch or schedules the next
+        dispatchScheduled.set(false);
+        List<PendingLookup> batch = new ArrayList<>();
+        PendingLookup lookup;
+        while ((lookup = pending.poll()) != null) {
+            batch.add(lookup);
+            if (batch.size() == maxBatchSize) {
+                List<PendingLookup> full = batch;
+                try {
+                    dispatcher.execute(() -> run(full));
+                } catch (RejectedExecutionException e) {
+                    run(full);
+                }
+                batch = new ArrayList<>();
+            }
+        }
+        if (!batch.isEmpty()) {
+            run(batch);
+        }
+    }
+
+    private void run(List<PendingLookup> batch) {
+        Set<Long> ids = batch.stream()
+                .map(PendingLookup::id)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        batchSizes.record(ids.size());
+        batchesInFlight.incrementAndGet();
+        try {
+            //a lone id keeps using the primary-key lookup
+            Map<Long, CustomerDTO> customers = ids.size() == 1
+                    ? customerDTODataAccessService.selectCustomerByID(batch.get(0).id()).stream()
+                            .collect(Collectors.toMap(CustomerDTO::id, Function.identity()))
+                    : customerDTODataAccessService.selectCustomersByIds(ids).stream()
+                            .collect(Collectors.toMap(CustomerDTO::id, Function.identity()));
+            for (PendingLookup lookup : batch) {
+                lookup.result().complete(Optional.ofNullable(customers.get(lookup.id())));
+            }
+        } catch (Throwable e) {
+            //never leave a caller blocked on a lookup that will not complete
+            for (PendingLookup lookup : batch) {
+                lookup.result().completeExceptionally(e);
+            }
+        } finally {
+            batchesInFlight.decrementAndGet();
+        }
+    }
+
+    private record PendingLookup(Long id, CompletableFuture<Optional<CustomerDTO>> result) {
+    }
+}
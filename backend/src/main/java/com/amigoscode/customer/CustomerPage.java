@@ -0,0 +1,9 @@
+package com.amigoscode.customer;
+
+import java.util.List;
+
+public record CustomerPage<T>(
+        List<T> customers,
+        String nextCursor
+) {
+}
@@ -0,0 +1,59 @@
+package com.amigoscode.customer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public record CustomerPageRequest(
+        CustomerSort sort,
+        boolean descending,
+        CustomerCursor after,
+        int limit
+) {
+
+    // row-value seek so Postgres walks the (column, id) index instead of skipping an OFFSET;
+    // a unique column (id, email) is its own tie-break and seeks on its own index
+    public String seekClause() {
+        if (after == null) {
+            return "";
+        }
+        String operator = descending ? "<" : ">";
+        if (sort.unique()) {
+            return "WHERE %s %s ?".formatted(sort.column(), operator);
+        }
+        return "WHERE (%s, id) %s (?, ?)".formatted(sort.column(), operator);
+    }
+
+    public String orderByClause() {
+        String direction = descending ? "DESC" : "ASC";
+        if (sort.unique()) {
+            return "%s %s".formatted(sort.column(), direction);
+        }
+        return "%s %s, id %s".formatted(sort.column(), direction, direction);
+    }
+
+    public Object[] parameters() {
+        List<Object> parameters = new ArrayList<>();
+        if (after != null) {
+            parameters.add(after.key());
+            if (!sort.unique()) {
+                parameters.add(after.id());
+            }
+        }
+        parameters.add(limit);
+        return parameters.toArray();
+    }
+
+    public String sql() {
+        return sql("id, name, email, password, age, gender, version, updated_at");
+    }
+
+    public String sql(String columns) {
+        return """
+                SELECT %s
+                FROM customer
+                %s
+                ORDER BY %s
+                LIMIT ?
+                """.formatted(columns, seekClause(), orderByClause());
+    }
+}
@@ -0,0 +1,77 @@
+package com.amigoscode.customer;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+// one UPDATE that only touches the supplied columns, guarded by the expected version;
+// the self join exposes the row as it was before the update so callers get both revisions
+public record CustomerPatch(Long id, long expectedVersion, CustomerUpdateRequest changes) {
+
+    boolean isEmpty() {
+        return changes.name() == null && changes.email() == null && changes.age() == null;
+    }
+
+    String sql() {
+        List<String> assignments = new ArrayList<>();
+        if (changes.name() != null) {
+            assignments.add("name = ?");
+        }
+        if (changes.email() != null) {
+            assignments.add("email = ?");
+        }
+        if (changes.age() != null) {
+            assignments.add("age = ?");
+        }
+        assignments.add("version = c.version + 1");
+        return """
+                UPDATE customer c
+                SET %s
+                FROM customer old
+                WHERE c.id = old.id AND c.id = ? AND c.version = ?
+                RETURNING c.id, c.name, c.email, c.password, c.age, c.gender, c.version, c.updated_at,
+                          old.name AS previous_name, old.email AS previous_email,
+                          old.age AS previous_age, old.version AS previous_version
+                """.formatted(String.join(", ", assignments));
+    }
+
+    Object[] parameters() {
+        List<Object> parameters = new ArrayList<>();
+        if (changes.name() != null) {
+            parameters.add(changes.name());
+        }
+        if (changes.email() != null) {
+            parameters.add(changes.email());
+        }
+        if (changes.age() != null) {
+            parameters.add(changes.age());
+        }
+        parameters.add(id);
+        parameters.add(expectedVersion);
+        return parameters.toArray();
+    }
+
+    static CustomerRevision mapRow(ResultSet rs) throws SQLException {
+        Customer current = new Customer(
+                rs.getLong("id"),
+                rs.getString("name"),
+                rs.getString("email"),
+                rs.getString("password"),
+                rs.getInt("age"),
+                Gender.valueOf(rs.getString("gender"))
+        );
+        current.setVersion(rs.getLong("version"));
+        current.setUpdatedAt(rs.getTimestamp("updated_at").toInstant());
+        Customer previous = new Customer(
+                current.getId(),
+                rs.getString("previous_name"),
+                rs.getString("previous_email"),
+                current.getPassword(),
+                rs.getInt("previous_age"),
+                current.getGender()
+        );
+        previous.setVersion(rs.getLong("previous_version"));
+        return new CustomerRevision(previous, current);
+    }
+}
@@ -0,0 +1,61 @@
+package com.amigoscode.customer;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.List;
+
+// immutable, password-free snapshot of a customer for authenticated requests
+public record CustomerPrincipal(
+        Long id,
+        String username,
+        List<GrantedAuthority> authorities
+) implements UserDetails {
+
+    public CustomerPrincipal {
+        authorities = List.copyOf(authorities);
+    }
+
+    public static CustomerPrincipal of(Customer customer) {
+        return new CustomerPrincipal(
+                customer.getId(),
+                customer.getUsername(),
+                List.copyOf(customer.getAuthorities())
+        );
+    }
+
+    @Override
+    public List<GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    @Override
+    public String getPassword() {
+        return null;
+    }
+
+    @Override
+    public String getUsername() {
+        return username;
+    }
+
+    @Override
+    public boolean isAccountNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isAccountNonLocked() {
+        return true;
+    }
+
+    @Override
+    public boolean isCredentialsNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+}
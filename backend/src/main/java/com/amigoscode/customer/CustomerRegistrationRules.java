@@ -0,0 +1,30 @@
+package com.amigoscode.customer;
+
+// field rules shared by every bulk registration path; returns null when the request is valid
+final class CustomerRegistrationRules {
+
+    private CustomerRegistrationRules() {
+    }
+
+    static String violation(CustomerRegistrationRequest request) {
+        if (request == null) {
+            return "missing customer";
+        }
+        if (request.name() == null || request.name().isBlank()) {
+            return "name is required";
+        }
+        if (request.email() == null || request.email().isBlank()) {
+            return "email is required";
+        }
+        if (request.password() == null || request.password().isEmpty()) {
+            return "password is required";
+        }
+        if (request.age() == null) {
+            return "age is required";
+        }
+        if (request.gender() == null) {
+            return "gender is required";
+        }
+        return null;
+    }
+}
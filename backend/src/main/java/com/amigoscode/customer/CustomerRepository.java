@@ -1,13 +1,21 @@
 package com.amigoscode.customer;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.Optional;
+import java.util.Set;
 
-public interface CustomerRepository extends JpaRepository<Customer, Long> {
+public interface CustomerRepository extends JpaRepository<Customer, Long>, CustomerRepositoryCustom {
 
     boolean existsCustomerByEmail(String email);
     boolean existsCustomerById(Long id);
+    @Query("SELECT new com.amigoscode.customer.CustomerVersion(c.version, c.updatedAt) FROM Customer c WHERE c.id = :id")
+    Optional<CustomerVersion> findVersionById(@Param("id") Long id);
     Optional<Customer> findCustomerByEmail(String email);
+    @Query("SELECT c.email FROM Customer c WHERE c.email IN :emails")
+    Set<String> findExistingEmails(@Param("emails") Collection<String> emails);
 
 }
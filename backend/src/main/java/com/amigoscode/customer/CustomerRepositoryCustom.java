@@ -0,0 +1,19 @@
+package com.amigoscode.customer;
+
+import jakarta.persistence.Tuple;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+public interface CustomerRepositoryCustom {
+    List<Customer> findPage(CustomerPageRequest pageRequest);
+    List<Customer> findAllByIdIn(Collection<Long> ids);
+    List<Tuple> findFields(CustomerPageRequest pageRequest, List<String> columns);
+    List<Tuple> findFieldsByIdIn(Collection<Long> ids, List<String> columns);
+    Optional<Long> insertIfEmailAbsent(Customer customer);
+    void forEachCustomer(Consumer<Customer> action);
+    Optional<CustomerRevision> patch(CustomerPatch patch);
+    Optional<Customer> deleteReturning(Long id);
+}
@@ -0,0 +1,166 @@
+package com.amigoscode.customer;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.Session;
+import org.hibernate.jpa.HibernateHints;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class CustomerRepositoryCustomImpl implements CustomerRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Customer> findPage(CustomerPageRequest pageRequest) {
+        Query query = entityManager.createNativeQuery(pageRequest.sql(), Customer.class);
+        Object[] parameters = pageRequest.parameters();
+        for (int i = 0; i < parameters.length; i++) {
+            query.setParameter(i + 1, parameters[i]);
+        }
+        return query.getResultList();
+    }
+
+    //the ids travel as one array literal, so every batch size shares a single statement
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Customer> findAllByIdIn(Collection<Long> ids) {
+        var sql = """
+                SELECT * FROM customer
+                WHERE id = ANY(CAST(?1 AS bigint[]))
+                """;
+        String idArray = ids.stream()
+                .map(String::valueOf)
+                .collect(Collectors.joining(",", "{", "}"));
+        return entityManager.createNativeQuery(sql, Customer.class)
+                .setParameter(1, idArray)
+                .getResultList();
+    }
+
+    //a tuple of just the requested attributes, each aliased by its column. the seek is the row value of
+    //CustomerPageRequest, which Hibernate renders as is, so Postgres walks the (key, id) index
+    @Override
+    public List<Tuple> findFields(CustomerPageRequest pageRequest, List<String> columns) {
+        CustomerSort sort = pageRequest.sort();
+        String key = "c." + sort.column();
+        String direction = pageRequest.descending() ? "DESC" : "ASC";
+        String seek = "";
+        if (pageRequest.after() != null) {
+            String operator = pageRequest.descending() ? "<" : ">";
+            seek = sort.unique()
+                    ? "WHERE %s %s :key".formatted(key, operator)
+                    : "WHERE (%s, c.id) %s (:key, :id)".formatted(key, operator);
+        }
+        String order = sort.unique()
+                ? "%s %s".formatted(key, direction)
+                : "%s %s, c.id %s".formatted(key, direction, direction);
+        TypedQuery<Tuple> query = entityManager.createQuery("""
+                SELECT %s
+                FROM Customer c
+                %s
+                ORDER BY %s
+                """.formatted(selections(columns), seek, order), Tuple.class);
+        if (pageRequest.after() != null) {
+            query.setParameter("key", pageRequest.after().key());
+            if (!sort.unique()) {
+                query.setParameter("id", pageRequest.after().id());
+            }
+        }
+        return query.setMaxResults(pageRequest.limit()).getResultList();
+    }
+
+    @Override
+    public List<Tuple> findFieldsByIdIn(Collection<Long> ids, List<String> columns) {
+        return entityManager.createQuery("""
+                        SELECT %s
+                        FROM Customer c
+                        WHERE c.id IN :ids
+                        """.formatted(selections(columns)), Tuple.class)
+                .setParameter("ids", ids)
+                .getResultList();
+    }
+
+    private static String selections(List<String> columns) {
+        return columns.stream()
+                .map(column -> "c.%s AS %s".formatted(CustomerField.attribute(column), column))
+                .collect(Collectors.joining(", "));
+    }
+
+    @Override
+    public Optional<Long> insertIfEmailAbsent(Customer customer) {
+        var sql = """
+                INSERT INTO customer(name, email, password, age, gender)
+                VALUES(?, ?, ?, ?, ?)
+                ON CONFLICT (email) DO NOTHING
+                RETURNING id
+                """;
+
+        List<?> ids = entityManager.createNativeQuery(sql)
+                .setParameter(1, customer.getName())
+                .setParameter(2, customer.getEmail())
+                .setParameter(3, customer.getPassword())
+                .setParameter(4, customer.getAge())
+                .setParameter(5, customer.getGender().name())
+                .getResultList();
+        return ids.stream().findFirst().map(id -> ((Number) id).longValue());
+    }
+
+    //entities are detached as they are consumed so the persistence context stays empty
+    @Override
+    public void forEachCustomer(Consumer<Customer> action) {
+        try (Stream<Customer> customers = entityManager
+                .createQuery("SELECT c FROM Customer c", Customer.class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, CustomerJDBCDataAccessService.STREAM_FETCH_SIZE)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream()) {
+            customers.forEach(customer -> {
+                action.accept(customer);
+                entityManager.detach(customer);
+            });
+        }
+    }
+
+    @Override
+    public Optional<CustomerRevision> patch(CustomerPatch patch) {
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(patch.sql())) {
+                Object[] parameters = patch.parameters();
+                for (int i = 0; i < parameters.length; i++) {
+                    statement.setObject(i + 1, parameters[i]);
+                }
+                try (ResultSet rs = statement.executeQuery()) {
+                    return rs.next() ? Optional.of(CustomerPatch.mapRow(rs)) : Optional.empty();
+                }
+            }
+        });
+    }
+
+    //deleteById finds nothing to remove without telling the caller, so the row is taken from the DELETE itself
+    @Override
+    public Optional<Customer> deleteReturning(Long id) {
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement("""
+                    DELETE FROM customer
+                    WHERE id = ?
+                    RETURNING id, name, email, password, age, gender, version, updated_at
+                    """)) {
+                statement.setLong(1, id);
+                try (ResultSet rs = statement.executeQuery()) {
+                    return rs.next() ? Optional.of(new CustomerRowMapper().mapRow(rs, 1)) : Optional.empty();
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,7 @@
+package com.amigoscode.customer;
+
+public record CustomerRevision(
+        Customer previous,
+        Customer current
+) {
+}
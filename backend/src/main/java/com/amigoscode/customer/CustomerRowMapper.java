@@ -10,7 +10,7 @@ import java.sql.SQLException;
 public class CustomerRowMapper implements RowMapper {
     @Override
     public Customer mapRow(ResultSet rs, int rowNum) throws SQLException {
-        return new Customer(
+        Customer customer = new Customer(
                 rs.getLong("id"),
                 rs.getString("name"),
                 rs.getString("email"),
@@ -18,5 +18,8 @@ public class CustomerRowMapper implements RowMapper {
                 rs.getInt("age"),
                 Gender.valueOf(rs.getString("gender"))
         );
+        customer.setVersion(rs.getLong("version"));
+        customer.setUpdatedAt(rs.getTimestamp("updated_at").toInstant());
+        return customer;
     }
 }
@@ -3,49 +3,193 @@ package com.amigoscode.customer;
 import com.amigoscode.exception.DuplicateResourceException;
 import com.amigoscode.exception.RequestValidationException;
 import com.amigoscode.exception.ResourceNotFoundException;
+import com.amigoscode.exception.VersionConflictException;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionOperations;
 
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 public class CustomerService {
 
+    static final int DEFAULT_PAGE_SIZE = 50;
+    static final int MAX_PAGE_SIZE = 1000;
+
     private final CustomerDAO customerDAO;
+    private final CustomerDTODataAccessService customerDTODataAccessService;
     private final CustomerDTOMapper customerDTOMapper;
     private final PasswordEncoder passwordEncoder;
-
-
-    public CustomerService(@Qualifier("jpa") CustomerDAO customerDAO, CustomerDTOMapper customerDTOMapper, PasswordEncoder passwordEncoder) {
+    private final ApplicationEventPublisher eventPublisher;
+    private final CustomerEmailFilter customerEmailFilter;
+    private final CustomerSummaryService customerSummaryService;
+    private final TransactionOperations transactionOperations;
+    private final CustomerLookupBatcher customerLookupBatcher;
+
+    public CustomerService(@Qualifier("jpa") CustomerDAO customerDAO,
+                           CustomerDTODataAccessService customerDTODataAccessService,
+                           CustomerDTOMapper customerDTOMapper,
+                           PasswordEncoder passwordEncoder,
+                           ApplicationEventPublisher eventPublisher,
+                           CustomerEmailFilter customerEmailFilter,
+                           CustomerSummaryService customerSummaryService,
+                           TransactionOperations transactionOperations,
+                           CustomerLookupBatcher customerLookupBatcher) {
         this.customerDAO = customerDAO;
+        this.customerDTODataAccessService = customerDTODataAccessService;
         this.customerDTOMapper = customerDTOMapper;
         this.passwordEncoder = passwordEncoder;
+        this.eventPublisher = eventPublisher;
+        this.customerEmailFilter = customerEmailFilter;
+        this.customerSummaryService = customerSummaryService;
+        this.transactionOperations = transactionOperations;
+        this.customerLookupBatcher = customerLookupBatcher;
     }
 
     public List<CustomerDTO> getAllCustomers(){
+        return customerDTODataAccessService.selectAllCustomers();
+    }
 
-        return customerDAO.selectAllCustomers().stream().map(customerDTOMapper)
-                .collect(Collectors.toList());
+    public CustomerPage<CustomerDTO> getCustomers(String sort, String after, Integer limit){
+        CustomerPageRequest pageRequest = pageRequest(sort, after, limit);
+        List<CustomerDTO> customers = customerDTODataAccessService.selectCustomers(pageRequest);
+
+        int pageSize = pageRequest.limit() - 1;
+        String nextCursor = null;
+        if (customers.size() > pageSize){
+            customers = customers.subList(0, pageSize);
+            nextCursor = CustomerCursor.of(
+                    pageRequest.sort(), pageRequest.descending(), customers.get(pageSize - 1)
+            ).encode();
+        }
+
+        return new CustomerPage<>(customers, nextCursor);
+    }
+
+    //the unpaged list with a sparse fieldset: every customer in id order, only the requested columns
+    public List<Map<String, Object>> getAllCustomers(CustomerFields fields){
+        return customerDAO.selectCustomerFields(
+                new CustomerPageRequest(CustomerSort.ID, false, null, Integer.MAX_VALUE), fields
+        );
+    }
+
+    //only the requested fields are read, plus the id and sort key the next cursor is built from
+    public CustomerPage<Map<String, Object>> getCustomers(String sort, String after, Integer limit,
+                                                          CustomerFields fields){
+        CustomerPageRequest pageRequest = pageRequest(sort, after, limit);
+        CustomerField sortField = CustomerField.of(pageRequest.sort());
+        List<Map<String, Object>> customers = customerDAO.selectCustomerFields(
+                pageRequest, fields.with(CustomerField.ID, sortField)
+        );
+
+        int pageSize = pageRequest.limit() - 1;
+        String nextCursor = null;
+        if (customers.size() > pageSize){
+            customers = customers.subList(0, pageSize);
+            Map<String, Object> last = customers.get(pageSize - 1);
+            nextCursor = new CustomerCursor(
+                    pageRequest.sort(),
+                    pageRequest.descending(),
+                    (Comparable<?>) last.get(sortField.field()),
+                    (Long) last.get(CustomerField.ID.field())
+            ).encode();
+        }
+        customers.forEach(fields::select);
+
+        return new CustomerPage<>(customers, nextCursor);
     }
 
+    //fetches one extra row to know whether another page follows
+    private static CustomerPageRequest pageRequest(String sort, String after, Integer limit){
+        boolean descending = sort != null && sort.startsWith("-");
+        CustomerSort customerSort = sort == null
+                ? CustomerSort.ID
+                : CustomerSort.fromColumn(descending ? sort.substring(1) : sort);
+
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : limit;
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE){
+            throw new RequestValidationException(
+                    "limit must be between 1 and %s".formatted(MAX_PAGE_SIZE)
+            );
+        }
+
+        CustomerCursor cursor = after == null ? null : CustomerCursor.decode(after);
+        if (cursor != null && (cursor.sort() != customerSort || cursor.descending() != descending)){
+            throw new RequestValidationException("cursor does not match sort [%s]".formatted(sort));
+        }
+
+        return new CustomerPageRequest(customerSort, descending, cursor, pageSize + 1);
+    }
+
+    //concurrent single-id reads are merged into one query by the lookup batcher
     public CustomerDTO getCustomer(Long id){
-        return customerDAO.selectCustomerByID(id).map(customerDTOMapper)
+        return customerLookupBatcher.load(id)
                 .orElseThrow(() -> new ResourceNotFoundException(
                         "customer with id [%s] not found".formatted(id)
                 ));
     }
 
-    public void addCustomer(CustomerRegistrationRequest customerRegistrationRequest){
+    public Map<String, Object> getCustomer(Long id, CustomerFields fields){
+        return customerDAO.selectCustomerFieldsByIds(List.of(id), fields).stream()
+                .findFirst()
+                .orElseThrow(() -> new ResourceNotFoundException(
+                        "customer with id [%s] not found".formatted(id)
+                ));
+    }
 
-        String email = customerRegistrationRequest.email();
-        //check if email exists
-        if(customerDAO.existsPersonWithEmail(email)){
-            throw new DuplicateResourceException("email already taken");
+    //customers in the order their ids were asked for; unknown ids are left out
+    public List<CustomerDTO> getCustomers(List<Long> ids){
+        Set<Long> distinctIds = distinctIds(ids);
+        Map<Long, CustomerDTO> customers = customerDTODataAccessService.selectCustomersByIds(distinctIds).stream()
+                .collect(Collectors.toMap(CustomerDTO::id, Function.identity()));
+        return distinctIds.stream()
+                .map(customers::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    public List<Map<String, Object>> getCustomers(List<Long> ids, CustomerFields fields){
+        Set<Long> distinctIds = distinctIds(ids);
+        Map<Object, Map<String, Object>> customers = customerDAO
+                .selectCustomerFieldsByIds(distinctIds, fields.with(CustomerField.ID)).stream()
+                .collect(Collectors.toMap(row -> row.get(CustomerField.ID.field()), Function.identity()));
+        return distinctIds.stream()
+                .map(customers::get)
+                .filter(Objects::nonNull)
+                .map(fields::select)
+                .collect(Collectors.toList());
+    }
+
+    private static Set<Long> distinctIds(List<Long> ids){
+        Set<Long> distinctIds = new LinkedHashSet<>(ids);
+        if (distinctIds.isEmpty() || distinctIds.size() > MAX_PAGE_SIZE){
+            throw new RequestValidationException(
+                    "ids must name between 1 and %s customers".formatted(MAX_PAGE_SIZE)
+            );
         }
+        return distinctIds;
+    }
+
+    //validators only, for answering conditional requests without loading the customer
+    public CustomerVersion getCustomerVersion(Long id){
+        return customerDAO.selectCustomerVersion(id)
+                .orElseThrow(() -> new ResourceNotFoundException(
+                        "customer with id [%s] not found".formatted(id)
+                ));
+    }
 
-        //otherwise add
+    public void addCustomer(CustomerRegistrationRequest customerRegistrationRequest){
+
+        //the insert itself rejects a taken email, so there is no separate existence check
         Customer customer = new Customer(
                 customerRegistrationRequest.name(),
                 customerRegistrationRequest.email(),
@@ -53,19 +197,26 @@ public class CustomerService {
                 customerRegistrationRequest.age(),
                 customerRegistrationRequest.gender()
         );
-        customerDAO.insertCustomer(customer);
+        //hashing stays outside the transaction so no connection is held while it runs
+        transactionOperations.executeWithoutResult(status -> {
+            customerDAO.insertCustomer(customer);
+            customerSummaryService.recordCreated(customer);
+        });
+        eventPublisher.publishEvent(CustomerChangedEvent.created(customer));
 
     }
 
+    //the row comes back from the DELETE itself, so of two concurrent deletes only one moves the summary
     public void deleteCustomerById(Long custmerId){
 
-        //check if id exists
-        if(!customerDAO.existsPersonWithId(custmerId)){
-            throw new ResourceNotFoundException("Customer with id [%s] not found".formatted(custmerId));
-        }
-
-        //otherwise remove
-        customerDAO.deleteCustomerById(custmerId);
+        Customer customer = transactionOperations.execute(status -> {
+            Optional<Customer> deleted = customerDAO.deleteCustomerById(custmerId);
+            deleted.ifPresent(customerSummaryService::recordDeleted);
+            return deleted;
+        }).orElseThrow(() -> new ResourceNotFoundException(
+                "Customer with id [%s] not found".formatted(custmerId)
+        ));
+        eventPublisher.publishEvent(CustomerChangedEvent.deleted(customer));
 
     }
 
@@ -75,46 +226,57 @@ public class CustomerService {
                 .orElseThrow(() -> new ResourceNotFoundException(
                         "customer with id [%s] not found".formatted(customerId)
                 ));
-        boolean changes = false;
         //check if attributes need change exists
+        String name = null;
         if (updateRequest.name() != null && !updateRequest.name().equals(customer.getName())){
-            customer.setName(updateRequest.name());
-            changes = true;
+            name = updateRequest.name();
         }
 
+        Integer age = null;
         if (updateRequest.age() != null && !updateRequest.age().equals(customer.getAge())){
-            customer.setAge(updateRequest.age());
-            changes = true;
+            age = updateRequest.age();
         }
 
+        String email = null;
         if (updateRequest.email() != null && !updateRequest.email().equals(customer.getEmail())){
-            if(customerDAO.existsPersonWithEmail(updateRequest.email())){
+            if(customerEmailFilter.existsPersonWithEmail(updateRequest.email(), customerDAO::existsPersonWithEmail)){
                 throw new DuplicateResourceException("email already taken");
             }
-            customer.setEmail(updateRequest.email());
-            changes = true;
+            email = updateRequest.email();
         }
-        //otherwise update
 
-        if (!changes){
+        if (name == null && age == null && email == null){
             throw new RequestValidationException("no data changes found");
         }
 
-        customerDAO.updateCustomerById(customer);
+        //otherwise update, guarded by the version just read so the summary moves by the row the UPDATE replaced
+        CustomerRevision revision = patch(new CustomerPatch(
+                customerId, customer.getVersion(), new CustomerUpdateRequest(name, email, age)
+        ));
+        eventPublisher.publishEvent(CustomerChangedEvent.updated(revision.previous(), revision.current()));
     }
-}
-
-
-
-
-
-
-
-
-
-
-
-
 
+    //a single conditional UPDATE; a stale version surfaces as 409 instead of silently overwriting
+    public CustomerDTO patchCustomer(Long customerId, long expectedVersion, CustomerUpdateRequest updateRequest) {
+        CustomerPatch patch = new CustomerPatch(customerId, expectedVersion, updateRequest);
+        if (patch.isEmpty()) {
+            throw new RequestValidationException("no data changes found");
+        }
 
+        CustomerRevision revision = patch(patch);
+        eventPublisher.publishEvent(CustomerChangedEvent.updated(revision.previous(), revision.current()));
+        return customerDTOMapper.apply(revision.current());
+    }
 
+    private CustomerRevision patch(CustomerPatch patch) {
+        return transactionOperations.execute(status -> {
+            Optional<CustomerRevision> patched = customerDAO.patchCustomer(patch);
+            patched.ifPresent(r -> customerSummaryService.recordUpdated(r.previous(), r.current()));
+            return patched;
+        }).orElseThrow(() -> customerDAO.existsPersonWithId(patch.id())
+                        ? new VersionConflictException(
+                                "customer with id [%s] is no longer at version [%s]".formatted(patch.id(), patch.expectedVersion()))
+                        : new ResourceNotFoundException(
+                                "customer with id [%s] not found".formatted(patch.id())));
+    }
+}
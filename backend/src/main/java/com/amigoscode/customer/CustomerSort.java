@@ -0,0 +1,68 @@
+package com.amigoscode.customer;
+
+import com.amigoscode.exception.RequestValidationException;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.function.Function;
+
+public enum CustomerSort {
+    ID("id", true, Customer::getId, CustomerDTO::id, Long::valueOf),
+    NAME("name", false, Customer::getName, CustomerDTO::name, key -> key),
+    EMAIL("email", true, Customer::getEmail, CustomerDTO::email, key -> key),
+    AGE("age", false, Customer::getAge, CustomerDTO::age, Integer::valueOf);
+
+    private final String column;
+    //no two customers share the key, so it needs no id tie-break
+    private final boolean unique;
+    private final Function<Customer, Comparable<?>> keyExtractor;
+    private final Function<CustomerDTO, Comparable<?>> dtoKeyExtractor;
+    private final Function<String, Comparable<?>> keyParser;
+
+    CustomerSort(String column,
+                 boolean unique,
+                 Function<Customer, Comparable<?>> keyExtractor,
+                 Function<CustomerDTO, Comparable<?>> dtoKeyExtractor,
+                 Function<String, Comparable<?>> keyParser) {
+        this.column = column;
+        this.unique = unique;
+        this.keyExtractor = keyExtractor;
+        this.dtoKeyExtractor = dtoKeyExtractor;
+        this.keyParser = keyParser;
+    }
+
+    public static CustomerSort fromColumn(String column) {
+        return Arrays.stream(values())
+                .filter(sort -> sort.column.equals(column))
+                .findFirst()
+                .orElseThrow(() -> new RequestValidationException(
+                        "sort [%s] is not supported".formatted(column)
+                ));
+    }
+
+    public String column() {
+        return column;
+    }
+
+    public boolean unique() {
+        return unique;
+    }
+
+    public Comparable<?> keyOf(Customer customer) {
+        return keyExtractor.apply(customer);
+    }
+
+    public Comparable<?> keyOf(CustomerDTO customer) {
+        return dtoKeyExtractor.apply(customer);
+    }
+
+    public Comparable<?> parseKey(String key) {
+        return keyParser.apply(key);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public Comparator<Customer> comparator() {
+        Comparator<Customer> byKey = Comparator.comparing(c -> (Comparable) keyOf(c));
+        return byKey.thenComparing(Customer::getId);
+    }
+}
@@ -0,0 +1,20 @@
+package com.amigoscode.customer;
+
+import java.util.List;
+import java.util.Map;
+
+public record CustomerStats(
+        long customers,
+        double averageAge,
+        Map<Gender, Long> genders,
+        Map<String, Integer> agePercentiles,
+        List<AgeBucket> ageHistogram
+) {
+    // ages from fromAge to toAge, both inclusive
+    public record AgeBucket(
+            int fromAge,
+            int toAge,
+            long customers
+    ) {
+    }
+}
@@ -0,0 +1,186 @@
+package com.amigoscode.customer;
+
+import com.amigoscode.datasource.ReadWriteRoutingDataSource;
+import com.amigoscode.exception.RequestValidationException;
+import com.amigoscode.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// keeps a columnar copy of (id, age, gender) in memory so dashboard aggregations never hit the
+// database; loaded once at startup and then kept current from CustomerChangedEvents
+@Service
+public class CustomerStatsService {
+    private static final int[] PERCENTILES = {50, 90, 95, 99};
+
+    private final CustomerDAO customerDAO;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Object rebuildMonitor = new Object();
+
+    private CustomerColumns columns = new CustomerColumns(0);
+    private List<CustomerChangedEvent> pending;
+    private volatile boolean loaded;
+
+    public CustomerStatsService(@Qualifier("jdbc") CustomerDAO customerDAO, MeterRegistry meterRegistry) {
+        this.customerDAO = customerDAO;
+        Gauge.builder("customer.stats.rows", this, CustomerStatsService::rows)
+                .register(meterRegistry);
+    }
+
+    public CustomerStats getStats(int bucketWidth) {
+        if (bucketWidth < 1 || bucketWidth > CustomerColumns.MAX_AGE) {
+            throw new RequestValidationException(
+                    "bucket must be between 1 and %s".formatted(CustomerColumns.MAX_AGE)
+            );
+        }
+        if (!loaded) {
+            throw new ServiceOverloadedException("customer statistics are still loading");
+        }
+        CustomerColumns.Counts counts;
+        lock.readLock().lock();
+        try {
+            counts = columns.count();
+        } finally {
+            lock.readLock().unlock();
+        }
+        return toStats(counts, bucketWidth);
+    }
+
+    public void rebuild() {
+        synchronized (rebuildMonitor) {
+            lock.writeLock().lock();
+            try {
+                pending = new ArrayList<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            CustomerColumns next = new CustomerColumns(rows());
+            try {
+                //the pending events only cover writes after this point, so the stream must not lag behind them
+                ReadWriteRoutingDataSource.runOnPrimary(() -> customerDAO.forEachCustomer(customer ->
+                        next.append(customer.getId(), customer.getAge(), customer.getGender())));
+                next.sortById();
+            } catch (RuntimeException e) {
+                lock.writeLock().lock();
+                try {
+                    pending = null;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                throw e;
+            }
+
+            lock.writeLock().lock();
+            try {
+                //changes made while the table was streamed may or may not be in next; applying them again is idempotent
+                pending.forEach(event -> apply(next, event));
+                pending = null;
+                columns = next;
+                loaded = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    @EventListener
+    public void onCustomerChanged(CustomerChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            apply(columns, event);
+            if (pending != null) {
+                pending.add(event);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @EventListener
+    public void onCustomersImported(CustomersImportedEvent event) {
+        rebuild();
+    }
+
+    int rows() {
+        lock.readLock().lock();
+        try {
+            return columns.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static void apply(CustomerColumns columns, CustomerChangedEvent event) {
+        if (event.current() == null) {
+            columns.remove(event.previous().getId());
+        } else {
+            Customer current = event.current();
+            columns.upsert(current.getId(), current.getAge(), current.getGender());
+        }
+    }
+
+    static CustomerStats toStats(CustomerColumns.Counts counts, int bucketWidth) {
+        long[] ageCounts = counts.ageCounts();
+        long total = 0;
+        long ageSum = 0;
+        for (int age = 0; age < ageCounts.length; age++) {
+            total += ageCounts[age];
+            ageSum += ageCounts[age] * age;
+        }
+
+        Map<Gender, Long> genders = new EnumMap<>(Gender.class);
+        for (Gender gender : Gender.values()) {
+            genders.put(gender, counts.genderCounts()[gender.ordinal()]);
+        }
+
+        Map<String, Integer> percentiles = new LinkedHashMap<>();
+        if (total > 0) {
+            int age = 0;
+            long seen = ageCounts[0];
+            for (int percentile : PERCENTILES) {
+                //nearest-rank: the smallest age with at least percentile% of customers at or below it
+                long rank = Math.max(1, (total * percentile + 99) / 100);
+                while (seen < rank) {
+                    seen += ageCounts[++age];
+                }
+                percentiles.put("p" + percentile, age);
+            }
+        }
+
+        List<CustomerStats.AgeBucket> histogram = new ArrayList<>();
+        for (int from = 0; from < ageCounts.length; from += bucketWidth) {
+            int to = Math.min(from + bucketWidth, ageCounts.length) - 1;
+            long customers = 0;
+            for (int age = from; age <= to; age++) {
+                customers += ageCounts[age];
+            }
+            if (customers > 0) {
+                histogram.add(new CustomerStats.AgeBucket(from, to, customers));
+            }
+        }
+
+        return new CustomerStats(
+                total,
+                total == 0 ? 0 : (double) ageSum / total,
+                genders,
+                percentiles,
+                histogram
+        );
+    }
+}
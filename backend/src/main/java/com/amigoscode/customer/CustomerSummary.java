@@ -0,0 +1,11 @@
+package com.amigoscode.customer;
+
+import java.util.List;
+import java.util.Map;
+
+public record CustomerSummary(
+        long customers,
+        Map<Gender, Long> genders,
+        List<CustomerStats.AgeBucket> ageBuckets
+) {
+}
@@ -0,0 +1,75 @@
+package com.amigoscode.customer;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public class CustomerSummaryDataAccessService {
+    static final int AGE_BUCKET_WIDTH = 10;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public CustomerSummaryDataAccessService(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void adjust(Gender gender, int age, long delta) {
+        var sql = """
+                INSERT INTO customer_stats(gender, age_bucket, customers)
+                VALUES (?, ?, ?)
+                ON CONFLICT (gender, age_bucket)
+                DO UPDATE SET customers = customer_stats.customers + EXCLUDED.customers
+                """;
+        jdbcTemplate.update(sql, gender.name(), ageBucket(age), delta);
+    }
+
+    public List<CustomerSummaryRow> selectSummary() {
+        var sql = """
+                SELECT gender, age_bucket, customers
+                FROM customer_stats
+                WHERE customers <> 0
+                ORDER BY age_bucket, gender
+                """;
+        return jdbcTemplate.query(sql, (rs, rowNum) -> new CustomerSummaryRow(
+                Gender.valueOf(rs.getString("gender")),
+                rs.getInt("age_bucket"),
+                rs.getLong("customers")
+        ));
+    }
+
+    // one statement, so the recount and the running counts are read from the same snapshot: writers that commit
+    // afterwards move both sides together, which leaves the difference valid to apply as a delta
+    public List<CustomerSummaryRow> selectDrift() {
+        var sql = """
+                SELECT coalesce(counted.gender, stats.gender) AS gender,
+                       coalesce(counted.age_bucket, stats.age_bucket) AS age_bucket,
+                       coalesce(counted.customers, 0) - coalesce(stats.customers, 0) AS customers
+                FROM (
+                    SELECT gender, age / %1$s * %1$s AS age_bucket, count(*) AS customers
+                    FROM customer
+                    GROUP BY gender, age / %1$s * %1$s
+                ) counted
+                FULL JOIN customer_stats stats
+                    ON stats.gender = counted.gender AND stats.age_bucket = counted.age_bucket
+                WHERE coalesce(counted.customers, 0) <> coalesce(stats.customers, 0)
+                """.formatted(AGE_BUCKET_WIDTH);
+        return jdbcTemplate.query(sql, (rs, rowNum) -> new CustomerSummaryRow(
+                Gender.valueOf(rs.getString("gender")),
+                rs.getInt("age_bucket"),
+                rs.getLong("customers")
+        ));
+    }
+
+    static int ageBucket(int age) {
+        return age / AGE_BUCKET_WIDTH * AGE_BUCKET_WIDTH;
+    }
+
+    public record CustomerSummaryRow(
+            Gender gender,
+            int ageBucket,
+            long customers
+    ) {
+    }
+}
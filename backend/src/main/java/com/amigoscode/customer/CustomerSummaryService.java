@@ -0,0 +1,128 @@
+package com.amigoscode.customer;
+
+import com.amigoscode.customer.CustomerSummaryDataAccessService.CustomerSummaryRow;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// counts per gender and age bucket kept in customer_stats; CustomerService adjusts them in the same
+// transaction as the customer write, imports apply their per-cell counts in the merge transaction, and writers
+// neither covers are corrected by the periodic reconcile
+@Service
+public class CustomerSummaryService {
+    private static final Logger log = LoggerFactory.getLogger(CustomerSummaryService.class);
+
+    private final CustomerSummaryDataAccessService summaryDAO;
+    private final TransactionOperations transactionOperations;
+    private final Counter drift;
+
+    public CustomerSummaryService(CustomerSummaryDataAccessService summaryDAO,
+                                  TransactionOperations transactionOperations,
+                                  MeterRegistry meterRegistry) {
+        this.summaryDAO = summaryDAO;
+        this.transactionOperations = transactionOperations;
+        this.drift = Counter.builder("customer.summary.reconciliation.drift")
+                .description("customers the running counts were off by when reconciled")
+                .register(meterRegistry);
+    }
+
+    public CustomerSummary getSummary() {
+        return toSummary(summaryDAO.selectSummary());
+    }
+
+    public void recordCreated(Customer customer) {
+        summaryDAO.adjust(customer.getGender(), customer.getAge(), 1);
+    }
+
+    //one statement per touched (gender, age bucket) instead of one per customer
+    public void recordCreated(Collection<Customer> customers) {
+        Map<Cell, Long> created = new HashMap<>();
+        for (Customer customer : customers) {
+            created.merge(new Cell(customer.getGender(), CustomerSummaryDataAccessService.ageBucket(customer.getAge())),
+                    1L, Long::sum);
+        }
+        created.forEach((cell, count) -> summaryDAO.adjust(cell.gender(), cell.ageBucket(), count));
+    }
+
+    //rows carry a signed change per cell, not a count
+    public void recordDeltas(List<CustomerSummaryRow> cells) {
+        cells.forEach(cell -> summaryDAO.adjust(cell.gender(), cell.ageBucket(), cell.customers()));
+    }
+
+    public void recordUpdated(Customer previous, Customer current) {
+        if (previous.getGender() == current.getGender()
+                && CustomerSummaryDataAccessService.ageBucket(previous.getAge())
+                == CustomerSummaryDataAccessService.ageBucket(current.getAge())) {
+            return;
+        }
+        summaryDAO.adjust(previous.getGender(), previous.getAge(), -1);
+        summaryDAO.adjust(current.getGender(), current.getAge(), 1);
+    }
+
+    public void recordDeleted(Customer previous) {
+        summaryDAO.adjust(previous.getGender(), previous.getAge(), -1);
+    }
+
+    @Scheduled(
+            fixedDelayString = "${customer.summary.reconcile-interval:PT1H}",
+            initialDelayString = "${customer.summary.reconcile-interval:PT1H}"
+    )
+    public void scheduledReconcile() {
+        reconcile();
+    }
+
+    public CustomerSummary reconcile() {
+        List<CustomerSummaryRow> corrections = summaryDAO.selectDrift();
+        long off = 0;
+        for (CustomerSummaryRow correction : corrections) {
+            off += Math.abs(correction.customers());
+        }
+        if (off > 0) {
+            transactionOperations.executeWithoutResult(status -> recordDeltas(corrections));
+            drift.increment(off);
+            log.info("customer summary was off by {} across its counts, corrected", off);
+        }
+        return getSummary();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        reconcile();
+    }
+
+    static CustomerSummary toSummary(List<CustomerSummaryRow> rows) {
+        long total = 0;
+        Map<Gender, Long> genders = new EnumMap<>(Gender.class);
+        for (Gender gender : Gender.values()) {
+            genders.put(gender, 0L);
+        }
+        Map<Integer, Long> buckets = new TreeMap<>();
+        for (CustomerSummaryRow row : rows) {
+            total += row.customers();
+            genders.merge(row.gender(), row.customers(), Long::sum);
+            buckets.merge(row.ageBucket(), row.customers(), Long::sum);
+        }
+        List<CustomerStats.AgeBucket> ageBuckets = new ArrayList<>();
+        buckets.forEach((from, customers) -> ageBuckets.add(new CustomerStats.AgeBucket(
+                from, from + CustomerSummaryDataAccessService.AGE_BUCKET_WIDTH - 1, customers
+        )));
+        return new CustomerSummary(total, genders, ageBuckets);
+    }
+
+    private record Cell(Gender gender, int ageBucket) {
+    }
+}
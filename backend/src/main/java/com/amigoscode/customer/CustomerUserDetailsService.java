@@ -1,22 +1,62 @@
 package com.amigoscode.customer;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
 
 @Service
 public class CustomerUserDetailsService implements UserDetailsService {
     private final CustomerDAO customerDAO;
+    private final Cache<String, CustomerPrincipal> principals;
 
-    public CustomerUserDetailsService(@Qualifier("jpa") CustomerDAO customerDAO) {
+    public CustomerUserDetailsService(@Qualifier("jpa") CustomerDAO customerDAO,
+                                      MeterRegistry meterRegistry,
+                                      @Value("${customer.user-details-cache.maximum-size:10000}") long maximumSize,
+                                      @Value("${customer.user-details-cache.expire-after-write:5m}") Duration expireAfterWrite) {
         this.customerDAO = customerDAO;
+        this.principals = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, principals, "customer.user-details");
     }
 
+    //used by the login path, which needs the password hash, so it always reads the database
     @Override
+    @Transactional(readOnly = true)
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         return customerDAO.selectUserByEmail(username).orElseThrow(() -> new UsernameNotFoundException(
                 "Username: " + username + " not found!"));
     }
+
+    public CustomerPrincipal loadPrincipalByUsername(String username) throws UsernameNotFoundException {
+        return principals.get(username, key -> CustomerPrincipal.of((Customer) loadUserByUsername(key)));
+    }
+
+    public CacheStats principalCacheStats() {
+        return principals.stats();
+    }
+
+    @EventListener
+    public void onCustomerChanged(CustomerChangedEvent event) {
+        if (event.previous() != null) {
+            principals.invalidate(event.previous().getUsername());
+        }
+        if (event.current() != null) {
+            principals.invalidate(event.current().getUsername());
+        }
+    }
 }
@@ -0,0 +1,10 @@
+package com.amigoscode.customer;
+
+import java.util.UUID;
+
+// rows merged by a bulk import never produce CustomerChangedEvents, so derived views rebuild instead
+public record CustomersImportedEvent(
+        UUID importId,
+        long imported
+) {
+}
@@ -0,0 +1,166 @@
+package com.amigoscode.customer;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+
+// times every CustomerDAO call as customer.dao{implementation, method, outcome} and records the rows
+// each read returned as customer.dao.rows, so jdbc, jpa and list can be compared call for call
+public class InstrumentedCustomerDAO implements CustomerDAO {
+    static final String TIMER = "customer.dao";
+    static final String ROWS = "customer.dao.rows";
+
+    private final CustomerDAO delegate;
+    private final CustomerDAOOperation selectAllCustomers;
+    private final CustomerDAOOperation selectCustomers;
+    private final CustomerDAOOperation forEachCustomer;
+    private final CustomerDAOOperation countCustomers;
+    private final CustomerDAOOperation selectCustomerByID;
+    private final CustomerDAOOperation selectCustomersByIds;
+    private final CustomerDAOOperation selectCustomerFields;
+    private final CustomerDAOOperation selectCustomerFieldsByIds;
+    private final CustomerDAOOperation selectCustomerVersion;
+    private final CustomerDAOOperation insertCustomer;
+    private final CustomerDAOOperation insertCustomers;
+    private final CustomerDAOOperation selectExistingEmails;
+    private final CustomerDAOOperation existsPersonWithEmail;
+    private final CustomerDAOOperation deleteCustomerById;
+    private final CustomerDAOOperation existsPersonWithId;
+    private final CustomerDAOOperation updateCustomerById;
+    private final CustomerDAOOperation patchCustomer;
+    private final CustomerDAOOperation selectUserByEmail;
+
+    public InstrumentedCustomerDAO(CustomerDAO delegate, String implementation, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.selectAllCustomers = new CustomerDAOOperation(meterRegistry, implementation, "selectAllCustomers");
+        this.selectCustomers = new CustomerDAOOperation(meterRegistry, implementation, "selectCustomers");
+        this.forEachCustomer = new CustomerDAOOperation(meterRegistry, implementation, "forEachCustomer");
+        this.countCustomers = new CustomerDAOOperation(meterRegistry, implementation, "countCustomers");
+        this.selectCustomerByID = new CustomerDAOOperation(meterRegistry, implementation, "selectCustomerByID");
+        this.selectCustomersByIds = new CustomerDAOOperation(meterRegistry, implementation, "selectCustomersByIds");
+        this.selectCustomerFields = new CustomerDAOOperation(meterRegistry, implementation, "selectCustomerFields");
+        this.selectCustomerFieldsByIds = new CustomerDAOOperation(meterRegistry, implementation, "selectCustomerFieldsByIds");
+        this.selectCustomerVersion = new CustomerDAOOperation(meterRegistry, implementation, "selectCustomerVersion");
+        this.insertCustomer = new CustomerDAOOperation(meterRegistry, implementation, "insertCustomer");
+        this.insertCustomers = new CustomerDAOOperation(meterRegistry, implementation, "insertCustomers");
+        this.selectExistingEmails = new CustomerDAOOperation(meterRegistry, implementation, "selectExistingEmails");
+        this.existsPersonWithEmail = new CustomerDAOOperation(meterRegistry, implementation, "existsPersonWithEmail");
+        this.deleteCustomerById = new CustomerDAOOperation(meterRegistry, implementation, "deleteCustomerById");
+        this.existsPersonWithId = new CustomerDAOOperation(meterRegistry, implementation, "existsPersonWithId");
+        this.updateCustomerById = new CustomerDAOOperation(meterRegistry, implementation, "updateCustomerById");
+        this.patchCustomer = new CustomerDAOOperation(meterRegistry, implementation, "patchCustomer");
+        this.selectUserByEmail = new CustomerDAOOperation(meterRegistry, implementation, "selectUserByEmail");
+    }
+
+    public CustomerDAO delegate() {
+        return delegate;
+    }
+
+    @Override
+    public List<Customer> selectAllCustomers() {
+        return selectAllCustomers.record(delegate::selectAllCustomers, List::size);
+    }
+
+    @Override
+    public List<Customer> selectCustomers(CustomerPageRequest pageRequest) {
+        return selectCustomers.record(() -> delegate.selectCustomers(pageRequest), List::size);
+    }
+
+    @Override
+    public void forEachCustomer(Consumer<Customer> action) {
+        int[] rows = new int[1];
+        forEachCustomer.record(() -> {
+            delegate.forEachCustomer(customer -> {
+                rows[0]++;
+                action.accept(customer);
+            });
+            return null;
+        }, ignored -> rows[0]);
+    }
+
+    @Override
+    public long countCustomers() {
+        return countCustomers.record(delegate::countCustomers, ignored -> 1);
+    }
+
+    @Override
+    public Optional<Customer> selectCustomerByID(Long id) {
+        return selectCustomerByID.record(() -> delegate.selectCustomerByID(id), CustomerDAOOperation::optionalRows);
+    }
+
+    @Override
+    public List<Customer> selectCustomersByIds(Collection<Long> ids) {
+        return selectCustomersByIds.record(() -> delegate.selectCustomersByIds(ids), List::size);
+    }
+
+    @Override
+    public List<Map<String, Object>> selectCustomerFields(CustomerPageRequest pageRequest, CustomerFields fields) {
+        return selectCustomerFields.record(() -> delegate.selectCustomerFields(pageRequest, fields), List::size);
+    }
+
+    @Override
+    public List<Map<String, Object>> selectCustomerFieldsByIds(Collection<Long> ids, CustomerFields fields) {
+        return selectCustomerFieldsByIds.record(() -> delegate.selectCustomerFieldsByIds(ids, fields), List::size);
+    }
+
+    @Override
+    public Optional<CustomerVersion> selectCustomerVersion(Long id) {
+        return selectCustomerVersion.record(() -> delegate.selectCustomerVersion(id), CustomerDAOOperation::optionalRows);
+    }
+
+    @Override
+    public void insertCustomer(Customer customer) {
+        insertCustomer.record(() -> {
+            delegate.insertCustomer(customer);
+            return null;
+        }, ignored -> 1);
+    }
+
+    @Override
+    public List<Customer> insertCustomers(List<Customer> customers) {
+        return insertCustomers.record(() -> delegate.insertCustomers(customers), List::size);
+    }
+
+    @Override
+    public Set<String> selectExistingEmails(Collection<String> emails) {
+        return selectExistingEmails.record(() -> delegate.selectExistingEmails(emails), Set::size);
+    }
+
+    @Override
+    public boolean existsPersonWithEmail(String email) {
+        return existsPersonWithEmail.record(() -> delegate.existsPersonWithEmail(email), CustomerDAOOperation::existsRows);
+    }
+
+    @Override
+    public Optional<Customer> deleteCustomerById(Long customerId) {
+        return deleteCustomerById.record(() -> delegate.deleteCustomerById(customerId), CustomerDAOOperation::optionalRows);
+    }
+
+    @Override
+    public boolean existsPersonWithId(Long id) {
+        return existsPersonWithId.record(() -> delegate.existsPersonWithId(id), CustomerDAOOperation::existsRows);
+    }
+
+    @Override
+    public void updateCustomerById(Customer update) {
+        updateCustomerById.record(() -> {
+            delegate.updateCustomerById(update);
+            return null;
+        }, null);
+    }
+
+    @Override
+    public Optional<CustomerRevision> patchCustomer(CustomerPatch patch) {
+        return patchCustomer.record(() -> delegate.patchCustomer(patch), CustomerDAOOperation::optionalRows);
+    }
+
+    @Override
+    public Optional<Customer> selectUserByEmail(String email) {
+        return selectUserByEmail.record(() -> delegate.selectUserByEmail(email), CustomerDAOOperation::optionalRows);
+    }
+}
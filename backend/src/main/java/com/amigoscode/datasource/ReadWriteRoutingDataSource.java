@@ -0,0 +1,126 @@
+package com.amigoscode.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+// read-only transactions go round-robin to the healthy replicas, everything else to the primary.
+// the key is resolved when a connection is taken, so this must sit behind a LazyConnectionDataSourceProxy
+// for the transaction's read-only flag to be known by then
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+    static final String PRIMARY = "primary";
+
+    private static final ThreadLocal<Boolean> PRIMARY_REQUIRED = new ThreadLocal<>();
+
+    private final DataSource primary;
+    private final Map<String, DataSource> replicas;
+    private final List<String> replicaKeys;
+    private final Set<String> healthyReplicas = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private final Counter fallbacks;
+
+    public ReadWriteRoutingDataSource(DataSource primary,
+                                      Map<String, DataSource> replicas,
+                                      MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replicas = Map.copyOf(replicas);
+        this.replicaKeys = List.copyOf(replicas.keySet());
+        //replicas count as healthy until the first check says otherwise
+        this.healthyReplicas.addAll(replicaKeys);
+        Map<Object, Object> targets = new HashMap<>(replicas);
+        targets.put(PRIMARY, primary);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+        this.fallbacks = Counter.builder("datasource.replica.fallbacks")
+                .register(meterRegistry);
+        Gauge.builder("datasource.replica.healthy", healthyReplicas, Set::size)
+                .register(meterRegistry);
+    }
+
+    //for reads that must see every committed write, e.g. rebuilding a cache that events then keep current
+    public static void runOnPrimary(Runnable work) {
+        readFromPrimary(() -> {
+            work.run();
+            return null;
+        });
+    }
+
+    public static <T> T readFromPrimary(Supplier<T> work) {
+        boolean required = isPrimaryRequired();
+        requirePrimary(true);
+        try {
+            return work.get();
+        } finally {
+            requirePrimary(required);
+        }
+    }
+
+    static void requirePrimary(boolean required) {
+        if (required) {
+            PRIMARY_REQUIRED.set(Boolean.TRUE);
+        } else {
+            PRIMARY_REQUIRED.remove();
+        }
+    }
+
+    public static boolean isPrimaryRequired() {
+        return PRIMARY_REQUIRED.get() != null;
+    }
+
+    public Map<String, DataSource> replicas() {
+        return replicas;
+    }
+
+    public boolean isHealthy(String replica) {
+        return healthyReplicas.contains(replica);
+    }
+
+    void markHealthy(String replica, boolean healthy) {
+        if (healthy) {
+            healthyReplicas.add(replica);
+        } else {
+            healthyReplicas.remove(replica);
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || isPrimaryRequired()) {
+            return PRIMARY;
+        }
+        int size = replicaKeys.size();
+        int start = nextReplica.getAndIncrement();
+        for (int i = 0; i < size; i++) {
+            String replica = replicaKeys.get(Math.floorMod(start + i, size));
+            if (healthyReplicas.contains(replica)) {
+                return replica;
+            }
+        }
+        fallbacks.increment();
+        return PRIMARY;
+    }
+
+    @Override
+    public void close() throws Exception {
+        for (DataSource replica : replicas.values()) {
+            if (replica instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+        if (primary instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.amigoscode.datasource;
+
+import com.amigoscode.jwt.VerifiedToken;
+import com.amigoscode.jwt.VerifiedTokenCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.jsonwebtoken.JwtException;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+
+// a client that just wrote keeps reading from the primary for a short window, so a replica that has
+// not replayed the write yet cannot hide it. clients are told apart by the subject of their token, so
+// customers behind one NAT or proxy do not pin each other; only anonymous writes (registration happens
+// before there is a token) fall back to the address. the window is per instance
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+    private static final Set<String> SAFE_METHODS = Set.of("GET", "HEAD", "OPTIONS", "TRACE");
+
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final Cache<String, Boolean> recentWriters;
+
+    public ReadYourWritesFilter(VerifiedTokenCache verifiedTokenCache, Duration window, long maximumClients) {
+        this.verifiedTokenCache = verifiedTokenCache;
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(window)
+                .maximumSize(maximumClients)
+                .build();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String subject = subject(request);
+        String address = "address:" + request.getRemoteAddr();
+        boolean mutation = !SAFE_METHODS.contains(request.getMethod());
+        if (mutation) {
+            //recorded up front: the client may issue its next read before this request finishes unwinding
+            recentWriters.put(subject != null ? subject : address, Boolean.TRUE);
+        } else if (!isRecentWriter(subject, address)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        boolean required = ReadWriteRoutingDataSource.isPrimaryRequired();
+        ReadWriteRoutingDataSource.requirePrimary(true);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ReadWriteRoutingDataSource.requirePrimary(required);
+        }
+    }
+
+    //the first authenticated reads after registering still find the anonymous write made from their address
+    private boolean isRecentWriter(String subject, String address) {
+        return subject != null && recentWriters.getIfPresent(subject) != null
+                || recentWriters.getIfPresent(address) != null;
+    }
+
+    //verified through the same cache the JWT filter uses next, so the signature is checked once per token
+    private String subject(HttpServletRequest request) {
+        String authHeader = request.getHeader("Authorization");
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            return null;
+        }
+        try {
+            VerifiedToken token = verifiedTokenCache.verify(authHeader.substring(7));
+            return token.subject() == null ? null : "subject:" + token.subject();
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
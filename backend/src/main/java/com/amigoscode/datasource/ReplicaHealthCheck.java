@@ -0,0 +1,72 @@
+package com.amigoscode.datasource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+
+// takes a replica out of rotation while it is unreachable, disconnected from the primary, or replaying
+// too far behind it
+public class ReplicaHealthCheck {
+    private static final Logger log = LoggerFactory.getLogger(ReplicaHealthCheck.class);
+
+    //a replica that has replayed everything it received is not lagging, however old its last transaction,
+    //but only while it is still receiving: with the WAL receiver down both LSNs stop and compare equal.
+    //the receiver status is only visible to superusers and pg_read_all_stats (pg_monitor) members.
+    //on a server that is not in recovery both LSNs are null and the lag reads as 0
+    private static final String HEALTH_SQL = """
+            SELECT pg_is_in_recovery() AS in_recovery,
+                (SELECT status FROM pg_stat_wal_receiver) AS receiver_status,
+                CASE
+                    WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                    ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0)
+                END AS lag_seconds
+            """;
+
+    private final ReadWriteRoutingDataSource routingDataSource;
+    private final Duration maxLag;
+
+    public ReplicaHealthCheck(ReadWriteRoutingDataSource routingDataSource, Duration maxLag) {
+        this.routingDataSource = routingDataSource;
+        this.maxLag = maxLag;
+    }
+
+    @Scheduled(fixedDelayString = "${replica-routing.health-check-interval:PT5S}")
+    public void check() {
+        routingDataSource.replicas().forEach((replica, dataSource) -> {
+            boolean healthy = isHealthy(replica, dataSource);
+            if (healthy != routingDataSource.isHealthy(replica)) {
+                log.warn("replica {} is now {}", replica, healthy ? "healthy" : "out of rotation");
+            }
+            routingDataSource.markHealthy(replica, healthy);
+        });
+    }
+
+    private boolean isHealthy(String replica, DataSource dataSource) {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(HEALTH_SQL)) {
+            rs.next();
+            String receiverStatus = rs.getString("receiver_status");
+            if (rs.getBoolean("in_recovery") && !"streaming".equals(receiverStatus)) {
+                log.debug("replica {} is not streaming from the primary (wal receiver: {})", replica, receiverStatus);
+                return false;
+            }
+            double lagSeconds = rs.getDouble("lag_seconds");
+            if (lagSeconds * 1000 > maxLag.toMillis()) {
+                log.debug("replica {} is {}s behind", replica, lagSeconds);
+                return false;
+            }
+            return true;
+        } catch (SQLException e) {
+            log.debug("replica {} failed its health check", replica, e);
+            return false;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.amigoscode.datasource;
+
+import com.amigoscode.jwt.VerifiedTokenCache;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// replaces the auto-configured pool with primary + replica pools behind a routing DataSource.
+// off by default, so a single-database setup keeps Spring Boot's own DataSource
+@Configuration
+@ConditionalOnProperty(name = "replica-routing.enabled", havingValue = "true")
+@EnableConfigurationProperties(ReplicaRoutingProperties.class)
+public class ReplicaRoutingConfig {
+
+    @Bean
+    public ReadWriteRoutingDataSource readWriteRoutingDataSource(DataSourceProperties dataSourceProperties,
+                                                                 ReplicaRoutingProperties properties,
+                                                                 Environment environment,
+                                                                 MeterRegistry meterRegistry) {
+        HikariDataSource primary = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+        primary.setPoolName("primary");
+        primary.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (ReplicaRoutingProperties.Replica replica : properties.replicas()) {
+            HikariDataSource pool = new HikariDataSource();
+            pool.setPoolName("replica-" + replicas.size());
+            pool.setJdbcUrl(replica.url());
+            pool.setUsername(replica.username() != null
+                    ? replica.username()
+                    : dataSourceProperties.determineUsername());
+            pool.setPassword(replica.password() != null
+                    ? replica.password()
+                    : dataSourceProperties.determinePassword());
+            pool.setReadOnly(true);
+            pool.setMaximumPoolSize(properties.replicaPoolSize());
+            pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            replicas.put(pool.getPoolName(), pool);
+        }
+        return new ReadWriteRoutingDataSource(primary, replicas, meterRegistry);
+    }
+
+    //connections are only taken on the first statement, once the transaction's read-only flag is set
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadWriteRoutingDataSource readWriteRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(readWriteRoutingDataSource);
+    }
+
+    @Bean
+    public ReplicaHealthCheck replicaHealthCheck(ReadWriteRoutingDataSource readWriteRoutingDataSource,
+                                                 ReplicaRoutingProperties properties) {
+        return new ReplicaHealthCheck(readWriteRoutingDataSource, properties.maxLag());
+    }
+
+    //ahead of Spring Security, whose JWT filter already reads the customer
+    @Bean
+    public FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter(ReplicaRoutingProperties properties,
+                                                                             VerifiedTokenCache verifiedTokenCache) {
+        FilterRegistrationBean<ReadYourWritesFilter> registration = new FilterRegistrationBean<>(new ReadYourWritesFilter(
+                verifiedTokenCache, properties.readYourWritesWindow(), properties.readYourWritesClients()
+        ));
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 1);
+        return registration;
+    }
+}
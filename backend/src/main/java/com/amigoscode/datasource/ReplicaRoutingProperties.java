@@ -0,0 +1,24 @@
+package com.amigoscode.datasource;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+@ConfigurationProperties("replica-routing")
+public record ReplicaRoutingProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue List<Replica> replicas,
+        @DefaultValue("10") int replicaPoolSize,
+        @DefaultValue("5s") Duration maxLag,
+        @DefaultValue("2s") Duration readYourWritesWindow,
+        @DefaultValue("100000") long readYourWritesClients
+) {
+    public record Replica(
+            String url,
+            String username,
+            String password
+    ) {
+    }
+}
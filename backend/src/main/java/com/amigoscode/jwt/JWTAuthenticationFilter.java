@@ -1,15 +1,17 @@
 package com.amigoscode.jwt;
 
 import com.amigoscode.customer.CustomerUserDetailsService;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -18,12 +20,19 @@ import java.io.IOException;
 
 @Component
 public class JWTAuthenticationFilter extends OncePerRequestFilter {
-    private final JWTUtil jwtUtil;
-    private final UserDetailsService userDetailsService;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final TokenRevocationList tokenRevocationList;
+    private final CustomerUserDetailsService userDetailsService;
+    private final JWTAuthenticationMode authenticationMode;
 
-    public JWTAuthenticationFilter(JWTUtil jwtUtil, CustomerUserDetailsService userDetailsService) {
-        this.jwtUtil = jwtUtil;
+    public JWTAuthenticationFilter(VerifiedTokenCache verifiedTokenCache,
+                                   TokenRevocationList tokenRevocationList,
+                                   CustomerUserDetailsService userDetailsService,
+                                   @Value("${jwt.authentication.mode:database}") JWTAuthenticationMode authenticationMode) {
+        this.verifiedTokenCache = verifiedTokenCache;
+        this.tokenRevocationList = tokenRevocationList;
         this.userDetailsService = userDetailsService;
+        this.authenticationMode = authenticationMode;
     }
 
     @Override
@@ -40,12 +49,20 @@ public class JWTAuthenticationFilter extends OncePerRequestFilter {
         }
 
         String jwt = authHeader.substring(7);
-        String subject = jwtUtil.getSubject(jwt);
+        VerifiedToken token;
+        try {
+            token = verifiedTokenCache.verify(jwt);
+        } catch (JwtException | IllegalArgumentException e) {
+            //invalid or expired tokens leave the request unauthenticated
+            filterChain.doFilter(request, response);
+            return;
+        }
 
-        if (subject != null &&
+        if (token.subject() != null &&
+                !tokenRevocationList.isRevoked(token) &&
                 SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = userDetailsService.loadUserByUsername(subject);
-            if (jwtUtil.isTokenValid(jwt, userDetails.getUsername())) {
+            UserDetails userDetails = loadUserDetails(token);
+            if (userDetails.getUsername().equals(token.subject())) {
                 UsernamePasswordAuthenticationToken authenticationToken =
                         new UsernamePasswordAuthenticationToken(
                                 userDetails, null, userDetails.getAuthorities()
@@ -59,4 +76,14 @@ public class JWTAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
 
     }
+
+    private UserDetails loadUserDetails(VerifiedToken token) {
+        if (authenticationMode == JWTAuthenticationMode.CLAIMS) {
+            return User.withUsername(token.subject())
+                    .password("")
+                    .authorities(token.scopes().toArray(String[]::new))
+                    .build();
+        }
+        return userDetailsService.loadPrincipalByUsername(token.subject());
+    }
 }
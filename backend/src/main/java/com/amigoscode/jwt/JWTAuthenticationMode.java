@@ -0,0 +1,8 @@
+package com.amigoscode.jwt;
+
+public enum JWTAuthenticationMode {
+    // load the principal from the database on every request
+    DATABASE,
+    // build the principal from the verified subject and scopes claims only
+    CLAIMS
+}
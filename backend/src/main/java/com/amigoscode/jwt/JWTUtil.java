@@ -1,22 +1,33 @@
 package com.amigoscode.jwt;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jws;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.MissingClaimException;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.stereotype.Service;
 
 import java.security.Key;
+import java.time.Duration;
 import java.time.Instant;
-import java.time.temporal.ChronoUnit;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
 
 @Service
 public class JWTUtil {
-    private static final String SECRET_KEY =
+    static final String SECRET_KEY =
             "foobar_123456789_foobar_123456789_foobar_123456789_foobar_123456789";
+    static final Duration TOKEN_LIFETIME = Duration.ofDays(15);
+
+    //both are immutable and thread-safe, so they are built once instead of per request
+    private final Key signingKey = Keys.hmacShaKeyFor(SECRET_KEY.getBytes());
+    private final JwtParser jwtParser = Jwts.parserBuilder()
+            .setSigningKey(signingKey)
+            .build();
 
     public String issueToken(String subject){
         return issueToken(subject, Map.of());
@@ -38,39 +49,53 @@ public class JWTUtil {
                 .setIssuedAt(Date.from(Instant.now()))
                 .setExpiration(
                         Date.from(
-                                Instant.now().plus(15, ChronoUnit.DAYS)
+                                Instant.now().plus(TOKEN_LIFETIME)
                         )
-                ).signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                ).signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
 
         return token;
     }
 
+    //parses and checks the signature and expiry once; throws JwtException when the token is not valid
+    public VerifiedToken verify(String token) {
+        Claims claims = getClaims(token);
+        return new VerifiedToken(
+                claims.getSubject(),
+                getScopes(claims),
+                claims.getIssuedAt() == null ? Instant.EPOCH : claims.getIssuedAt().toInstant(),
+                claims.getExpiration().toInstant()
+        );
+    }
+
     public String getSubject(String token) {
         return getClaims(token).getSubject();
     }
 
+    //the parser only checks exp when it is present; a signed token without one would never expire
     private Claims getClaims(String token) {
-        Claims claims = Jwts
-                .parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        Jws<Claims> jws = jwtParser.parseClaimsJws(token);
+        Claims claims = jws.getBody();
+        if (claims.getExpiration() == null) {
+            throw new MissingClaimException(jws.getHeader(), claims, "token has no expiration");
+        }
         return claims;
     }
 
-    private Key getSigningKey(){
-        return Keys.hmacShaKeyFor(SECRET_KEY.getBytes());
+    private static List<String> getScopes(Claims claims) {
+        Object scopes = claims.get("scopes");
+        if (scopes instanceof List<?> list) {
+            return list.stream().map(String::valueOf).toList();
+        }
+        return List.of();
     }
 
     public boolean isTokenValid(String jwt, String username) {
-        String subject = getSubject(jwt);
-        return subject.equals(username) && !isTokenExpired(jwt);
-    }
-
-    private boolean isTokenExpired(String jwt) {
-        Date today = Date.from(Instant.now());
-        return getClaims(jwt).getExpiration().before(today);
+        try {
+            VerifiedToken token = verify(jwt);
+            return token.subject().equals(username) && !token.isExpired(Instant.now());
+        } catch (JwtException e) {
+            return false;
+        }
     }
 }
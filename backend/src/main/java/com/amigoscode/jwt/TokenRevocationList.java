@@ -0,0 +1,42 @@
+package com.amigoscode.jwt;
+
+import com.amigoscode.customer.CustomerChangedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// tokens for a subject issued at or before its revocation time are rejected;
+// entries older than the token lifetime can no longer match anything and are dropped.
+// iat only has second precision, so both sides are compared in whole seconds: a token issued in the
+// same second as the revocation cannot be ordered against it and is treated as revoked
+@Component
+public class TokenRevocationList {
+    private final Map<String, Instant> revokedSubjects = new ConcurrentHashMap<>();
+
+    public void revoke(String subject) {
+        Instant now = Instant.now();
+        revokedSubjects.put(subject, now.truncatedTo(ChronoUnit.SECONDS));
+        Instant horizon = now.minus(JWTUtil.TOKEN_LIFETIME);
+        revokedSubjects.values().removeIf(revokedAt -> revokedAt.isBefore(horizon));
+    }
+
+    public boolean isRevoked(VerifiedToken token) {
+        Instant revokedAt = revokedSubjects.get(token.subject());
+        return revokedAt != null && !token.issuedAt().truncatedTo(ChronoUnit.SECONDS).isAfter(revokedAt);
+    }
+
+    public int size() {
+        return revokedSubjects.size();
+    }
+
+    @EventListener
+    public void onCustomerChanged(CustomerChangedEvent event) {
+        if (event.emailChanged()) {
+            revoke(event.previous().getEmail());
+        }
+    }
+}
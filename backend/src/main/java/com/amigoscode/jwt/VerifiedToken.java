@@ -0,0 +1,19 @@
+package com.amigoscode.jwt;
+
+import java.time.Instant;
+import java.util.List;
+
+public record VerifiedToken(
+        String subject,
+        List<String> scopes,
+        Instant issuedAt,
+        Instant expiresAt
+) {
+    public VerifiedToken {
+        scopes = List.copyOf(scopes);
+    }
+
+    public boolean isExpired(Instant now) {
+        return !expiresAt.isAfter(now);
+    }
+}
@@ -0,0 +1,90 @@
+package com.amigoscode.jwt;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+
+@Component
+public class VerifiedTokenCache {
+    private final JWTUtil jwtUtil;
+    private final boolean enabled;
+    private final Cache<String, VerifiedToken> cache;
+
+    public VerifiedTokenCache(JWTUtil jwtUtil,
+                              MeterRegistry meterRegistry,
+                              @Value("${jwt.cache.enabled:true}") boolean enabled,
+                              @Value("${jwt.cache.maximum-size:10000}") long maximumSize,
+                              @Value("${jwt.cache.expire-after-write:5m}") Duration expireAfterWrite) {
+        this.jwtUtil = jwtUtil;
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new TokenExpiry(expireAfterWrite))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "jwt.verified-tokens");
+    }
+
+    //a hit skips the signature check and claims parsing; failed verifications are never cached
+    public VerifiedToken verify(String token) {
+        if (!enabled) {
+            return jwtUtil.verify(token);
+        }
+        String key = digest(token);
+        VerifiedToken verifiedToken = cache.get(key, k -> jwtUtil.verify(token));
+        if (verifiedToken.isExpired(Instant.now())) {
+            cache.invalidate(key);
+            return jwtUtil.verify(token);
+        }
+        return verifiedToken;
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256")
+                    .digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    //entries live for the configured ttl but never past the token's own exp claim
+    private record TokenExpiry(Duration expireAfterWrite) implements Expiry<String, VerifiedToken> {
+        @Override
+        public long expireAfterCreate(String key, VerifiedToken token, long currentTime) {
+            long untilExpiry = Duration.between(Instant.now(), token.expiresAt()).toNanos();
+            return Math.max(0, Math.min(expireAfterWrite.toNanos(), untilExpiry));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, VerifiedToken token, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, token, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, VerifiedToken token, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
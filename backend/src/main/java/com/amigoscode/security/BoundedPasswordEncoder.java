@@ -0,0 +1,159 @@
+package com.amigoscode.security;
+
+import com.amigoscode.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+// runs the delegate's hashing on a bounded executor so bursts of logins and sign-ups
+// cannot occupy every request thread; once the queue is full callers fail fast.
+// batch registrations and imports get an instance of their own ("bulk") so they cannot starve logins
+public class BoundedPasswordEncoder implements PasswordEncoder, DisposableBean {
+    private static final Duration OVERLOAD_BACKOFF = Duration.ofMillis(50);
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Counter rejected;
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate,
+                                  String pool,
+                                  int threads,
+                                  int queueCapacity,
+                                  MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.executor = new ThreadPoolExecutor(
+                threads, threads,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("password-hashing-%s-".formatted(pool)),
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+        new ExecutorServiceMetrics(executor, "password-hashing", Tags.of("pool", pool)).bindTo(meterRegistry);
+        this.encodeTimer = Timer.builder("password.hashing")
+                .tag("pool", pool)
+                .tag("operation", "encode")
+                .register(meterRegistry);
+        this.matchesTimer = Timer.builder("password.hashing")
+                .tag("pool", pool)
+                .tag("operation", "matches")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("password.hashing.rejected")
+                .tag("pool", pool)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return submit(() -> encodeTimer.recordCallable(() -> delegate.encode(rawPassword)));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return submit(() -> matchesTimer.recordCallable(() -> delegate.matches(rawPassword, encodedPassword)));
+    }
+
+    //splits the batch into one slice per thread; a full queue is waited out instead of failing,
+    //since a bulk caller has no user at hand to retry
+    public List<String> encodeAll(List<? extends CharSequence> rawPasswords) {
+        int threads = executor.getMaximumPoolSize();
+        int sliceSize = Math.max(1, (rawPasswords.size() + threads - 1) / threads);
+        List<Future<List<String>>> slices = new ArrayList<>();
+        List<String> hashes = new ArrayList<>(rawPasswords.size());
+        try {
+            for (int from = 0; from < rawPasswords.size(); from += sliceSize) {
+                List<? extends CharSequence> slice =
+                        rawPasswords.subList(from, Math.min(from + sliceSize, rawPasswords.size()));
+                slices.add(submitWhenQueued(() -> {
+                    List<String> sliceHashes = new ArrayList<>(slice.size());
+                    for (CharSequence rawPassword : slice) {
+                        sliceHashes.add(encodeTimer.recordCallable(() -> delegate.encode(rawPassword)));
+                    }
+                    return sliceHashes;
+                }));
+            }
+            for (Future<List<String>> slice : slices) {
+                hashes.addAll(await(slice));
+            }
+        } finally {
+            slices.forEach(slice -> slice.cancel(true));
+        }
+        return hashes;
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    public int queueDepth() {
+        return executor.getQueue().size();
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+
+    private <T> T submit(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new ServiceOverloadedException("too many concurrent password operations, try again shortly");
+        }
+        return await(future);
+    }
+
+    private <T> Future<T> submitWhenQueued(Callable<T> task) {
+        while (true) {
+            try {
+                return executor.submit(task);
+            } catch (RejectedExecutionException e) {
+                rejected.increment();
+                if (executor.isShutdown()) {
+                    throw e;
+                }
+                try {
+                    Thread.sleep(OVERLOAD_BACKOFF.toMillis());
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("interrupted while hashing passwords", interrupted);
+                }
+            }
+        }
+    }
+
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while hashing password", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
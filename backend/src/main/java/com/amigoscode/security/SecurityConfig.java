@@ -1,7 +1,10 @@
 package com.amigoscode.security;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
@@ -14,8 +17,35 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 public class SecurityConfig {
 
     @Bean
-    public PasswordEncoder passwordEncoder(){
-        return new BCryptPasswordEncoder();
+    @Primary
+    public PasswordEncoder passwordEncoder(
+            @Value("${password-hashing.threads:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}") int threads,
+            @Value("${password-hashing.queue-capacity:64}") int queueCapacity,
+            MeterRegistry meterRegistry
+    ){
+        return new BoundedPasswordEncoder(
+                new BCryptPasswordEncoder(),
+                "login",
+                threads,
+                queueCapacity,
+                meterRegistry
+        );
+    }
+
+    //batch registrations and imports hash here, so a large batch queues behind itself instead of behind logins
+    @Bean
+    public BoundedPasswordEncoder bulkPasswordEncoder(
+            @Value("${password-hashing.bulk.threads:2}") int threads,
+            @Value("${password-hashing.bulk.queue-capacity:16}") int queueCapacity,
+            MeterRegistry meterRegistry
+    ){
+        return new BoundedPasswordEncoder(
+                new BCryptPasswordEncoder(),
+                "bulk",
+                threads,
+                queueCapacity,
+                meterRegistry
+        );
     }
 
     @Bean
@@ -0,0 +1,98 @@
+package com.amigoscode.sqltrace;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// normalises a statement so every execution of the same query shape groups together: literals become ?,
+// whitespace collapses and keywords are lower-cased. computed on the drain thread, never on the request path
+public final class SqlFingerprint {
+    private static final int MAX_CACHED = 1024;
+    private static final Map<String, SqlFingerprint> CACHE = new ConcurrentHashMap<>();
+
+    private final String normalized;
+    private final String id;
+
+    private SqlFingerprint(String normalized) {
+        this.normalized = normalized;
+        this.id = "%08x".formatted(normalized.hashCode());
+    }
+
+    public static SqlFingerprint of(String sql) {
+        SqlFingerprint cached = CACHE.get(sql);
+        if (cached != null) {
+            return cached;
+        }
+        SqlFingerprint fingerprint = new SqlFingerprint(normalize(sql));
+        //statements come from code, so the cache only overflows if someone concatenates values into SQL
+        if (CACHE.size() < MAX_CACHED) {
+            CACHE.put(sql, fingerprint);
+        }
+        return fingerprint;
+    }
+
+    public String normalized() {
+        return normalized;
+    }
+
+    public String id() {
+        return id;
+    }
+
+    static String normalize(String sql) {
+        StringBuilder out = new StringBuilder(sql.length());
+        int i = 0;
+        boolean pendingSpace = false;
+        while (i < sql.length()) {
+            char c = sql.charAt(i);
+            if (Character.isWhitespace(c)) {
+                pendingSpace = out.length() > 0;
+                i++;
+                continue;
+            }
+            if (pendingSpace) {
+                out.append(' ');
+                pendingSpace = false;
+            }
+            if (c == '\'') {
+                //string literal, with '' as an escaped quote
+                i++;
+                while (i < sql.length()) {
+                    if (sql.charAt(i) == '\'') {
+                        if (i + 1 < sql.length() && sql.charAt(i + 1) == '\'') {
+                            i += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    i++;
+                }
+                out.append('?');
+                i++;
+            } else if (Character.isDigit(c) && !isIdentifierPart(out)) {
+                while (i < sql.length() && (Character.isDigit(sql.charAt(i)) || sql.charAt(i) == '.')) {
+                    i++;
+                }
+                out.append('?');
+            } else if (c == '"') {
+                //quoted identifiers keep their case
+                int end = sql.indexOf('"', i + 1);
+                end = end < 0 ? sql.length() - 1 : end;
+                out.append(sql, i, end + 1);
+                i = end + 1;
+            } else {
+                out.append(Character.toLowerCase(c));
+                i++;
+            }
+        }
+        return out.toString();
+    }
+
+    //a digit right after a letter, digit, underscore, $ or ? belongs to an identifier or placeholder such as age_bucket1, $1 or ?1
+    private static boolean isIdentifierPart(StringBuilder out) {
+        if (out.length() == 0) {
+            return false;
+        }
+        char previous = out.charAt(out.length() - 1);
+        return Character.isLetterOrDigit(previous) || previous == '_' || previous == '$' || previous == '?';
+    }
+}
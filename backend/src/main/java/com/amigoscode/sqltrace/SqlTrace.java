@@ -0,0 +1,14 @@
+package com.amigoscode.sqltrace;
+
+// one executed statement, as captured on the calling thread; rows is -1 when the driver does not say
+public record SqlTrace(
+        long sequence,
+        long timestampMillis,
+        String sql,
+        int binds,
+        int batchSize,
+        long durationNanos,
+        long rows,
+        boolean slow
+) {
+}
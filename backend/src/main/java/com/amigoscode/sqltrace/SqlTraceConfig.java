@@ -0,0 +1,33 @@
+package com.amigoscode.sqltrace;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@ConditionalOnProperty(name = "sql-trace.enabled", havingValue = "true", matchIfMissing = true)
+public class SqlTraceConfig {
+
+    @Bean
+    public SqlTraceRecorder sqlTraceRecorder(
+            @Value("${sql-trace.slow-threshold:200ms}") Duration slowThreshold,
+            @Value("${sql-trace.sample-rate:0.01}") double sampleRate,
+            @Value("${sql-trace.buffer-size:8192}") int bufferSize,
+            MeterRegistry meterRegistry
+    ) {
+        return new SqlTraceRecorder(slowThreshold, sampleRate, bufferSize, meterRegistry);
+    }
+
+    //static, so the post-processor is registered without instantiating this configuration early
+    @Bean
+    public static TracingDataSourcePostProcessor tracingDataSourcePostProcessor(
+            ObjectProvider<SqlTraceRecorder> sqlTraceRecorder
+    ) {
+        return new TracingDataSourcePostProcessor(sqlTraceRecorder);
+    }
+}
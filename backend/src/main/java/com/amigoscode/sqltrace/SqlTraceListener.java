@@ -0,0 +1,170 @@
+package com.amigoscode.sqltrace;
+
+import net.ttddyy.dsproxy.ConnectionInfo;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.MethodExecutionContext;
+import net.ttddyy.dsproxy.listener.MethodExecutionListener;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ProxyConfig;
+import net.ttddyy.dsproxy.proxy.ResultSetProxyLogic;
+import net.ttddyy.dsproxy.proxy.SimpleResultSetProxyLogic;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Method;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+// times every statement executed through the proxied DataSource, whichever layer issued it (JdbcTemplate,
+// Hibernate, Flyway), and reports it to the SqlTraceRecorder. updates and batches are reported as they
+// return; a statement that produced rows, through executeQuery or execute + getResultSet, is reported when
+// its ResultSet is closed, so the duration and row count include fetching them. a query whose ResultSet
+// nobody closed is reported without a row count once its statement runs again or is closed
+public class SqlTraceListener implements QueryExecutionListener, MethodExecutionListener {
+    private static final String START = "sql-trace.start";
+
+    private final SqlTraceRecorder recorder;
+    //keyed by the statement behind the proxy, which is also what its ResultSets report as their statement
+    private final Map<Statement, OpenQuery> openQueries = new ConcurrentHashMap<>();
+
+    SqlTraceListener(SqlTraceRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    public static DataSource trace(DataSource dataSource, SqlTraceRecorder recorder) {
+        SqlTraceListener listener = new SqlTraceListener(recorder);
+        return ProxyDataSourceBuilder.create(dataSource)
+                .listener(listener)
+                .methodListener(listener)
+                .proxyResultSet(listener::resultSet)
+                .build();
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execution, List<QueryInfo> queries) {
+        finish(execution.getStatement(), -1);
+        execution.addCustomValue(START, System.nanoTime());
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execution, List<QueryInfo> queries) {
+        if (!execution.isSuccess()) {
+            return;
+        }
+        long start = execution.getCustomValue(START, Long.class);
+        String sql = sql(queries);
+        int binds = binds(queries);
+        int batchSize = execution.isBatch() ? execution.getBatchSize() : 0;
+        Object result = execution.getResult();
+        if (result instanceof ResultSet || Boolean.TRUE.equals(result)) {
+            openQueries.put(execution.getStatement(), new OpenQuery(sql, binds, start));
+            return;
+        }
+        recorder.record(sql, binds, batchSize, System.nanoTime() - start, rows(result));
+    }
+
+    @Override
+    public void beforeMethod(MethodExecutionContext context) {
+    }
+
+    @Override
+    public void afterMethod(MethodExecutionContext context) {
+        if (context.getTarget() instanceof Statement statement && "close".equals(context.getMethod().getName())) {
+            finish(statement, -1);
+        }
+    }
+
+    ResultSetProxyLogic resultSet(ResultSet resultSet, ConnectionInfo connectionInfo, ProxyConfig proxyConfig) {
+        Statement statement;
+        try {
+            statement = resultSet.getStatement();
+        } catch (SQLException e) {
+            statement = null;
+        }
+        return new CountingResultSetProxyLogic(
+                new SimpleResultSetProxyLogic(resultSet, connectionInfo, proxyConfig), statement
+        );
+    }
+
+    private void finish(Statement statement, long rows) {
+        OpenQuery query = statement == null ? null : openQueries.remove(statement);
+        if (query != null) {
+            recorder.record(query.sql(), query.binds(), 0, System.nanoTime() - query.start(), rows);
+        }
+    }
+
+    private static String sql(List<QueryInfo> queries) {
+        if (queries.size() == 1) {
+            return queries.get(0).getQuery();
+        }
+        return queries.stream().map(QueryInfo::getQuery).collect(Collectors.joining("; "));
+    }
+
+    private static int binds(List<QueryInfo> queries) {
+        if (queries.isEmpty() || queries.get(0).getParametersList().isEmpty()) {
+            return 0;
+        }
+        return queries.get(0).getParametersList().get(0).size();
+    }
+
+    //-1 when the driver does not say, as for execute returning an update count
+    static long rows(Object result) {
+        if (result instanceof Integer count) {
+            return count;
+        }
+        if (result instanceof Long count) {
+            return count;
+        }
+        long total = 0;
+        if (result instanceof int[] counts) {
+            for (int count : counts) {
+                total += Math.max(count, 0);
+            }
+            return total;
+        }
+        if (result instanceof long[] counts) {
+            for (long count : counts) {
+                total += Math.max(count, 0);
+            }
+            return total;
+        }
+        return -1;
+    }
+
+    private record OpenQuery(String sql, int binds, long start) {
+    }
+
+    private final class CountingResultSetProxyLogic implements ResultSetProxyLogic {
+        private final ResultSetProxyLogic delegate;
+        private final Statement statement;
+        private long rows;
+
+        CountingResultSetProxyLogic(ResultSetProxyLogic delegate, Statement statement) {
+            this.delegate = delegate;
+            this.statement = statement;
+        }
+
+        @Override
+        public Object invoke(Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if ("close".equals(name)) {
+                try {
+                    return delegate.invoke(method, args);
+                } finally {
+                    finish(statement, rows);
+                }
+            }
+            Object result = delegate.invoke(method, args);
+            if ("next".equals(name) && Boolean.TRUE.equals(result)) {
+                rows++;
+            }
+            return result;
+        }
+    }
+}
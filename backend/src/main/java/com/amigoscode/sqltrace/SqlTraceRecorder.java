@@ -0,0 +1,149 @@
+package com.amigoscode.sqltrace;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+// decides on the calling thread whether a statement is traced (always when slow, otherwise sampled) and
+// hands it to a lossy ring buffer: a publish is one getAndIncrement and one array store, never a lock or I/O.
+// a single drain thread fingerprints and logs the traces; if it falls a full lap behind, the oldest are dropped
+public class SqlTraceRecorder implements DisposableBean {
+    private static final Logger log = LoggerFactory.getLogger("com.amigoscode.sql");
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final long slowThresholdNanos;
+    private final double sampleRate;
+    private final AtomicReferenceArray<SqlTrace> ring;
+    private final int mask;
+    private final AtomicLong head = new AtomicLong();
+    private final Consumer<SqlTrace> sink;
+    private final Counter recorded;
+    private final Counter slow;
+    private final Counter dropped;
+    private final Thread drainer;
+
+    private long tail;
+    private volatile boolean running = true;
+
+    public SqlTraceRecorder(Duration slowThreshold,
+                            double sampleRate,
+                            int bufferSize,
+                            MeterRegistry meterRegistry) {
+        this(slowThreshold, sampleRate, bufferSize, meterRegistry, SqlTraceRecorder::log, true);
+    }
+
+    SqlTraceRecorder(Duration slowThreshold,
+                     double sampleRate,
+                     int bufferSize,
+                     MeterRegistry meterRegistry,
+                     Consumer<SqlTrace> sink,
+                     boolean startDrainer) {
+        if (Integer.bitCount(bufferSize) != 1) {
+            throw new IllegalArgumentException("sql-trace.buffer-size must be a power of two");
+        }
+        this.slowThresholdNanos = slowThreshold.toNanos();
+        this.sampleRate = sampleRate;
+        this.ring = new AtomicReferenceArray<>(bufferSize);
+        this.mask = bufferSize - 1;
+        this.sink = sink;
+        this.recorded = Counter.builder("sql.trace.recorded").register(meterRegistry);
+        this.slow = Counter.builder("sql.trace.slow").register(meterRegistry);
+        this.dropped = Counter.builder("sql.trace.dropped").register(meterRegistry);
+        this.drainer = new Thread(this::drainLoop, "sql-trace");
+        this.drainer.setDaemon(true);
+        if (startDrainer) {
+            this.drainer.start();
+        }
+    }
+
+    public void record(String sql, int binds, int batchSize, long durationNanos, long rows) {
+        boolean isSlow = durationNanos >= slowThresholdNanos;
+        if (!isSlow && (sampleRate <= 0 || ThreadLocalRandom.current().nextDouble() >= sampleRate)) {
+            return;
+        }
+        long sequence = head.getAndIncrement();
+        ring.set((int) (sequence & mask), new SqlTrace(
+                sequence, System.currentTimeMillis(), sql, binds, batchSize, durationNanos, rows, isSlow
+        ));
+    }
+
+    //drain thread only
+    int drain() {
+        int drained = 0;
+        long published;
+        while (tail < (published = head.get())) {
+            //anything older than one lap has been overwritten
+            long oldest = published - ring.length();
+            if (tail < oldest) {
+                dropped.increment(oldest - tail);
+                tail = oldest;
+            }
+            int slot = (int) (tail & mask);
+            SqlTrace trace = ring.get(slot);
+            if (trace == null || trace.sequence() < tail) {
+                //claimed but not written yet; the writer is mid-publish
+                break;
+            }
+            ring.compareAndSet(slot, trace, null);
+            if (trace.sequence() > tail) {
+                dropped.increment(trace.sequence() - tail);
+            }
+            tail = trace.sequence() + 1;
+            recorded.increment();
+            if (trace.slow()) {
+                slow.increment();
+            }
+            sink.accept(trace);
+            drained++;
+        }
+        return drained;
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(drainer);
+        drainer.join(TimeUnit.SECONDS.toMillis(1));
+    }
+
+    private void drainLoop() {
+        while (running) {
+            try {
+                if (drain() == 0) {
+                    LockSupport.parkNanos(IDLE_PARK_NANOS);
+                }
+            } catch (RuntimeException e) {
+                log.warn("could not write sql trace", e);
+            }
+        }
+        drain();
+    }
+
+    private static void log(SqlTrace trace) {
+        SqlFingerprint fingerprint = SqlFingerprint.of(trace.sql());
+        String message = "sql fingerprint={} duration_ms={} rows={} binds={} batch={} statement=\"{}\"";
+        Object[] arguments = {
+                fingerprint.id(),
+                "%.3f".formatted(trace.durationNanos() / 1_000_000.0),
+                trace.rows(),
+                trace.binds(),
+                trace.batchSize(),
+                fingerprint.normalized()
+        };
+        if (trace.slow()) {
+            log.warn("slow " + message, arguments);
+        } else {
+            log.info(message, arguments);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.amigoscode.sqltrace;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import javax.sql.DataSource;
+
+// proxies the application's DataSource only; the pools behind it (and the routing DataSource of
+// replica-routing) stay as they are, so each statement is traced once
+public class TracingDataSourcePostProcessor implements BeanPostProcessor {
+    static final String DATA_SOURCE_BEAN = "dataSource";
+
+    private final ObjectProvider<SqlTraceRecorder> recorder;
+
+    public TracingDataSourcePostProcessor(ObjectProvider<SqlTraceRecorder> recorder) {
+        this.recorder = recorder;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (DATA_SOURCE_BEAN.equals(beanName) && bean instanceof DataSource dataSource) {
+            return SqlTraceListener.trace(dataSource, recorder.getObject());
+        }
+        return bean;
+    }
+}
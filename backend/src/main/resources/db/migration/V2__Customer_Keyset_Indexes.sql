@@ -0,0 +1,9 @@
+-- runs outside a transaction (V2__Customer_Keyset_Indexes.sql.conf): the indexes are built CONCURRENTLY so
+-- customer stays writable. email needs none here, it is unique from V3 on and seeks on that index alone
+
+-- a failed concurrent build leaves an invalid index behind, drop it so the migration can be retried
+DROP INDEX CONCURRENTLY IF EXISTS customer_name_id_idx;
+CREATE INDEX CONCURRENTLY customer_name_id_idx ON customer (name, id);
+
+DROP INDEX CONCURRENTLY IF EXISTS customer_age_id_idx;
+CREATE INDEX CONCURRENTLY customer_age_id_idx ON customer (age, id);
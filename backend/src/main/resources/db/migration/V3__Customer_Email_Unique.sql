@@ -0,0 +1,30 @@
+-- runs outside a transaction (V3__Customer_Email_Unique.sql.conf): the index is built CONCURRENTLY so customer
+-- stays writable, and attaching it as the constraint only needs a brief lock
+
+-- existing duplicates would fail the index build half way, report them up front instead
+DO $$
+DECLARE
+    duplicates TEXT;
+BEGIN
+    SELECT string_agg(format('%s (%s rows)', email, customers), ', ')
+    INTO duplicates
+    FROM (
+        SELECT email, count(*) AS customers
+        FROM customer
+        GROUP BY email
+        HAVING count(*) > 1
+        ORDER BY email
+        LIMIT 20
+    ) duplicated;
+    IF duplicates IS NOT NULL THEN
+        RAISE EXCEPTION 'customer emails must be unique before this migration, duplicated: %', duplicates;
+    END IF;
+END
+$$;
+
+-- a failed concurrent build leaves an invalid index behind, drop it so the migration can be retried
+DROP INDEX CONCURRENTLY IF EXISTS customer_email_unique;
+
+CREATE UNIQUE INDEX CONCURRENTLY customer_email_unique ON customer (email);
+
+ALTER TABLE customer ADD CONSTRAINT customer_email_unique UNIQUE USING INDEX customer_email_unique;
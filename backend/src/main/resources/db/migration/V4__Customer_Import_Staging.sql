@@ -0,0 +1,11 @@
+CREATE UNLOGGED TABLE customer_import_staging(
+    job_id UUID NOT NULL,
+    line BIGINT NOT NULL,
+    name TEXT NOT NULL,
+    email TEXT NOT NULL,
+    password TEXT NOT NULL,
+    gender TEXT NOT NULL,
+    age INT NOT NULL
+);
+
+CREATE INDEX customer_import_staging_job_idx ON customer_import_staging (job_id);
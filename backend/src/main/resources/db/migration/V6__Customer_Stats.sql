@@ -0,0 +1,12 @@
+-- running counts per (gender, age bucket of 10 years), maintained alongside every customer write
+CREATE TABLE customer_stats(
+    gender TEXT NOT NULL,
+    age_bucket INT NOT NULL,
+    customers BIGINT NOT NULL,
+    PRIMARY KEY (gender, age_bucket)
+);
+
+INSERT INTO customer_stats(gender, age_bucket, customers)
+SELECT gender, age / 10 * 10, count(*)
+FROM customer
+GROUP BY gender, age / 10 * 10;
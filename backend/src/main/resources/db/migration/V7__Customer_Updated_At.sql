@@ -0,0 +1,18 @@
+ALTER TABLE customer ADD COLUMN updated_at TIMESTAMPTZ NOT NULL DEFAULT now();
+
+-- every write path (JDBC, JPA, imports, manual SQL) gets a fresh updated_at and a version bump,
+-- so both are safe to use as validators for conditional requests
+CREATE FUNCTION customer_touch() RETURNS trigger AS $$
+BEGIN
+    NEW.updated_at = now();
+    IF NEW.version = OLD.version THEN
+        NEW.version = OLD.version + 1;
+    END IF;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER customer_touch
+    BEFORE UPDATE ON customer
+    FOR EACH ROW
+    EXECUTE FUNCTION customer_touch();
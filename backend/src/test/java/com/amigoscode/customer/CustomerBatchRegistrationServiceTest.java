@@ -0,0 +1,125 @@
+package com.amigoscode.customer;
+
+import com.amigoscode.customer.CustomerBatchRegistrationResult.Status;
+import com.amigoscode.exception.RequestValidationException;
+import com.amigoscode.security.BoundedPasswordEncoder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CustomerBatchRegistrationServiceTest {
+    private CustomerBatchRegistrationService underTest;
+    @Mock
+    private CustomerDAO customerDAO;
+    @Mock
+    private BoundedPasswordEncoder passwordEncoder;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private CustomerSummaryService customerSummaryService;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new CustomerBatchRegistrationService(
+                customerDAO, passwordEncoder, eventPublisher,
+                customerSummaryService, TransactionOperations.withoutTransaction(), 3
+        );
+    }
+
+    @Test
+    void registerCustomersReportsEveryItem() {
+        List<CustomerRegistrationRequest> requests = List.of(
+                new CustomerRegistrationRequest("alex", "alex@", "password", 21, Gender.MALE),
+                new CustomerRegistrationRequest("maria", "taken@", "password", 19, Gender.FEMALE),
+                new CustomerRegistrationRequest("alex again", "alex@", "password", 22, Gender.MALE)
+        );
+        when(customerDAO.selectExistingEmails(anyCollection())).thenReturn(Set.of("taken@"));
+        when(passwordEncoder.encodeAll(List.of("password"))).thenReturn(List.of("hash"));
+        when(customerDAO.insertCustomers(anyList())).thenAnswer(invocation -> {
+            List<Customer> customers = invocation.getArgument(0);
+            customers.forEach(customer -> customer.setId(7L));
+            return customers;
+        });
+
+        CustomerBatchRegistrationResult actual = underTest.registerCustomers(requests);
+
+        assertThat(actual.created()).isEqualTo(1);
+        assertThat(actual.duplicates()).isEqualTo(2);
+        assertThat(actual.invalid()).isZero();
+        assertThat(actual.items()).extracting(CustomerBatchRegistrationResult.Item::status)
+                .containsExactly(Status.CREATED, Status.DUPLICATE, Status.DUPLICATE);
+        assertThat(actual.items().get(0).id()).isEqualTo(7L);
+
+        ArgumentCaptor<Collection<String>> emails = ArgumentCaptor.forClass(Collection.class);
+        verify(customerDAO).selectExistingEmails(emails.capture());
+        assertThat(emails.getValue()).containsExactlyInAnyOrder("alex@", "taken@");
+
+        ArgumentCaptor<List<Customer>> inserted = ArgumentCaptor.forClass(List.class);
+        verify(customerDAO).insertCustomers(inserted.capture());
+        assertThat(inserted.getValue()).singleElement().satisfies(customer -> {
+            assertThat(customer.getEmail()).isEqualTo("alex@");
+            assertThat(customer.getPassword()).isEqualTo("hash");
+        });
+        verify(eventPublisher).publishEvent(any(CustomerChangedEvent.class));
+    }
+
+    @Test
+    void rowsLostToConcurrentInsertsAreReportedAsDuplicates() {
+        List<CustomerRegistrationRequest> requests = List.of(
+                new CustomerRegistrationRequest("alex", "alex@", "password", 21, Gender.MALE)
+        );
+        when(customerDAO.selectExistingEmails(anyCollection())).thenReturn(Set.of());
+        when(passwordEncoder.encodeAll(List.of("password"))).thenReturn(List.of("hash"));
+        when(customerDAO.insertCustomers(anyList())).thenReturn(List.of());
+
+        CustomerBatchRegistrationResult actual = underTest.registerCustomers(requests);
+
+        assertThat(actual.items()).singleElement()
+                .extracting(CustomerBatchRegistrationResult.Item::status)
+                .isEqualTo(Status.DUPLICATE);
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void invalidItemsAreNotInserted() {
+        List<CustomerRegistrationRequest> requests = List.of(
+                new CustomerRegistrationRequest("", "alex@", "password", 21, Gender.MALE),
+                new CustomerRegistrationRequest("maria", "maria@", "password", null, Gender.FEMALE)
+        );
+        when(customerDAO.selectExistingEmails(anyCollection())).thenReturn(Set.of());
+        when(customerDAO.insertCustomers(anyList())).thenReturn(List.of());
+
+        CustomerBatchRegistrationResult actual = underTest.registerCustomers(requests);
+
+        assertThat(actual.invalid()).isEqualTo(2);
+        assertThat(actual.items()).extracting(CustomerBatchRegistrationResult.Item::message)
+                .containsExactly("name is required", "age is required");
+        verifyNoInteractions(passwordEncoder);
+    }
+
+    @Test
+    void registerCustomersRejectsOversizedBatch() {
+        CustomerRegistrationRequest request =
+                new CustomerRegistrationRequest("alex", "alex@", "password", 21, Gender.MALE);
+
+        assertThatThrownBy(() -> underTest.registerCustomers(List.of(request, request, request, request)))
+                .isInstanceOf(RequestValidationException.class)
+                .hasMessage("batch must contain between 1 and 3 customers");
+
+        verifyNoInteractions(customerDAO);
+    }
+}
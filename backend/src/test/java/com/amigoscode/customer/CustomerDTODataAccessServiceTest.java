@@ -0,0 +1,102 @@
+package com.amigoscode.customer;
+
+import com.amigoscode.AbstractTestcontainers;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CustomerDTODataAccessServiceTest extends AbstractTestcontainers {
+
+    private CustomerDTODataAccessService underTest;
+    private CustomerJDBCDataAccessService customerJDBCDataAccessService;
+    private final CustomerDTOMapper customerDTOMapper = new CustomerDTOMapper();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    void setUp() {
+        underTest = new CustomerDTODataAccessService(getJdbcTemplate(), new CustomerDTORowMapper(), meterRegistry);
+        customerJDBCDataAccessService = new CustomerJDBCDataAccessService(getJdbcTemplate(), new CustomerRowMapper());
+    }
+
+    @Test
+    void selectCustomerByIDMatchesTheEntityMapping() {
+        Customer customer = insertCustomer(FAKER.name().fullName());
+
+        Optional<CustomerDTO> actual = underTest.selectCustomerByID(customer.getId());
+
+        Customer stored = customerJDBCDataAccessService.selectCustomerByID(customer.getId()).orElseThrow();
+        assertThat(actual).contains(customerDTOMapper.apply(stored));
+    }
+
+    @Test
+    void selectCustomerByIDIsEmptyForUnknownId() {
+        assertThat(underTest.selectCustomerByID(-1L)).isEmpty();
+    }
+
+    @Test
+    void selectCustomersByIds() {
+        Customer first = insertCustomer(FAKER.name().fullName());
+        Customer second = insertCustomer(FAKER.name().fullName());
+
+        List<CustomerDTO> actual = underTest.selectCustomersByIds(List.of(first.getId(), second.getId(), -1L));
+
+        assertThat(actual).extracting(CustomerDTO::id).containsExactlyInAnyOrder(first.getId(), second.getId());
+    }
+
+    @Test
+    void selectCustomersSeeksPastCursor() {
+        String name = "projection-" + UUID.randomUUID();
+        for (int i = 0; i < 3; i++) {
+            insertCustomer(name);
+        }
+
+        List<CustomerDTO> firstPage = underTest.selectCustomers(
+                new CustomerPageRequest(CustomerSort.NAME, false, null, 1000)
+        ).stream().filter(c -> c.name().equals(name)).toList();
+        assertThat(firstPage).hasSize(3);
+
+        CustomerCursor after = CustomerCursor.of(CustomerSort.NAME, false, firstPage.get(0));
+        List<CustomerDTO> actual = underTest.selectCustomers(
+                new CustomerPageRequest(CustomerSort.NAME, false, after, 2)
+        );
+
+        assertThat(actual).containsExactly(firstPage.get(1), firstPage.get(2));
+    }
+
+    @Test
+    void selectAllCustomers() {
+        Customer customer = insertCustomer(FAKER.name().fullName());
+
+        assertThat(underTest.selectAllCustomers()).extracting(CustomerDTO::id).contains(customer.getId());
+    }
+
+    @Test
+    void readsShowUpNextToTheCustomerDAOImplementations() {
+        Customer customer = insertCustomer(FAKER.name().fullName());
+
+        underTest.selectCustomerByID(customer.getId());
+        underTest.selectCustomerByID(-1L);
+
+        assertThat(new CustomerDAOEndpoint(meterRegistry).implementation("dto"))
+                .singleElement()
+                .satisfies(stats -> {
+                    assertThat(stats.method()).isEqualTo("selectCustomerByID");
+                    assertThat(stats.calls()).isEqualTo(2);
+                    assertThat(stats.meanRows()).isEqualTo(0.5);
+                });
+    }
+
+    private Customer insertCustomer(String name) {
+        Customer customer = new Customer(
+                name, FAKER.internet().safeEmailAddress() + "-" + UUID.randomUUID(), "password", 20, Gender.MALE
+        );
+        customerJDBCDataAccessService.insertCustomer(customer);
+        return customer;
+    }
+}
@@ -0,0 +1,59 @@
+package com.amigoscode.customer;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CustomerDTORowMapperTest {
+    private static final Instant UPDATED_AT = Instant.parse("2026-01-01T00:00:00Z");
+    private final CustomerDTORowMapper underTest = new CustomerDTORowMapper();
+
+    @Test
+    void mapRowByColumnPosition() throws SQLException {
+        ResultSet resultSet = mock(ResultSet.class);
+        when(resultSet.getLong(1)).thenReturn(1L);
+        when(resultSet.getString(2)).thenReturn("Jamila");
+        when(resultSet.getString(3)).thenReturn("J@gmail.com");
+        when(resultSet.getInt(4)).thenReturn(15);
+        when(resultSet.getString(5)).thenReturn("FEMALE");
+        when(resultSet.getLong(6)).thenReturn(2L);
+        when(resultSet.getTimestamp(7)).thenReturn(Timestamp.from(UPDATED_AT));
+
+        CustomerDTO actual = underTest.mapRow(resultSet, 1);
+
+        assertThat(actual).isEqualTo(new CustomerDTO(
+                1L, "Jamila", "J@gmail.com", Gender.FEMALE, 15, List.of("ROLE_USER"), "J@gmail.com", 2L, UPDATED_AT
+        ));
+    }
+
+    @Test
+    void everyRowSharesTheRoleList() throws SQLException {
+        ResultSet resultSet = mock(ResultSet.class);
+        when(resultSet.getString(5)).thenReturn("MALE");
+        when(resultSet.getTimestamp(7)).thenReturn(Timestamp.from(UPDATED_AT));
+
+        CustomerDTO first = underTest.mapRow(resultSet, 1);
+        CustomerDTO second = underTest.mapRow(resultSet, 2);
+
+        assertThat(first.roles()).isSameAs(second.roles());
+    }
+
+    @Test
+    void willThrowOnUnknownGender() throws SQLException {
+        ResultSet resultSet = mock(ResultSet.class);
+        when(resultSet.getString(5)).thenReturn("OTHER");
+
+        assertThatThrownBy(() -> underTest.mapRow(resultSet, 1))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("OTHER");
+    }
+}
@@ -0,0 +1,128 @@
+package com.amigoscode.customer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CustomerEmailFilterTest {
+    private CustomerEmailFilter underTest;
+    @Mock
+    private CustomerDAO customerDAO;
+    @Mock
+    private Predicate<String> lookup;
+
+    private final Customer alex = new Customer(1L, "Alex", "alex@gmail.com", "password", 21, Gender.MALE);
+
+    @BeforeEach
+    void setUp() {
+        underTest = new CustomerEmailFilter(customerDAO, new SimpleMeterRegistry(), 2.0, 0.01);
+    }
+
+    private void givenCustomers(List<Customer> customers) {
+        when(customerDAO.countCustomers()).thenReturn((long) customers.size());
+        doAnswer(invocation -> {
+            Consumer<Customer> action = invocation.getArgument(0);
+            customers.forEach(action);
+            return null;
+        }).when(customerDAO).forEachCustomer(any());
+    }
+
+    @Test
+    void everyCheckGoesToTheDatabaseBeforeTheFirstBuild() {
+        when(lookup.test("nobody@gmail.com")).thenReturn(false);
+
+        boolean actual = underTest.existsPersonWithEmail("nobody@gmail.com", lookup);
+
+        assertThat(actual).isFalse();
+        verify(lookup).test("nobody@gmail.com");
+        assertThat(underTest.status().ready()).isFalse();
+    }
+
+    @Test
+    void unknownEmailSkipsTheDatabaseAfterBuild() {
+        givenCustomers(List.of(alex));
+        underTest.rebuild();
+
+        boolean actual = underTest.existsPersonWithEmail("nobody-" + UUID.randomUUID(), lookup);
+
+        assertThat(actual).isFalse();
+        verifyNoInteractions(lookup);
+    }
+
+    @Test
+    void knownEmailIsConfirmedWithTheDatabase() {
+        givenCustomers(List.of(alex));
+        CustomerEmailFilter.RebuildResult result = underTest.rebuild();
+        when(lookup.test(alex.getEmail())).thenReturn(true);
+
+        boolean actual = underTest.existsPersonWithEmail(alex.getEmail(), lookup);
+
+        assertThat(actual).isTrue();
+        assertThat(result.insertions()).isEqualTo(1);
+        verify(lookup).test(alex.getEmail());
+    }
+
+    @Test
+    void registeredEmailsAreAddedFromCustomerEvents() {
+        givenCustomers(List.of());
+        underTest.rebuild();
+        Customer jamila = new Customer(2L, "Jamila", "jamila@gmail.com", "password", 19, Gender.FEMALE);
+        when(lookup.test(jamila.getEmail())).thenReturn(true);
+
+        underTest.onCustomerChanged(CustomerChangedEvent.created(jamila));
+
+        assertThat(underTest.existsPersonWithEmail(jamila.getEmail(), lookup)).isTrue();
+    }
+
+    @Test
+    void filterIsSizedFromTheCustomerCountWithHeadroom() {
+        List<Customer> customers = new ArrayList<>();
+        for (long i = 0; i < 1000; i++) {
+            customers.add(new Customer(i, "c" + i, "customer-" + i + "@gmail.com", "password", 20, Gender.MALE));
+        }
+        givenCustomers(customers);
+
+        underTest.rebuild();
+
+        //half full, so well under the 1% a filter sized for exactly 1000 emails would reach
+        assertThat(underTest.status().insertions()).isEqualTo(1000);
+        assertThat(underTest.status().expectedFalsePositiveRate()).isLessThan(0.001);
+    }
+
+    @Test
+    void falsePositiveRateStaysNearTarget() {
+        List<Customer> customers = new ArrayList<>();
+        for (long i = 0; i < 1000; i++) {
+            customers.add(new Customer(i, "c" + i, "customer-" + i + "@gmail.com", "password", 20, Gender.MALE));
+        }
+        givenCustomers(customers);
+        underTest.rebuild();
+        when(lookup.test(any())).thenReturn(false);
+
+        int maybes = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (underTest.existsPersonWithEmail("other-" + i + "@gmail.com", lookup)) {
+                maybes++;
+            }
+        }
+
+        verify(lookup, atMost(300)).test(any());
+        assertThat(maybes).isZero();
+        assertThat(underTest.status().expectedFalsePositiveRate()).isLessThan(0.02);
+        assertThat(underTest.observedFalsePositiveRate()).isLessThan(0.03);
+    }
+}
@@ -0,0 +1,79 @@
+package com.amigoscode.customer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+@ExtendWith(MockitoExtension.class)
+class CustomerExportServiceTest {
+    private CustomerExportService underTest;
+    @Mock
+    private CustomerDAO customerDAO;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @BeforeEach
+    void setUp() {
+        underTest = new CustomerExportService(customerDAO, new CustomerDTOMapper(), objectMapper);
+    }
+
+    private void givenCustomers() {
+        List<Customer> customers = List.of(
+                new Customer(1L, "Alex", "alex@gmail.com", "password", 21, Gender.MALE),
+                new Customer(2L, "Jamila, \"J\"", "jamila@gmail.com", "password", 19, Gender.FEMALE)
+        );
+        doAnswer(invocation -> {
+            Consumer<Customer> action = invocation.getArgument(0);
+            customers.forEach(action);
+            return null;
+        }).when(customerDAO).forEachCustomer(any());
+    }
+
+    @Test
+    void canExportNdjson() throws IOException {
+        givenCustomers();
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        underTest.export(CustomerExportFormat.NDJSON, outputStream);
+
+        String[] lines = outputStream.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines).hasSize(2);
+        CustomerDTO first = objectMapper.readValue(lines[0], CustomerDTO.class);
+        assertThat(first.id()).isEqualTo(1L);
+        assertThat(first.email()).isEqualTo("alex@gmail.com");
+        assertThat(lines[1]).doesNotContain("password");
+    }
+
+    @Test
+    void canExportCsv() throws IOException {
+        givenCustomers();
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        underTest.export(CustomerExportFormat.CSV, outputStream);
+
+        assertThat(outputStream.toString(StandardCharsets.UTF_8)).isEqualTo("""
+                id,name,email,gender,age
+                1,Alex,alex@gmail.com,MALE,21
+                2,"Jamila, ""J\"\"\",jamila@gmail.com,FEMALE,19
+                """);
+    }
+
+    @Test
+    void willThrowWhenExportFormatIsNotSupported() {
+        assertThatThrownBy(() -> CustomerExportFormat.fromExtension("xml"))
+                .hasMessage("export format [xml] is not supported");
+    }
+}
@@ -0,0 +1,82 @@
+package com.amigoscode.customer;
+
+import com.amigoscode.exception.RequestValidationException;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CustomerFieldsTest {
+
+    @Test
+    void parseKeepsCustomerDTOOrder() {
+        CustomerFields actual = CustomerFields.parse("name, id,name");
+
+        assertThat(actual.fields()).containsExactly(CustomerField.ID, CustomerField.NAME);
+        assertThat(actual.columns()).containsExactly("id", "name");
+    }
+
+    @Test
+    void willThrowOnUnknownField() {
+        assertThatThrownBy(() -> CustomerFields.parse("id,password"))
+                .isInstanceOf(RequestValidationException.class)
+                .hasMessage("field [password] is not supported");
+    }
+
+    @Test
+    void willThrowOnEmptyFieldset() {
+        assertThatThrownBy(() -> CustomerFields.parse(" , "))
+                .isInstanceOf(RequestValidationException.class)
+                .hasMessage("fields must name at least one field");
+    }
+
+    @Test
+    void usernameAndEmailShareOneColumn() {
+        CustomerFields fields = CustomerFields.of(CustomerField.USERNAME, CustomerField.EMAIL);
+
+        assertThat(fields.columns()).containsExactly("email");
+        assertThat(fields.row(column -> "alex@gmail.com"))
+                .containsExactly(Map.entry("email", "alex@gmail.com"), Map.entry("username", "alex@gmail.com"));
+    }
+
+    @Test
+    void rolesAreNotReadFromTheDatabase() {
+        CustomerFields fields = CustomerFields.of(CustomerField.ROLES);
+
+        assertThat(fields.columns()).containsExactly("id");
+        assertThat(fields.row(column -> {
+            throw new AssertionError("no column should be read");
+        })).containsExactly(Map.entry("roles", List.of("ROLE_USER")));
+    }
+
+    @Test
+    void rowOfCustomer() {
+        Customer customer = new Customer(1L, "alex", "alex@gmail.com", "password", 21, Gender.MALE);
+
+        Map<String, Object> actual = CustomerFields.of(CustomerField.NAME, CustomerField.GENDER).row(customer);
+
+        assertThat(actual).containsExactly(Map.entry("name", "alex"), Map.entry("gender", Gender.MALE));
+    }
+
+    @Test
+    void selectDropsFieldsThatWereNotAskedFor() {
+        Map<String, Object> row = new LinkedHashMap<>(Map.of("id", 1L, "name", "alex", "age", 21));
+
+        Map<String, Object> actual = CustomerFields.of(CustomerField.NAME).select(row);
+
+        assertThat(actual).containsExactly(Map.entry("name", "alex"));
+    }
+
+    @Test
+    void updatedAtIsReadThroughItsEntityAttribute() {
+        CustomerFields fields = CustomerFields.of(CustomerField.UPDATED_AT);
+
+        assertThat(fields.columns()).containsExactly("updated_at");
+        assertThat(CustomerField.attribute("updated_at")).isEqualTo("updatedAt");
+        assertThat(CustomerField.attribute("age")).isEqualTo("age");
+    }
+}
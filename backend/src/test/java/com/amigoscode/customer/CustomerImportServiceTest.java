@@ -0,0 +1,119 @@
+package com.amigoscode.customer;
+
+import com.amigoscode.customer.CustomerImportStatus.State;
+import com.amigoscode.exception.RequestValidationException;
+import com.amigoscode.exception.ResourceNotFoundException;
+import com.amigoscode.security.BoundedPasswordEncoder;
+import com.amigoscode.sqltrace.SqlTraceRecorder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class CustomerImportServiceTest {
+    private CustomerImportService underTest;
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @Mock
+    private BoundedPasswordEncoder passwordEncoder;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private CustomerSummaryService summaryService;
+    @Mock
+    private ObjectProvider<SqlTraceRecorder> sqlTraceRecorder;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new CustomerImportService(
+                jdbcTemplate, passwordEncoder, eventPublisher, summaryService, TransactionOperations.withoutTransaction(), sqlTraceRecorder,
+                1, 1, 10, Duration.ofHours(1)
+        );
+    }
+
+    @AfterEach
+    void tearDown() {
+        underTest.destroy();
+    }
+
+    @Test
+    void parseLineHandlesQuotedFields() {
+        assertThat(CustomerCsv.parseLine("\"Doe, John\",john@,\"pa\"\"ss\",30,MALE"))
+                .containsExactly("Doe, John", "john@", "pa\"ss", "30", "MALE");
+        assertThatThrownBy(() -> CustomerCsv.parseLine("\"open,john@"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void columnsAreMatchedByHeaderName() {
+        int[] positions = CustomerImportService.columnPositions("Email,name,gender,age,password");
+
+        CustomerImportJob job = new CustomerImportJob(UUID.randomUUID(), Clock.systemUTC());
+        CustomerImportService.ImportRow row =
+                CustomerImportService.parse(job, 2, "alex@,alex,female,21,secret", positions);
+
+        assertThat(row.request()).isEqualTo(
+                new CustomerRegistrationRequest("alex", "alex@", "secret", 21, Gender.FEMALE)
+        );
+    }
+
+    @Test
+    void invalidRowsAreCountedWithTheirLineNumber() {
+        int[] positions = CustomerImportService.columnPositions("name,email,password,age,gender");
+        CustomerImportJob job = new CustomerImportJob(UUID.randomUUID(), Clock.systemUTC());
+
+        assertThat(CustomerImportService.parse(job, 2, "alex,alex@,secret,old,MALE", positions)).isNull();
+        assertThat(CustomerImportService.parse(job, 3, "alex,alex@,secret,21,OTHER", positions)).isNull();
+        assertThat(CustomerImportService.parse(job, 4, ",alex@,secret,21,MALE", positions)).isNull();
+        assertThat(CustomerImportService.parse(job, 5, "alex,alex@", positions)).isNull();
+
+        CustomerImportStatus status = job.status();
+        assertThat(status.state()).isEqualTo(State.QUEUED);
+        assertThat(status.rowsInvalid()).isEqualTo(4);
+        assertThat(status.errors()).containsExactly(
+                "line 2: age must be a number",
+                "line 3: gender must be one of [MALE, FEMALE]",
+                "line 4: name is required",
+                "line 5: expected 5 columns"
+        );
+    }
+
+    @Test
+    void startImportRejectsMissingColumns() {
+        var csv = new ByteArrayInputStream("name,email\nalex,alex@\n".getBytes(StandardCharsets.UTF_8));
+
+        assertThatThrownBy(() -> underTest.startImport(csv))
+                .isInstanceOf(RequestValidationException.class)
+                .hasMessage("CSV header must contain the columns %s".formatted(
+                        List.of("name", "email", "password", "age", "gender")
+                ));
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void getImportThrowsWhenUnknown() {
+        UUID id = UUID.randomUUID();
+
+        assertThatThrownBy(() -> underTest.getImport(id))
+                .isInstanceOf(ResourceNotFoundException.class)
+                .hasMessage("customer import with id [%s] not found".formatted(id));
+    }
+}
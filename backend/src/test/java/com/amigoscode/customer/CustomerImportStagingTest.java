@@ -0,0 +1,128 @@
+package com.amigoscode.customer;
+
+import com.amigoscode.AbstractTestcontainers;
+import com.amigoscode.customer.CustomerImportStatus.State;
+import com.amigoscode.security.BoundedPasswordEncoder;
+import com.amigoscode.sqltrace.SqlTraceRecorder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CustomerImportStagingTest extends AbstractTestcontainers {
+
+    private CustomerImportService underTest;
+    private final JdbcTemplate jdbcTemplate = getJdbcTemplate();
+    private final BoundedPasswordEncoder passwordEncoder = mock(BoundedPasswordEncoder.class);
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    private final CustomerSummaryService summaryService = mock(CustomerSummaryService.class);
+    @SuppressWarnings("unchecked")
+    private final ObjectProvider<SqlTraceRecorder> sqlTraceRecorder = mock(ObjectProvider.class);
+
+    @BeforeEach
+    void setUp() {
+        underTest = new CustomerImportService(
+                jdbcTemplate, passwordEncoder, eventPublisher, summaryService, TransactionOperations.withoutTransaction(), sqlTraceRecorder,
+                1, 1, 2, Duration.ofHours(1)
+        );
+    }
+
+    @AfterEach
+    void tearDown() {
+        underTest.destroy();
+    }
+
+    @Test
+    void importCopiesValidRowsAndSkipsTakenEmails() throws Exception {
+        when(passwordEncoder.encodeAll(anyList())).thenAnswer(invocation -> {
+            List<String> passwords = invocation.getArgument(0);
+            return passwords.stream().map(password -> "hash").toList();
+        });
+        String taken = FAKER.internet().safeEmailAddress() + "-" + UUID.randomUUID();
+        new CustomerJDBCDataAccessService(jdbcTemplate, new CustomerRowMapper()).insertCustomer(
+                new Customer(FAKER.name().fullName(), taken, "password", 20, Gender.MALE)
+        );
+        String fresh = FAKER.internet().safeEmailAddress() + "-" + UUID.randomUUID();
+        Path csv = Files.createTempFile("customers", ".csv");
+        Files.writeString(csv, """
+                name,email,password,age,gender
+                "Doe, John",%1$s,secret,30,MALE
+                Maria,%2$s,secret,25,FEMALE
+                John again,%1$s,secret,31,MALE
+                Nikos,nikos@,secret,,MALE
+                """.formatted(fresh, taken), StandardCharsets.UTF_8);
+        CustomerImportJob job = new CustomerImportJob(UUID.randomUUID(), Clock.systemUTC());
+
+        underTest.run(job, csv);
+
+        CustomerImportStatus status = job.status();
+        assertThat(status.state()).isEqualTo(State.COMPLETED);
+        assertThat(status.rowsRead()).isEqualTo(4);
+        assertThat(status.rowsStaged()).isEqualTo(3);
+        assertThat(status.rowsInvalid()).isEqualTo(1);
+        assertThat(status.rowsImported()).isEqualTo(1);
+        assertThat(status.rowsDuplicate()).isEqualTo(2);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT name FROM customer WHERE email = ?", String.class, fresh
+        )).isEqualTo("Doe, John");
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM customer_import_staging WHERE job_id = ?", Long.class, job.id()
+        )).isZero();
+        assertThat(csv).doesNotExist();
+        verify(eventPublisher).publishEvent(new CustomersImportedEvent(job.id(), 1));
+        verify(summaryService).recordDeltas(List.of(
+                new CustomerSummaryDataAccessService.CustomerSummaryRow(Gender.MALE, 30, 1)
+        ));
+    }
+
+    @Test
+    void copiesAreTraced() throws Exception {
+        SqlTraceRecorder recorder = mock(SqlTraceRecorder.class);
+        doAnswer(invocation -> {
+            Consumer<SqlTraceRecorder> action = invocation.getArgument(0);
+            action.accept(recorder);
+            return null;
+        }).when(sqlTraceRecorder).ifAvailable(any());
+        when(passwordEncoder.encodeAll(anyList())).thenAnswer(invocation -> {
+            List<String> passwords = invocation.getArgument(0);
+            return passwords.stream().map(password -> "hash").toList();
+        });
+        Path csv = Files.createTempFile("customers", ".csv");
+        Files.writeString(csv, """
+                name,email,password,age,gender
+                Alex,%s,secret,30,MALE
+                Maria,%s,secret,25,FEMALE
+                Nikos,%s,secret,41,MALE
+                """.formatted(UUID.randomUUID() + "@a.com", UUID.randomUUID() + "@a.com", UUID.randomUUID() + "@a.com"),
+                StandardCharsets.UTF_8);
+
+        underTest.run(new CustomerImportJob(UUID.randomUUID(), Clock.systemUTC()), csv);
+
+        //chunks of two rows
+        verify(recorder).record(startsWith("COPY customer_import_staging"), eq(0), eq(0), anyLong(), eq(2L));
+        verify(recorder).record(startsWith("COPY customer_import_staging"), eq(0), eq(0), anyLong(), eq(1L));
+    }
+}
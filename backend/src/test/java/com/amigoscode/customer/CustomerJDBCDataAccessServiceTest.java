@@ -1,14 +1,31 @@
 package com.amigoscode.customer;
 
 import com.amigoscode.AbstractTestcontainers;
+import com.amigoscode.exception.DuplicateResourceException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.transaction.TransactionManager;
+import org.springframework.transaction.annotation.AnnotationTransactionAttributeSource;
+import org.springframework.transaction.interceptor.TransactionInterceptor;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 class CustomerJDBCDataAccessServiceTest extends AbstractTestcontainers {
 
@@ -37,6 +54,127 @@ class CustomerJDBCDataAccessServiceTest extends AbstractTestcontainers {
         assertThat(actual).isNotEmpty();
     }
 
+    @Test
+    void selectCustomersSeeksPastCursor() {
+        String name = "keyset-" + UUID.randomUUID();
+        for (int i = 0; i < 3; i++) {
+            underTest.insertCustomer(new Customer(
+                    name, FAKER.internet().safeEmailAddress() + "-" + UUID.randomUUID(), "password", 20,
+                    Gender.MALE
+            ));
+        }
+
+        List<Customer> firstPage = underTest.selectCustomers(
+                new CustomerPageRequest(CustomerSort.NAME, false, null, 1000)
+        ).stream().filter(c -> c.getName().equals(name)).toList();
+        assertThat(firstPage).hasSize(3);
+
+        CustomerCursor after = CustomerCursor.of(CustomerSort.NAME, false, firstPage.get(0));
+        List<Customer> actual = underTest.selectCustomers(
+                new CustomerPageRequest(CustomerSort.NAME, false, after, 2)
+        );
+
+        assertThat(actual).containsExactly(firstPage.get(1), firstPage.get(2));
+    }
+
+    @Test
+    void selectCustomerFieldsSeeksPastCursorReadingOnlyTheRequestedColumns() {
+        String name = "sparse-" + UUID.randomUUID();
+        for (int i = 0; i < 3; i++) {
+            underTest.insertCustomer(new Customer(
+                    name, FAKER.internet().safeEmailAddress() + "-" + UUID.randomUUID(), "password", 20 + i,
+                    Gender.FEMALE
+            ));
+        }
+        List<Customer> inserted = underTest.selectCustomers(
+                new CustomerPageRequest(CustomerSort.NAME, false, null, 1000)
+        ).stream().filter(c -> c.getName().equals(name)).toList();
+
+        CustomerCursor after = CustomerCursor.of(CustomerSort.NAME, false, inserted.get(0));
+        List<Map<String, Object>> actual = underTest.selectCustomerFields(
+                new CustomerPageRequest(CustomerSort.NAME, false, after, 2),
+                CustomerFields.parse("id,name,gender")
+        );
+
+        assertThat(actual).containsExactly(
+                Map.of("id", inserted.get(1).getId(), "name", name, "gender", Gender.FEMALE),
+                Map.of("id", inserted.get(2).getId(), "name", name, "gender", Gender.FEMALE)
+        );
+    }
+
+    @Test
+    void selectCustomerFieldsByIds() {
+        String email = FAKER.internet().safeEmailAddress() + "-" + UUID.randomUUID();
+        Customer customer = new Customer(FAKER.name().fullName(), email, "password", 20, Gender.MALE);
+        underTest.insertCustomer(customer);
+
+        List<Map<String, Object>> actual = underTest.selectCustomerFieldsByIds(
+                List.of(customer.getId(), -1L), CustomerFields.parse("username,age")
+        );
+
+        assertThat(actual).containsExactly(Map.of("age", 20, "username", email));
+    }
+
+    @Test
+    void forEachCustomerVisitsEveryRow() {
+        String email = FAKER.internet().safeEmailAddress() + "-" + UUID.randomUUID();
+        underTest.insertCustomer(new Customer(
+                FAKER.name().fullName(), email, "password", 20,
+                Gender.MALE
+        ));
+
+        List<Customer> visited = new ArrayList<>();
+        underTest.forEachCustomer(visited::add);
+
+        assertThat(visited)
+                .hasSameSizeAs(underTest.selectAllCustomers())
+                .anyMatch(c -> c.getEmail().equals(email));
+    }
+
+    @Test
+    void forEachCustomerStreamsWithinAReadOnlyTransaction() {
+        underTest.insertCustomer(new Customer(
+                FAKER.name().fullName(), FAKER.internet().safeEmailAddress() + "-" + UUID.randomUUID(), "password", 20,
+                Gender.MALE
+        ));
+        DataSource dataSource = getJdbcTemplate().getDataSource();
+        //records the fetch size of every statement forEachCustomer prepares
+        List<Integer> fetchSizes = new ArrayList<>();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource) {
+            @Override
+            public void query(PreparedStatementCreator creator, RowCallbackHandler handler) {
+                super.query(connection -> {
+                    PreparedStatement statement = creator.createPreparedStatement(connection);
+                    fetchSizes.add(statement.getFetchSize());
+                    return statement;
+                }, handler);
+            }
+        };
+        //applies @Transactional the way the application context does
+        ProxyFactory proxyFactory = new ProxyFactory(new CustomerJDBCDataAccessService(jdbcTemplate, customerRowMapper));
+        proxyFactory.addAdvice(new TransactionInterceptor(
+                (TransactionManager) new DataSourceTransactionManager(dataSource),
+                new AnnotationTransactionAttributeSource()
+        ));
+        CustomerDAO transactional = (CustomerDAO) proxyFactory.getProxy();
+
+        List<Boolean> autoCommit = new ArrayList<>();
+        List<Boolean> readOnly = new ArrayList<>();
+        transactional.forEachCustomer(customer -> {
+            Connection connection = DataSourceUtils.getConnection(dataSource);
+            try {
+                autoCommit.add(connection.getAutoCommit());
+                readOnly.add(connection.isReadOnly());
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        assertThat(fetchSizes).containsExactly(CustomerJDBCDataAccessService.STREAM_FETCH_SIZE);
+        assertThat(autoCommit).isNotEmpty().containsOnly(false);
+        assertThat(readOnly).isNotEmpty().containsOnly(true);
+    }
+
     @Test
     void selectCustomerByID() {
         String email = FAKER.internet().safeEmailAddress() + "-" + UUID.randomUUID();
@@ -87,6 +225,49 @@ class CustomerJDBCDataAccessServiceTest extends AbstractTestcontainers {
         assertThat(actual).isTrue();
     }
 
+    @Test
+    void insertCustomerAssignsIdAndRejectsTakenEmail() {
+        String email = FAKER.internet().safeEmailAddress() + "-" + UUID.randomUUID();
+        Customer customer = new Customer(
+                FAKER.name().fullName(), email, "password", 20,
+                Gender.MALE
+        );
+
+        underTest.insertCustomer(customer);
+
+        assertThat(customer.getId()).isNotNull();
+        assertThat(underTest.selectCustomerByID(customer.getId())).isPresent();
+
+        Customer duplicate = new Customer(
+                FAKER.name().fullName(), email, "password", 30,
+                Gender.FEMALE
+        );
+        assertThatThrownBy(() -> underTest.insertCustomer(duplicate))
+                .isInstanceOf(DuplicateResourceException.class)
+                .hasMessage("email already taken");
+    }
+
+    @Test
+    void insertCustomersSkipsTakenEmailsAndAssignsIds() {
+        String taken = FAKER.internet().safeEmailAddress() + "-" + UUID.randomUUID();
+        underTest.insertCustomer(new Customer(
+                FAKER.name().fullName(), taken, "password", 20,
+                Gender.MALE
+        ));
+        String fresh = FAKER.internet().safeEmailAddress() + "-" + UUID.randomUUID();
+        Customer first = new Customer(FAKER.name().fullName(), fresh, "hash-1", 21, Gender.MALE);
+        Customer second = new Customer(FAKER.name().fullName(), taken, "hash-2", 22, Gender.FEMALE);
+
+        List<Customer> actual = underTest.insertCustomers(List.of(first, second));
+
+        assertThat(actual).containsExactly(first);
+        assertThat(first.getId()).isNotNull();
+        assertThat(underTest.selectCustomerByID(first.getId()))
+                .hasValueSatisfying(c -> assertThat(c.getEmail()).isEqualTo(fresh));
+        assertThat(underTest.selectExistingEmails(List.of(fresh, taken, "nobody@" + UUID.randomUUID())))
+                .containsExactlyInAnyOrder(fresh, taken);
+    }
+
     @Test
     void existsPersonWithEmailReturnsFalseWhenDoesNotExists() {
         String email = FAKER.internet().safeEmailAddress() + "-" + UUID.randomUUID();
@@ -111,10 +292,12 @@ class CustomerJDBCDataAccessServiceTest extends AbstractTestcontainers {
                 .findFirst()
                 .orElseThrow();
 
-        underTest.deleteCustomerById(id);
+        Optional<Customer> deleted = underTest.deleteCustomerById(id);
         Optional<Customer> actual = underTest.selectCustomerByID(id);
 
+        assertThat(deleted).hasValueSatisfying(c -> assertThat(c.getEmail()).isEqualTo(email));
         assertThat(actual).isNotPresent();
+        assertThat(underTest.deleteCustomerById(id)).isEmpty();
     }
 
     @Test
@@ -317,4 +500,74 @@ class CustomerJDBCDataAccessServiceTest extends AbstractTestcontainers {
             assertThat(c.getGender()).isEqualTo(customer.getGender());
         });
     }
-}
\ No newline at end of file
+
+    @Test
+    void patchCustomerUpdatesChangedColumnsOnlyAtExpectedVersion() {
+        String email = FAKER.internet().safeEmailAddress() + "-" + UUID.randomUUID();
+        Customer customer = new Customer(
+                FAKER.name().fullName(), email, "password", 20,
+                Gender.MALE
+        );
+        underTest.insertCustomer(customer);
+        long id = customer.getId();
+        long version = underTest.selectCustomerByID(id).orElseThrow().getVersion();
+
+        Optional<CustomerRevision> actual = underTest.patchCustomer(
+                new CustomerPatch(id, version, new CustomerUpdateRequest(null, null, 42))
+        );
+
+        assertThat(actual).hasValueSatisfying(revision -> {
+            assertThat(revision.previous().getAge()).isEqualTo(20);
+            assertThat(revision.current().getAge()).isEqualTo(42);
+            assertThat(revision.current().getName()).isEqualTo(customer.getName());
+            assertThat(revision.current().getVersion()).isEqualTo(version + 1);
+        });
+        assertThat(underTest.patchCustomer(
+                new CustomerPatch(id, version, new CustomerUpdateRequest("stale", null, null))
+        )).isEmpty();
+    }
+
+    @Test
+    void selectCustomersByIdsSkipsUnknownIds() {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Customer customer = new Customer(
+                    FAKER.name().fullName(),
+                    FAKER.internet().safeEmailAddress() + "-" + UUID.randomUUID(),
+                    "password", 20,
+                    Gender.FEMALE
+            );
+            underTest.insertCustomer(customer);
+            ids.add(customer.getId());
+        }
+        ids.add(-1L);
+
+        List<Customer> actual = underTest.selectCustomersByIds(ids);
+
+        assertThat(actual).extracting(Customer::getId)
+                .containsExactlyInAnyOrderElementsOf(ids.subList(0, 3));
+    }
+
+    @Test
+    void selectCustomerVersionTracksUpdates() {
+        String email = FAKER.internet().safeEmailAddress() + "-" + UUID.randomUUID();
+        Customer customer = new Customer(
+                FAKER.name().fullName(), email, "password", 20,
+                Gender.MALE
+        );
+        underTest.insertCustomer(customer);
+        long id = customer.getId();
+        CustomerVersion inserted = underTest.selectCustomerVersion(id).orElseThrow();
+
+        Customer update = new Customer();
+        update.setId(id);
+        update.setAge(21);
+        underTest.updateCustomerById(update);
+
+        assertThat(underTest.selectCustomerVersion(id)).hasValueSatisfying(updated -> {
+            assertThat(updated.version()).isEqualTo(inserted.version() + 1);
+            assertThat(updated.updatedAt()).isAfterOrEqualTo(inserted.updatedAt());
+        });
+        assertThat(underTest.selectCustomerVersion(-1L)).isEmpty();
+    }
+}
@@ -1,11 +1,23 @@
 package com.amigoscode.customer;
 
+import com.amigoscode.exception.DuplicateResourceException;
+import jakarta.persistence.Tuple;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 class CustomerJPADataAccessServiceTest {
 
@@ -32,6 +44,20 @@ class CustomerJPADataAccessServiceTest {
         verify(customerRepository).findAll();
     }
 
+    @Test
+    void selectCustomers() {
+        CustomerPageRequest pageRequest = new CustomerPageRequest(CustomerSort.ID, false, null, 10);
+        underTest.selectCustomers(pageRequest);
+        verify(customerRepository).findPage(pageRequest);
+    }
+
+    @Test
+    void forEachCustomer() {
+        Consumer<Customer> action = customer -> {};
+        underTest.forEachCustomer(action);
+        verify(customerRepository).forEachCustomer(action);
+    }
+
     @Test
     void selectCustomerByID() {
         long id = 1L;
@@ -39,11 +65,51 @@ class CustomerJPADataAccessServiceTest {
         verify(customerRepository).findById(id);
     }
 
+    @Test
+    void selectCustomersByIds() {
+        List<Long> ids = List.of(1L, 2L);
+        underTest.selectCustomersByIds(ids);
+        verify(customerRepository).findAllByIdIn(ids);
+    }
+
+    @Test
+    void selectCustomerFieldsByIdsReadsOnlyTheRequestedAttributes() {
+        List<Long> ids = List.of(1L);
+        Tuple tuple = mock(Tuple.class);
+        when(tuple.get("id")).thenReturn(1L);
+        when(tuple.get("email")).thenReturn("alex@gmail.com");
+        when(customerRepository.findFieldsByIdIn(ids, List.of("id", "email"))).thenReturn(List.of(tuple));
+
+        List<Map<String, Object>> actual = underTest.selectCustomerFieldsByIds(
+                ids, CustomerFields.parse("id,username")
+        );
+
+        assertThat(actual).containsExactly(Map.of("id", 1L, "username", "alex@gmail.com"));
+    }
+
+    @Test
+    void selectCustomerVersion() {
+        long id = 1L;
+        underTest.selectCustomerVersion(id);
+        verify(customerRepository).findVersionById(id);
+    }
+
     @Test
     void insertCustomer() {
-        Customer insertCustomer = new Customer(1L, "maria", "mar@", "password", 11, Gender.MALE);
+        Customer insertCustomer = new Customer("maria", "mar@", "password", 11, Gender.MALE);
+        when(customerRepository.insertIfEmailAbsent(insertCustomer)).thenReturn(Optional.of(1L));
         underTest.insertCustomer(insertCustomer);
-        verify(customerRepository).save(insertCustomer);
+        verify(customerRepository).insertIfEmailAbsent(insertCustomer);
+        assertThat(insertCustomer.getId()).isEqualTo(1L);
+    }
+
+    @Test
+    void willThrowWhenInsertedEmailIsTaken() {
+        Customer insertCustomer = new Customer("maria", "mar@", "password", 11, Gender.MALE);
+        when(customerRepository.insertIfEmailAbsent(insertCustomer)).thenReturn(Optional.empty());
+        assertThatThrownBy(() -> underTest.insertCustomer(insertCustomer))
+                .isInstanceOf(DuplicateResourceException.class)
+                .hasMessage("email already taken");
     }
 
     @Test
@@ -57,7 +123,7 @@ class CustomerJPADataAccessServiceTest {
     void deleteCustomerById() {
         long id = 1L;
         underTest.deleteCustomerById(id);
-        verify(customerRepository).deleteById(id);
+        verify(customerRepository).deleteReturning(id);
     }
 
     @Test
@@ -0,0 +1,157 @@
+package com.amigoscode.customer;
+
+import com.amigoscode.exception.DuplicateResourceException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CustomerListDataAccessServiceTest {
+
+    private static final int THREADS = 8;
+
+    private CustomerListDataAccessService underTest;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new CustomerListDataAccessService();
+    }
+
+    @Test
+    void updateReplacesInsteadOfAppending() {
+        Customer update = new Customer();
+        update.setId(1L);
+        update.setName("Alexander");
+
+        underTest.updateCustomerById(update);
+
+        assertThat(underTest.selectAllCustomers()).hasSize(2);
+        assertThat(underTest.selectCustomerByID(1L)).hasValueSatisfying(c -> {
+            assertThat(c.getName()).isEqualTo("Alexander");
+            assertThat(c.getEmail()).isEqualTo("Alex@gmail.com");
+            assertThat(c.getVersion()).isEqualTo(1L);
+        });
+    }
+
+    @Test
+    void emailIndexFollowsUpdatesAndDeletes() {
+        Customer customer = new Customer("maria", "maria@", "password", 30, Gender.FEMALE);
+        underTest.insertCustomer(customer);
+        assertThat(customer.getId()).isEqualTo(3L);
+
+        underTest.patchCustomer(new CustomerPatch(3L, 0L, new CustomerUpdateRequest(null, "mary@", null)));
+
+        assertThat(underTest.existsPersonWithEmail("maria@")).isFalse();
+        assertThat(underTest.selectUserByEmail("mary@")).map(Customer::getId).contains(3L);
+        assertThatThrownBy(() -> underTest.patchCustomer(
+                new CustomerPatch(1L, 0L, new CustomerUpdateRequest(null, "mary@", null))))
+                .isInstanceOf(DuplicateResourceException.class);
+
+        assertThat(underTest.deleteCustomerById(3L)).isPresent();
+        assertThat(underTest.deleteCustomerById(3L)).isEmpty();
+
+        assertThat(underTest.existsPersonWithEmail("mary@")).isFalse();
+        assertThat(underTest.existsPersonWithId(3L)).isFalse();
+    }
+
+    @Test
+    void selectCustomerFieldsProjectsTheRequestedFields() {
+        List<Map<String, Object>> actual = underTest.selectCustomerFieldsByIds(
+                List.of(1L), CustomerFields.parse("id,username")
+        );
+
+        assertThat(actual).containsExactly(Map.of("id", 1L, "username", "Alex@gmail.com"));
+    }
+
+    @Test
+    void returnedCustomersAreCopies() {
+        underTest.selectCustomerByID(1L).orElseThrow().setName("changed");
+
+        assertThat(underTest.selectCustomerByID(1L)).map(Customer::getName).contains("Alex");
+    }
+
+    @Test
+    void concurrentInsertsOfTheSameEmailsCreateEachOnlyOnce() throws Exception {
+        int emails = 500;
+        AtomicInteger created = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+
+        runConcurrently(() -> {
+            for (int i = 0; i < emails; i++) {
+                try {
+                    underTest.insertCustomer(new Customer("c" + i, "c" + i + "@", "password", 20, Gender.MALE));
+                    created.incrementAndGet();
+                } catch (DuplicateResourceException e) {
+                    rejected.incrementAndGet();
+                }
+            }
+            return null;
+        });
+
+        assertThat(created.get()).isEqualTo(emails);
+        assertThat(rejected.get()).isEqualTo(emails * (THREADS - 1));
+        List<Customer> all = underTest.selectAllCustomers();
+        assertThat(all).hasSize(emails + 2);
+        Set<Long> ids = all.stream().map(Customer::getId).collect(Collectors.toSet());
+        assertThat(ids).hasSize(all.size());
+        for (int i = 0; i < emails; i++) {
+            assertThat(underTest.existsPersonWithEmail("c" + i + "@")).isTrue();
+        }
+    }
+
+    @Test
+    void concurrentVersionedPatchesNeverLoseAWrite() throws Exception {
+        AtomicInteger applied = new AtomicInteger();
+
+        runConcurrently(() -> {
+            for (int i = 0; i < 1_000; i++) {
+                long version = underTest.selectCustomerByID(1L).orElseThrow().getVersion();
+                Optional<CustomerRevision> revision = underTest.patchCustomer(
+                        new CustomerPatch(1L, version, new CustomerUpdateRequest(null, null, i))
+                );
+                if (revision.isPresent()) {
+                    applied.incrementAndGet();
+                }
+            }
+            return null;
+        });
+
+        assertThat(underTest.selectCustomerByID(1L))
+                .map(Customer::getVersion)
+                .contains((long) applied.get());
+    }
+
+    private static void runConcurrently(Callable<Void> task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Void>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return task.call();
+                }));
+            }
+            start.countDown();
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.amigoscode.customer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CustomerListSnapshotTest {
+    private CustomerListSnapshot underTest;
+    @Mock
+    private CustomerService customerService;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final CustomerDTO alex = new CustomerDTO(
+            1L, "alex", "alex@", Gender.MALE, 21, List.of("ROLE_USER"), "alex@", 0L, null
+    );
+
+    @BeforeEach
+    void setUp() {
+        underTest = new CustomerListSnapshot(customerService, objectMapper, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void snapshotIsReusedUntilTheNextWrite() throws Exception {
+        when(customerService.getAllCustomers()).thenReturn(List.of(alex));
+
+        CustomerListSnapshot.Snapshot first = underTest.current();
+        CustomerListSnapshot.Snapshot second = underTest.current();
+
+        assertThat(second).isSameAs(first);
+        assertThat(first.json()).isEqualTo(objectMapper.writeValueAsBytes(List.of(alex)));
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(first.gzip()))) {
+            assertThat(gzip.readAllBytes()).isEqualTo(first.json());
+        }
+        verify(customerService, times(1)).getAllCustomers();
+
+        underTest.onCustomerChanged(CustomerChangedEvent.deleted(new Customer()));
+
+        assertThat(underTest.current()).isNotSameAs(first);
+        verify(customerService, times(2)).getAllCustomers();
+    }
+
+    @Test
+    void eTagAndLastModifiedSurviveARebuildWithUnchangedContent() {
+        when(customerService.getAllCustomers()).thenReturn(List.of(alex));
+
+        CustomerListSnapshot.Snapshot first = underTest.current();
+        underTest.onCustomersImported(new CustomersImportedEvent(UUID.randomUUID(), 0));
+        CustomerListSnapshot.Snapshot rebuilt = underTest.current();
+
+        assertThat(rebuilt).isNotSameAs(first);
+        assertThat(rebuilt.eTag()).isEqualTo(first.eTag());
+        assertThat(rebuilt.lastModified()).isEqualTo(first.lastModified());
+
+        when(customerService.getAllCustomers()).thenReturn(List.of());
+        underTest.onCustomerChanged(CustomerChangedEvent.deleted(new Customer()));
+
+        assertThat(underTest.current().eTag()).isNotEqualTo(first.eTag());
+    }
+
+    @Test
+    void concurrentReadersShareOneRebuild() throws Exception {
+        CountDownLatch building = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(customerService.getAllCustomers()).thenAnswer(invocation -> {
+            building.countDown();
+            release.await();
+            return List.of(alex);
+        });
+        int readers = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(readers);
+        try {
+            List<Future<CustomerListSnapshot.Snapshot>> futures = new ArrayList<>();
+            futures.add(executor.submit(underTest::current));
+            building.await();
+            for (int i = 1; i < readers; i++) {
+                futures.add(executor.submit(underTest::current));
+            }
+            release.countDown();
+
+            CustomerListSnapshot.Snapshot first = futures.get(0).get();
+            for (Future<CustomerListSnapshot.Snapshot> future : futures) {
+                assertThat(future.get()).isSameAs(first);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        verify(customerService, times(1)).getAllCustomers();
+    }
+}
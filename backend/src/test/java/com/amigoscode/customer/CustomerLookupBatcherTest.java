@@ -0,0 +1,170 @@
+package com.amigoscode.customer;
+
+import com.amigoscode.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CustomerLookupBatcherTest {
+    private CustomerLookupBatcher underTest;
+    @Mock
+    private CustomerDTODataAccessService customerDTODataAccessService;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new CustomerLookupBatcher(
+                customerDTODataAccessService, Duration.ofMillis(50), 100, 2, Duration.ofSeconds(5), new SimpleMeterRegistry()
+        );
+    }
+
+    @AfterEach
+    void tearDown() {
+        underTest.destroy();
+    }
+
+    @Test
+    void lookupsArrivingWhileABatchIsInFlightShareOneQuery() throws Exception {
+        //holds a first batch in flight until the next one is sent, so the lookups after it wait out the window together
+        CountDownLatch inFlight = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch batched = new CountDownLatch(1);
+        when(customerDTODataAccessService.selectCustomerByID(any())).thenAnswer(invocation -> {
+            Long id = invocation.getArgument(0);
+            if (id == 0L) {
+                inFlight.countDown();
+                release.await();
+            }
+            return storedCustomer(id);
+        });
+        when(customerDTODataAccessService.selectCustomersByIds(anyCollection())).thenAnswer(invocation -> {
+            batched.countDown();
+            Collection<Long> ids = invocation.getArgument(0);
+            return ids.stream().map(this::storedCustomer).flatMap(Optional::stream).toList();
+        });
+        int lookups = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(lookups + 1);
+        try {
+            Future<Optional<CustomerDTO>> first = executor.submit(() -> underTest.load(0L));
+            assertThat(inFlight.await(5, TimeUnit.SECONDS)).isTrue();
+            List<Future<Optional<CustomerDTO>>> futures = new ArrayList<>();
+            for (long id = 1; id <= lookups; id++) {
+                long customerId = id;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return underTest.load(customerId);
+                }));
+            }
+            start.countDown();
+            assertThat(batched.await(5, TimeUnit.SECONDS)).isTrue();
+            release.countDown();
+
+            assertThat(first.get()).isEmpty();
+            for (int i = 0; i < lookups; i++) {
+                Optional<CustomerDTO> customer = futures.get(i).get();
+                if (i < 5) {
+                    assertThat(customer).hasValueSatisfying(c -> assertThat(c.name()).isEqualTo("c" + c.id()));
+                } else {
+                    assertThat(customer).isEmpty();
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        //all eight normally land in one window; a slow thread may spill into a second one
+        verify(customerDTODataAccessService, atMost(2)).selectCustomersByIds(anyCollection());
+        verify(customerDTODataAccessService, atMost(2)).selectCustomerByID(any());
+    }
+
+    @Test
+    void loneLookupDoesNotWaitTheWindow() {
+        underTest.destroy();
+        underTest = new CustomerLookupBatcher(
+                customerDTODataAccessService, Duration.ofMinutes(1), 100, 2, Duration.ofSeconds(5), new SimpleMeterRegistry()
+        );
+        CustomerDTO customer = new CustomerDTO(1L, "alex", "alex@", Gender.MALE, 21, List.of("ROLE_USER"), "alex@", 0L, null);
+        when(customerDTODataAccessService.selectCustomerByID(1L)).thenReturn(Optional.of(customer));
+
+        Optional<CustomerDTO> actual = assertTimeoutPreemptively(Duration.ofSeconds(5), () -> underTest.load(1L));
+
+        assertThat(actual).contains(customer);
+    }
+
+    @Test
+    void lookupThatOutlivesTheTimeoutFailsWithServiceUnavailable() {
+        underTest.destroy();
+        underTest = new CustomerLookupBatcher(
+                customerDTODataAccessService, Duration.ofMillis(50), 100, 2, Duration.ofMillis(100), new SimpleMeterRegistry()
+        );
+        CountDownLatch release = new CountDownLatch(1);
+        when(customerDTODataAccessService.selectCustomerByID(1L)).thenAnswer(invocation -> {
+            release.await();
+            return Optional.empty();
+        });
+
+        try {
+            assertThatThrownBy(() -> underTest.load(1L))
+                    .isInstanceOf(ServiceOverloadedException.class);
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void lookupsAfterShutdownAreAnsweredByTheCaller() {
+        CustomerDTO customer = new CustomerDTO(1L, "alex", "alex@", Gender.MALE, 21, List.of("ROLE_USER"), "alex@", 0L, null);
+        when(customerDTODataAccessService.selectCustomerByID(1L)).thenReturn(Optional.of(customer));
+        underTest.destroy();
+
+        assertThat(underTest.load(1L)).contains(customer);
+        assertThat(underTest.load(1L)).contains(customer);
+    }
+
+    @Test
+    void loneLookupUsesThePrimaryKeyQuery() {
+        CustomerDTO customer = new CustomerDTO(1L, "alex", "alex@", Gender.MALE, 21, List.of("ROLE_USER"), "alex@", 0L, null);
+        when(customerDTODataAccessService.selectCustomerByID(1L)).thenReturn(Optional.of(customer));
+
+        assertThat(underTest.load(1L)).contains(customer);
+        verify(customerDTODataAccessService, never()).selectCustomersByIds(anyCollection());
+    }
+
+    @Test
+    void failedBatchFailsEveryWaitingLookup() {
+        when(customerDTODataAccessService.selectCustomerByID(1L)).thenThrow(new IllegalStateException("database down"));
+
+        assertThatThrownBy(() -> underTest.load(1L))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("database down");
+    }
+
+    private Optional<CustomerDTO> storedCustomer(Long id) {
+        if (id < 1 || id > 5) {
+            return Optional.empty();
+        }
+        return Optional.of(new CustomerDTO(id, "c" + id, id + "@", Gender.MALE, 20, List.of("ROLE_USER"), id + "@", 0L, null));
+    }
+}
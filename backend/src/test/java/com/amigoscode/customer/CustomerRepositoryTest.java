@@ -2,6 +2,7 @@ package com.amigoscode.customer;
 
 import com.amigoscode.AbstractTestcontainers;
 import com.amigoscode.TestConfig;
+import jakarta.persistence.Tuple;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -10,6 +11,7 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.Import;
 
+import java.util.List;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -85,4 +87,37 @@ class CustomerRepositoryTest extends AbstractTestcontainers {
 
         assertThat(actual).isFalse();
     }
-}
\ No newline at end of file
+
+    @Test
+    void findFieldsSelectsTheRequestedAttributesAfterTheCursor() {
+        String name = "tuple-" + UUID.randomUUID();
+        for (int i = 0; i < 3; i++) {
+            underTest.save(new Customer(
+                    name, FAKER.internet().safeEmailAddress() + "-" + UUID.randomUUID(), "password", 30 + i,
+                    Gender.MALE
+            ));
+        }
+        List<Customer> saved = underTest.findPage(new CustomerPageRequest(CustomerSort.AGE, true, null, 3));
+
+        CustomerCursor after = CustomerCursor.of(CustomerSort.AGE, true, saved.get(0));
+        List<Tuple> actual = underTest.findFields(
+                new CustomerPageRequest(CustomerSort.AGE, true, after, 2), List.of("id", "age")
+        );
+
+        assertThat(actual).extracting(tuple -> tuple.get("age")).containsExactly(31, 30);
+        assertThat(actual).extracting(tuple -> tuple.get("id"))
+                .containsExactly(saved.get(1).getId(), saved.get(2).getId());
+    }
+
+    @Test
+    void findFieldsByIdIn() {
+        Customer customer = underTest.save(new Customer(
+                "tuple", FAKER.internet().safeEmailAddress() + "-" + UUID.randomUUID(), "password", 20,
+                Gender.FEMALE
+        ));
+
+        List<Tuple> actual = underTest.findFieldsByIdIn(List.of(customer.getId()), List.of("gender"));
+
+        assertThat(actual).extracting(tuple -> tuple.get("gender")).containsExactly(Gender.FEMALE);
+    }
+}
@@ -5,6 +5,8 @@ import org.junit.jupiter.api.Test;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
@@ -22,11 +24,13 @@ class CustomerRowMapperTest {
         when(resultSet.getString("name")).thenReturn("Jamila");
         when(resultSet.getString("email")).thenReturn("J@gmail.com");
         when(resultSet.getString("gender")).thenReturn("MALE");
+        when(resultSet.getTimestamp("updated_at")).thenReturn(Timestamp.from(Instant.parse("2026-01-01T00:00:00Z")));
 
         Customer actual = customerRowMapper.mapRow(resultSet, 1);
 
         Customer expected = new Customer(1L, "Jamila", "J@gmail.com", "password", 15, Gender.MALE);
 
         assertThat(actual).isEqualTo(expected);
+        assertThat(actual.getUpdatedAt()).isEqualTo(Instant.parse("2026-01-01T00:00:00Z"));
     }
 }
\ No newline at end of file
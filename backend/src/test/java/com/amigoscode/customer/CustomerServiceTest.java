@@ -3,15 +3,27 @@ package com.amigoscode.customer;
 import com.amigoscode.exception.DuplicateResourceException;
 import com.amigoscode.exception.RequestValidationException;
 import com.amigoscode.exception.ResourceNotFoundException;
+import com.amigoscode.exception.VersionConflictException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
-
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.LongStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -24,17 +36,123 @@ class CustomerServiceTest {
     private PasswordEncoder passwordEncoder;
     @Mock
     private CustomerDAO customerDAO;
+    @Mock
+    private CustomerDTODataAccessService customerDTODataAccessService;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private CustomerSummaryService customerSummaryService;
     private final CustomerDTOMapper customerDTOMapper = new CustomerDTOMapper();
 
     @BeforeEach
     void setUp() {
-        underTest = new CustomerService(customerDAO, customerDTOMapper, passwordEncoder);
+        underTest = new CustomerService(
+                customerDAO,
+                customerDTODataAccessService,
+                customerDTOMapper,
+                passwordEncoder,
+                eventPublisher,
+                new CustomerEmailFilter(customerDAO, new SimpleMeterRegistry(), 2.0, 0.01),
+                customerSummaryService,
+                TransactionOperations.withoutTransaction(),
+                new CustomerLookupBatcher(customerDTODataAccessService, Duration.ZERO, 100, 1, Duration.ofSeconds(5), new SimpleMeterRegistry())
+        );
     }
 
     @Test
     void getAllCustomers() {
         underTest.getAllCustomers();
-        verify(customerDAO).selectAllCustomers();
+        verify(customerDTODataAccessService).selectAllCustomers();
+        verifyNoInteractions(customerDAO);
+    }
+
+    @Test
+    void canGetFirstPageOfCustomersWithNextCursor() {
+        Customer alex = new Customer(1L, "alex", "alex@", "password", 21, Gender.MALE);
+        Customer maria = new Customer(2L, "maria", "mar@", "password", 11, Gender.FEMALE);
+        Customer nikos = new Customer(3L, "nikos", "nik@", "password", 30, Gender.MALE);
+        when(customerDTODataAccessService.selectCustomers(any())).thenReturn(List.of(
+                customerDTOMapper.apply(alex), customerDTOMapper.apply(maria), customerDTOMapper.apply(nikos)
+        ));
+
+        CustomerPage<CustomerDTO> actual = underTest.getCustomers("name", null, 2);
+
+        ArgumentCaptor<CustomerPageRequest> argumentCaptor = ArgumentCaptor.forClass(
+                CustomerPageRequest.class
+        );
+        verify(customerDTODataAccessService).selectCustomers(argumentCaptor.capture());
+        CustomerPageRequest pageRequest = argumentCaptor.getValue();
+        assertThat(pageRequest.sort()).isEqualTo(CustomerSort.NAME);
+        assertThat(pageRequest.after()).isNull();
+        assertThat(pageRequest.limit()).isEqualTo(3);
+
+        assertThat(actual.customers()).containsExactly(
+                customerDTOMapper.apply(alex), customerDTOMapper.apply(maria)
+        );
+        CustomerCursor nextCursor = CustomerCursor.decode(actual.nextCursor());
+        assertThat(nextCursor.sort()).isEqualTo(CustomerSort.NAME);
+        assertThat(nextCursor.key()).isEqualTo("maria");
+        assertThat(nextCursor.id()).isEqualTo(2L);
+    }
+
+    @Test
+    void lastPageOfCustomersHasNoNextCursor() {
+        Customer alex = new Customer(1L, "alex", "alex@", "password", 21, Gender.MALE);
+        String after = CustomerCursor.of(CustomerSort.AGE, true, alex).encode();
+        when(customerDTODataAccessService.selectCustomers(any())).thenReturn(List.of(customerDTOMapper.apply(alex)));
+
+        CustomerPage<CustomerDTO> actual = underTest.getCustomers("-age", after, 2);
+
+        ArgumentCaptor<CustomerPageRequest> argumentCaptor = ArgumentCaptor.forClass(
+                CustomerPageRequest.class
+        );
+        verify(customerDTODataAccessService).selectCustomers(argumentCaptor.capture());
+        CustomerPageRequest pageRequest = argumentCaptor.getValue();
+        assertThat(pageRequest.descending()).isTrue();
+        assertThat(pageRequest.after().key()).isEqualTo(21);
+        assertThat(pageRequest.seekClause()).isEqualTo("WHERE (age, id) < (?, ?)");
+
+        assertThat(actual.customers()).hasSize(1);
+        assertThat(actual.nextCursor()).isNull();
+    }
+
+    @Test
+    void emailPagesSeekOnEmailAlone() {
+        Customer alex = new Customer(1L, "alex", "alex@", "password", 21, Gender.MALE);
+        String after = CustomerCursor.of(CustomerSort.EMAIL, false, alex).encode();
+        when(customerDTODataAccessService.selectCustomers(any())).thenReturn(List.of());
+
+        underTest.getCustomers("email", after, 2);
+
+        ArgumentCaptor<CustomerPageRequest> argumentCaptor = ArgumentCaptor.forClass(
+                CustomerPageRequest.class
+        );
+        verify(customerDTODataAccessService).selectCustomers(argumentCaptor.capture());
+        CustomerPageRequest pageRequest = argumentCaptor.getValue();
+        assertThat(pageRequest.seekClause()).isEqualTo("WHERE email > ?");
+        assertThat(pageRequest.orderByClause()).isEqualTo("email ASC");
+        assertThat(pageRequest.parameters()).containsExactly("alex@", 3);
+    }
+
+    @Test
+    void willThrowWhenCursorDoesNotMatchSort() {
+        Customer alex = new Customer(1L, "alex", "alex@", "password", 21, Gender.MALE);
+        String after = CustomerCursor.of(CustomerSort.AGE, false, alex).encode();
+
+        assertThatThrownBy(() -> underTest.getCustomers("name", after, 2))
+                .isInstanceOf(RequestValidationException.class)
+                .hasMessage("cursor does not match sort [name]");
+
+        verify(customerDTODataAccessService, never()).selectCustomers(any());
+    }
+
+    @Test
+    void willThrowWhenPageLimitIsOutOfRange() {
+        assertThatThrownBy(() -> underTest.getCustomers(null, null, 0))
+                .isInstanceOf(RequestValidationException.class)
+                .hasMessage("limit must be between 1 and %s".formatted(CustomerService.MAX_PAGE_SIZE));
+
+        verify(customerDTODataAccessService, never()).selectCustomers(any());
     }
 
     @Test
@@ -43,9 +161,8 @@ class CustomerServiceTest {
         Customer customer = new Customer(
                 id, "maria", "mar@", "password", 11, Gender.MALE
         );
-        when(customerDAO.selectCustomerByID(id)).thenReturn(Optional.of(customer));
-
         CustomerDTO expected = customerDTOMapper.apply(customer);
+        when(customerDTODataAccessService.selectCustomerByID(id)).thenReturn(Optional.of(expected));
 
         CustomerDTO actual = underTest.getCustomer(id);
 
@@ -56,19 +173,124 @@ class CustomerServiceTest {
     void willTrowWhenGetCustomerReturnEmptyOptional() {
         long id = 0L;
 
-        when(customerDAO.selectCustomerByID(id)).thenReturn(Optional.empty());
+        when(customerDTODataAccessService.selectCustomerByID(id)).thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> underTest.getCustomer(id))
                 .isInstanceOf(ResourceNotFoundException.class)
                 .hasMessage("customer with id [%s] not found".formatted(id));
     }
 
+    @Test
+    void canGetCustomersByIdsInRequestedOrder() {
+        Customer maria = new Customer(1L, "maria", "mar@", "password", 11, Gender.FEMALE);
+        Customer alex = new Customer(2L, "alex", "alex@", "password", 21, Gender.MALE);
+        when(customerDTODataAccessService.selectCustomersByIds(Set.of(1L, 2L, 3L))).thenReturn(List.of(
+                customerDTOMapper.apply(maria), customerDTOMapper.apply(alex)
+        ));
+
+        List<CustomerDTO> actual = underTest.getCustomers(List.of(2L, 3L, 1L, 2L));
+
+        assertThat(actual).containsExactly(customerDTOMapper.apply(alex), customerDTOMapper.apply(maria));
+    }
+
+    @Test
+    void willThrowWhenTooManyIdsAreRequested() {
+        List<Long> ids = LongStream.rangeClosed(1, CustomerService.MAX_PAGE_SIZE + 1).boxed().toList();
+
+        assertThatThrownBy(() -> underTest.getCustomers(ids))
+                .isInstanceOf(RequestValidationException.class)
+                .hasMessage("ids must name between 1 and %s customers".formatted(CustomerService.MAX_PAGE_SIZE));
+        verifyNoInteractions(customerDTODataAccessService);
+    }
+
+    @Test
+    void sparsePageAlsoReadsTheCursorColumnsButDoesNotReturnThem() {
+        when(customerDAO.selectCustomerFields(any(), any())).thenReturn(new ArrayList<>(List.of(
+                new LinkedHashMap<>(Map.of("id", 1L, "name", "alex", "age", 21)),
+                new LinkedHashMap<>(Map.of("id", 2L, "name", "maria", "age", 30)),
+                new LinkedHashMap<>(Map.of("id", 3L, "name", "nikos", "age", 40))
+        )));
+
+        CustomerPage<Map<String, Object>> actual = underTest.getCustomers(
+                "age", null, 2, CustomerFields.parse("name")
+        );
+
+        ArgumentCaptor<CustomerFields> fieldsCaptor = ArgumentCaptor.forClass(CustomerFields.class);
+        verify(customerDAO).selectCustomerFields(any(), fieldsCaptor.capture());
+        assertThat(fieldsCaptor.getValue().fields())
+                .containsExactly(CustomerField.ID, CustomerField.NAME, CustomerField.AGE);
+        verifyNoInteractions(customerDTODataAccessService);
+
+        assertThat(actual.customers()).containsExactly(Map.of("name", "alex"), Map.of("name", "maria"));
+        CustomerCursor nextCursor = CustomerCursor.decode(actual.nextCursor());
+        assertThat(nextCursor.sort()).isEqualTo(CustomerSort.AGE);
+        assertThat(nextCursor.key()).isEqualTo(30);
+        assertThat(nextCursor.id()).isEqualTo(2L);
+    }
+
+    @Test
+    void sparseListWithoutPagingReadsEveryCustomer() {
+        CustomerFields fields = CustomerFields.parse("name");
+        List<Map<String, Object>> customers = List.of(Map.of("name", "alex"), Map.of("name", "maria"));
+        when(customerDAO.selectCustomerFields(
+                new CustomerPageRequest(CustomerSort.ID, false, null, Integer.MAX_VALUE), fields
+        )).thenReturn(customers);
+
+        List<Map<String, Object>> actual = underTest.getAllCustomers(fields);
+
+        assertThat(actual).isEqualTo(customers);
+        verifyNoInteractions(customerDTODataAccessService);
+    }
+
+    @Test
+    void canGetSparseCustomersByIdsInRequestedOrder() {
+        when(customerDAO.selectCustomerFieldsByIds(Set.of(1L, 2L), CustomerFields.parse("id,name"))).thenReturn(List.of(
+                new LinkedHashMap<>(Map.of("id", 1L, "name", "maria")),
+                new LinkedHashMap<>(Map.of("id", 2L, "name", "alex"))
+        ));
+
+        List<Map<String, Object>> actual = underTest.getCustomers(List.of(2L, 1L), CustomerFields.parse("name"));
+
+        assertThat(actual).containsExactly(Map.of("name", "alex"), Map.of("name", "maria"));
+    }
+
+    @Test
+    void willThrowWhenSparseCustomerIsMissing() {
+        long id = 1L;
+        CustomerFields fields = CustomerFields.parse("name");
+        when(customerDAO.selectCustomerFieldsByIds(List.of(id), fields)).thenReturn(List.of());
+
+        assertThatThrownBy(() -> underTest.getCustomer(id, fields))
+                .isInstanceOf(ResourceNotFoundException.class)
+                .hasMessage("customer with id [%s] not found".formatted(id));
+    }
+
+    @Test
+    void canGetCustomerVersionWithoutLoadingTheCustomer() {
+        long id = 1L;
+        CustomerVersion version = new CustomerVersion(3L, Instant.parse("2026-01-01T00:00:00Z"));
+        when(customerDAO.selectCustomerVersion(id)).thenReturn(Optional.of(version));
+
+        CustomerVersion actual = underTest.getCustomerVersion(id);
+
+        assertThat(actual).isEqualTo(version);
+        verify(customerDAO, never()).selectCustomerByID(any());
+    }
+
+    @Test
+    void willThrowWhenGetCustomerVersionReturnsEmptyOptional() {
+        long id = 0L;
+        when(customerDAO.selectCustomerVersion(id)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> underTest.getCustomerVersion(id))
+                .isInstanceOf(ResourceNotFoundException.class)
+                .hasMessage("customer with id [%s] not found".formatted(id));
+    }
+
     @Test
     void addCustomer() {
         String email = "p@gmail.com";
 
-        when(customerDAO.existsPersonWithEmail(email)).thenReturn(false);
-
         CustomerRegistrationRequest request = new CustomerRegistrationRequest(
                 "petros", email, "password", 12, Gender.MALE
         );
@@ -89,13 +311,15 @@ class CustomerServiceTest {
         assertThat(capturedCustomer.getEmail()).isEqualTo(request.email());
         assertThat(capturedCustomer.getAge()).isEqualTo(request.age());
         assertThat(capturedCustomer.getPassword()).isEqualTo(passwordHash);
+        verify(customerSummaryService).recordCreated(capturedCustomer);
     }
 
     @Test
     void willThrowWhenEmailExistsWhileAddingACustomer() {
         String email = "p@gmail.com";
 
-        when(customerDAO.existsPersonWithEmail(email)).thenReturn(true);
+        doThrow(new DuplicateResourceException("email already taken"))
+                .when(customerDAO).insertCustomer(any());
 
         CustomerRegistrationRequest request = new CustomerRegistrationRequest(
                 "petros", email, "password", 12, Gender.MALE
@@ -105,37 +329,43 @@ class CustomerServiceTest {
                 .isInstanceOf(DuplicateResourceException.class)
                 .hasMessage("email already taken");
 
-        verify(customerDAO, never()).insertCustomer(any());
+        verify(customerDAO, never()).existsPersonWithEmail(any());
+        verify(eventPublisher, never()).publishEvent(any());
     }
 
     @Test
     void deleteCustomerById() {
         long id = 0L;
+        Customer customer = new Customer(
+                id, "maria", "mar@", "password", 11, Gender.MALE
+        );
 
-        when(customerDAO.existsPersonWithId(id)).thenReturn(true);
+        when(customerDAO.deleteCustomerById(id)).thenReturn(Optional.of(customer));
         underTest.deleteCustomerById(id);
 
-        verify(customerDAO).deleteCustomerById(id);
+        verify(customerDAO, never()).selectCustomerByID(any());
+        verify(eventPublisher).publishEvent(CustomerChangedEvent.deleted(customer));
+        verify(customerSummaryService).recordDeleted(customer);
     }
 
     @Test
     void willThrowWhenIdNotExistsWhileDeletingCustomer() {
         long id = 0L;
 
-        when(customerDAO.existsPersonWithId(id)).thenReturn(false);
+        //also what the loser of two concurrent deletes sees
+        when(customerDAO.deleteCustomerById(id)).thenReturn(Optional.empty());
         assertThatThrownBy(() -> underTest.deleteCustomerById(id))
                 .isInstanceOf(ResourceNotFoundException.class)
                 .hasMessage("Customer with id [%s] not found".formatted(id));
 
-        verify(customerDAO, never()).deleteCustomerById(any());
+        verifyNoInteractions(customerSummaryService);
+        verify(eventPublisher, never()).publishEvent(any());
     }
 
     @Test
     void canUpdateAllCustomersProperties() {
         long id = 0L;
-        Customer customer = new Customer(
-                id, "maria", "mar@", "password", 11, Gender.MALE
-        );
+        Customer customer = customer(id);
         when(customerDAO.selectCustomerByID(id)).thenReturn(Optional.of(customer));
 
         String newEmail = "p@gmail.com";
@@ -143,51 +373,50 @@ class CustomerServiceTest {
                 "petros", newEmail, 32
         );
         when(customerDAO.existsPersonWithEmail(newEmail)).thenReturn(false);
+        Customer updated = new Customer(id, "petros", newEmail, "password", 32, Gender.MALE);
+        when(customerDAO.patchCustomer(any())).thenReturn(Optional.of(new CustomerRevision(customer, updated)));
 
         underTest.updateCustomer(request, id);
-        ArgumentCaptor<Customer> argumentCaptor = ArgumentCaptor.forClass(
-                Customer.class
-        );
-        verify(customerDAO).updateCustomerById(argumentCaptor.capture());
-        Customer capturedCustomer = argumentCaptor.getValue();
 
-        assertThat(capturedCustomer.getId()).isEqualTo(id);
-        assertThat(capturedCustomer.getName()).isEqualTo(request.name());
-        assertThat(capturedCustomer.getAge()).isEqualTo(request.age());
-        assertThat(capturedCustomer.getEmail()).isEqualTo(request.email());
+        CustomerPatch patch = capturedPatch();
+        assertThat(patch.id()).isEqualTo(id);
+        assertThat(patch.expectedVersion()).isEqualTo(customer.getVersion());
+        assertThat(patch.changes()).isEqualTo(request);
+        verify(customerSummaryService).recordUpdated(customer, updated);
+
+        ArgumentCaptor<CustomerChangedEvent> eventCaptor = ArgumentCaptor.forClass(
+                CustomerChangedEvent.class
+        );
+        verify(eventPublisher).publishEvent(eventCaptor.capture());
+        CustomerChangedEvent event = eventCaptor.getValue();
+        assertThat(event.type()).isEqualTo(CustomerChangedEvent.Type.UPDATED);
+        assertThat(event.previous().getEmail()).isEqualTo("mar@");
+        assertThat(event.current().getEmail()).isEqualTo(newEmail);
+        assertThat(event.emailChanged()).isTrue();
     }
 
     @Test
     void canUpdateCustomersNameProperty() {
         long id = 0L;
-        Customer customer = new Customer(
-                id, "maria", "mar@", "password", 11, Gender.MALE
-        );
+        Customer customer = customer(id);
         when(customerDAO.selectCustomerByID(id)).thenReturn(Optional.of(customer));
+        when(customerDAO.patchCustomer(any())).thenReturn(Optional.of(new CustomerRevision(customer, customer)));
 
         CustomerUpdateRequest request = new CustomerUpdateRequest(
-                "petros", null, null
+                "petros", "mar@", null
         );
 
         underTest.updateCustomer(request, id);
-        ArgumentCaptor<Customer> argumentCaptor = ArgumentCaptor.forClass(
-                Customer.class
-        );
-        verify(customerDAO).updateCustomerById(argumentCaptor.capture());
-        Customer capturedCustomer = argumentCaptor.getValue();
 
-        assertThat(capturedCustomer.getName()).isEqualTo(request.name());
-        assertThat(capturedCustomer.getAge()).isEqualTo(customer.getAge());
-        assertThat(capturedCustomer.getEmail()).isEqualTo(customer.getEmail());
+        assertThat(capturedPatch().changes()).isEqualTo(new CustomerUpdateRequest("petros", null, null));
     }
 
     @Test
     void canUpdateCustomersEmailProperty() {
         long id = 0L;
-        Customer customer = new Customer(
-                id, "maria", "mar@", "password", 11, Gender.MALE
-        );
+        Customer customer = customer(id);
         when(customerDAO.selectCustomerByID(id)).thenReturn(Optional.of(customer));
+        when(customerDAO.patchCustomer(any())).thenReturn(Optional.of(new CustomerRevision(customer, customer)));
 
         String newEmail = "p@gmail.com";
         CustomerUpdateRequest request = new CustomerUpdateRequest(
@@ -196,23 +425,14 @@ class CustomerServiceTest {
         when(customerDAO.existsPersonWithEmail(newEmail)).thenReturn(false);
 
         underTest.updateCustomer(request, id);
-        ArgumentCaptor<Customer> argumentCaptor = ArgumentCaptor.forClass(
-                Customer.class
-        );
-        verify(customerDAO).updateCustomerById(argumentCaptor.capture());
-        Customer capturedCustomer = argumentCaptor.getValue();
 
-        assertThat(capturedCustomer.getName()).isEqualTo(customer.getName());
-        assertThat(capturedCustomer.getAge()).isEqualTo(customer.getAge());
-        assertThat(capturedCustomer.getEmail()).isEqualTo(newEmail);
+        assertThat(capturedPatch().changes()).isEqualTo(new CustomerUpdateRequest(null, newEmail, null));
     }
 
     @Test
     void willThrowWhenEmailExistsWhileUpdatingCustomer() {
         long id = 0L;
-        Customer customer = new Customer(
-                id, "maria", "mar@", "password", 11, Gender.MALE
-        );
+        Customer customer = customer(id);
         when(customerDAO.selectCustomerByID(id)).thenReturn(Optional.of(customer));
 
         String newEmail = "p@gmail.com";
@@ -225,39 +445,44 @@ class CustomerServiceTest {
                 .isInstanceOf(DuplicateResourceException.class)
                 .hasMessage("email already taken");
 
-        verify(customerDAO, never()).updateCustomerById(any());
+        verify(customerDAO, never()).patchCustomer(any());
     }
 
     @Test
     void canUpdateCustomersAgeProperty() {
         long id = 0L;
-        Customer customer = new Customer(
-                id, "maria", "mar@", "password", 11, Gender.MALE
-        );
+        Customer customer = customer(id);
         when(customerDAO.selectCustomerByID(id)).thenReturn(Optional.of(customer));
+        when(customerDAO.patchCustomer(any())).thenReturn(Optional.of(new CustomerRevision(customer, customer)));
 
         CustomerUpdateRequest request = new CustomerUpdateRequest(
                 null, null, 21
         );
 
         underTest.updateCustomer(request, id);
-        ArgumentCaptor<Customer> argumentCaptor = ArgumentCaptor.forClass(
-                Customer.class
-        );
-        verify(customerDAO).updateCustomerById(argumentCaptor.capture());
-        Customer capturedCustomer = argumentCaptor.getValue();
 
-        assertThat(capturedCustomer.getName()).isEqualTo(customer.getName());
-        assertThat(capturedCustomer.getAge()).isEqualTo(request.age());
-        assertThat(capturedCustomer.getEmail()).isEqualTo(customer.getEmail());
+        assertThat(capturedPatch().changes()).isEqualTo(new CustomerUpdateRequest(null, null, 21));
+    }
+
+    @Test
+    void updateOfACustomerDeletedMeanwhileMovesNoCounts() {
+        long id = 0L;
+        Customer customer = customer(id);
+        when(customerDAO.selectCustomerByID(id)).thenReturn(Optional.of(customer));
+        when(customerDAO.patchCustomer(any())).thenReturn(Optional.empty());
+        when(customerDAO.existsPersonWithId(id)).thenReturn(false);
+
+        assertThatThrownBy(() -> underTest.updateCustomer(new CustomerUpdateRequest(null, null, 21), id))
+                .isInstanceOf(ResourceNotFoundException.class);
+
+        verifyNoInteractions(customerSummaryService);
+        verify(eventPublisher, never()).publishEvent(any());
     }
 
     @Test
     void willTrowWhenCustomerUpdateHasNoChanges() {
         long id = 0L;
-        Customer customer = new Customer(
-                id, "maria", "mar@", "password", 11, Gender.MALE
-        );
+        Customer customer = customer(id);
         when(customerDAO.selectCustomerByID(id)).thenReturn(Optional.of(customer));
 
         CustomerUpdateRequest request = new CustomerUpdateRequest(
@@ -268,6 +493,82 @@ class CustomerServiceTest {
                 .isInstanceOf(RequestValidationException.class)
                 .hasMessage("no data changes found");
 
-        verify(customerDAO, never()).updateCustomerById(any());
+        verify(customerDAO, never()).patchCustomer(any());
+    }
+
+    private static Customer customer(long id) {
+        Customer customer = new Customer(
+                id, "maria", "mar@", "password", 11, Gender.MALE
+        );
+        customer.setVersion(4L);
+        return customer;
+    }
+
+    private CustomerPatch capturedPatch() {
+        ArgumentCaptor<CustomerPatch> patchCaptor = ArgumentCaptor.forClass(CustomerPatch.class);
+        verify(customerDAO).patchCustomer(patchCaptor.capture());
+        return patchCaptor.getValue();
+    }
+
+    @Test
+    void patchCustomerPublishesBothRevisions() {
+        long id = 10;
+        Customer previous = new Customer(id, "alex", "alex@", "password", 19, Gender.MALE);
+        previous.setVersion(3L);
+        Customer current = new Customer(id, "alex", "alexandro@", "password", 19, Gender.MALE);
+        current.setVersion(4L);
+        CustomerUpdateRequest request = new CustomerUpdateRequest(null, "alexandro@", null);
+        when(customerDAO.patchCustomer(new CustomerPatch(id, 3L, request)))
+                .thenReturn(Optional.of(new CustomerRevision(previous, current)));
+
+        CustomerDTO actual = underTest.patchCustomer(id, 3L, request);
+
+        assertThat(actual.email()).isEqualTo("alexandro@");
+        assertThat(actual.version()).isEqualTo(4L);
+        verify(eventPublisher).publishEvent(CustomerChangedEvent.updated(previous, current));
+        verify(customerDAO, never()).selectCustomerByID(any());
+    }
+
+    @Test
+    void patchCustomerWithStaleVersionIsAConflict() {
+        long id = 10;
+        CustomerUpdateRequest request = new CustomerUpdateRequest("alex", null, null);
+        when(customerDAO.patchCustomer(any())).thenReturn(Optional.empty());
+        when(customerDAO.existsPersonWithId(id)).thenReturn(true);
+
+        assertThatThrownBy(() -> underTest.patchCustomer(id, 2L, request))
+                .isInstanceOf(VersionConflictException.class)
+                .hasMessage("customer with id [10] is no longer at version [2]");
+
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void patchCustomerThrowsWhenMissing() {
+        long id = 10;
+        CustomerUpdateRequest request = new CustomerUpdateRequest("alex", null, null);
+        when(customerDAO.patchCustomer(any())).thenReturn(Optional.empty());
+        when(customerDAO.existsPersonWithId(id)).thenReturn(false);
+
+        assertThatThrownBy(() -> underTest.patchCustomer(id, 2L, request))
+                .isInstanceOf(ResourceNotFoundException.class)
+                .hasMessage("customer with id [10] not found");
+    }
+
+    @Test
+    void patchCustomerRequiresAChange() {
+        assertThatThrownBy(() -> underTest.patchCustomer(10L, 2L, new CustomerUpdateRequest(null, null, null)))
+                .isInstanceOf(RequestValidationException.class)
+                .hasMessage("no data changes found");
+
+        verify(customerDAO, never()).patchCustomer(any());
+    }
+
+    @Test
+    void patchStatementOnlySetsSuppliedColumns() {
+        CustomerPatch patch = new CustomerPatch(10L, 2L, new CustomerUpdateRequest(null, "alex@", 30));
+
+        assertThat(patch.sql()).contains("SET email = ?, age = ?, version = c.version + 1");
+        assertThat(patch.parameters()).containsExactly("alex@", 30, 10L, 2L);
     }
-}
\ No newline at end of file
+}
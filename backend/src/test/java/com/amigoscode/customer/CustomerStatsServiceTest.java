@@ -0,0 +1,109 @@
+package com.amigoscode.customer;
+
+import com.amigoscode.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+@ExtendWith(MockitoExtension.class)
+class CustomerStatsServiceTest {
+    private CustomerStatsService underTest;
+    @Mock
+    private CustomerDAO customerDAO;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new CustomerStatsService(customerDAO, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void statsAreUnavailableUntilLoaded() {
+        assertThatThrownBy(() -> underTest.getStats(10))
+                .isInstanceOf(ServiceOverloadedException.class);
+    }
+
+    @Test
+    void rebuildAggregatesAgesAndGenders() {
+        givenCustomers(List.of(
+                new Customer(3L, "c", "c@", "password", 35, Gender.MALE),
+                new Customer(1L, "a", "a@", "password", 20, Gender.FEMALE),
+                new Customer(2L, "b", "b@", "password", 25, Gender.MALE),
+                new Customer(4L, "d", "d@", "password", 41, Gender.FEMALE)
+        ));
+
+        underTest.rebuild();
+        CustomerStats actual = underTest.getStats(10);
+
+        assertThat(actual.customers()).isEqualTo(4);
+        assertThat(actual.averageAge()).isEqualTo(30.25);
+        assertThat(actual.genders()).isEqualTo(Map.of(Gender.MALE, 2L, Gender.FEMALE, 2L));
+        assertThat(actual.agePercentiles()).containsEntry("p50", 25).containsEntry("p99", 41);
+        assertThat(actual.ageHistogram()).containsExactly(
+                new CustomerStats.AgeBucket(20, 29, 2),
+                new CustomerStats.AgeBucket(30, 39, 1),
+                new CustomerStats.AgeBucket(40, 49, 1)
+        );
+    }
+
+    @Test
+    void changeEventsAreAppliedIncrementally() {
+        Customer alex = new Customer(1L, "alex", "alex@", "password", 20, Gender.MALE);
+        givenCustomers(List.of(alex));
+        underTest.rebuild();
+
+        Customer maria = new Customer(2L, "maria", "maria@", "password", 30, Gender.FEMALE);
+        underTest.onCustomerChanged(CustomerChangedEvent.created(maria));
+        Customer olderAlex = new Customer(1L, "alex", "alex@", "password", 60, Gender.MALE);
+        underTest.onCustomerChanged(CustomerChangedEvent.updated(alex, olderAlex));
+        underTest.onCustomerChanged(CustomerChangedEvent.deleted(maria));
+
+        CustomerStats actual = underTest.getStats(10);
+        assertThat(actual.customers()).isEqualTo(1);
+        assertThat(actual.averageAge()).isEqualTo(60);
+        assertThat(actual.genders()).containsEntry(Gender.FEMALE, 0L);
+    }
+
+    @Test
+    void largeSnapshotsAreScannedInParallel() {
+        int customers = 200_000;
+        doAnswer(invocation -> {
+            Consumer<Customer> action = invocation.getArgument(0);
+            for (long id = customers; id > 0; id--) {
+                action.accept(new Customer(id, "c", "c@", "password", (int) (id % 100),
+                        id % 2 == 0 ? Gender.MALE : Gender.FEMALE));
+            }
+            return null;
+        }).when(customerDAO).forEachCustomer(any());
+
+        underTest.rebuild();
+        CustomerStats actual = underTest.getStats(50);
+
+        assertThat(actual.customers()).isEqualTo(customers);
+        assertThat(actual.genders()).containsEntry(Gender.MALE, customers / 2L);
+        assertThat(actual.ageHistogram()).containsExactly(
+                new CustomerStats.AgeBucket(0, 49, customers / 2),
+                new CustomerStats.AgeBucket(50, 99, customers / 2)
+        );
+        assertThat(actual.agePercentiles()).containsEntry("p50", 49);
+    }
+
+    private void givenCustomers(List<Customer> customers) {
+        doAnswer(invocation -> {
+            Consumer<Customer> action = invocation.getArgument(0);
+            customers.forEach(action);
+            return null;
+        }).when(customerDAO).forEachCustomer(any());
+    }
+}
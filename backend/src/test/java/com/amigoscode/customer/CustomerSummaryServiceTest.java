@@ -0,0 +1,103 @@
+package com.amigoscode.customer;
+
+import com.amigoscode.customer.CustomerSummaryDataAccessService.CustomerSummaryRow;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CustomerSummaryServiceTest {
+    private CustomerSummaryService underTest;
+    @Mock
+    private CustomerSummaryDataAccessService summaryDAO;
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    void setUp() {
+        underTest = new CustomerSummaryService(summaryDAO, TransactionOperations.withoutTransaction(), meterRegistry);
+    }
+
+    @Test
+    void getSummaryFoldsCellsIntoTotals() {
+        when(summaryDAO.selectSummary()).thenReturn(List.of(
+                new CustomerSummaryRow(Gender.FEMALE, 20, 3),
+                new CustomerSummaryRow(Gender.MALE, 20, 2),
+                new CustomerSummaryRow(Gender.MALE, 40, 1)
+        ));
+
+        CustomerSummary actual = underTest.getSummary();
+
+        assertThat(actual.customers()).isEqualTo(6);
+        assertThat(actual.genders()).containsEntry(Gender.FEMALE, 3L).containsEntry(Gender.MALE, 3L);
+        assertThat(actual.ageBuckets()).containsExactly(
+                new CustomerStats.AgeBucket(20, 29, 5),
+                new CustomerStats.AgeBucket(40, 49, 1)
+        );
+    }
+
+    @Test
+    void updatesOnlyMoveCountsWhenTheCellChanges() {
+        Customer previous = new Customer(1L, "alex", "alex@", "password", 21, Gender.MALE);
+
+        underTest.recordUpdated(previous, new Customer(1L, "alex", "alex@", "password", 29, Gender.MALE));
+        verifyNoInteractions(summaryDAO);
+
+        underTest.recordUpdated(previous, new Customer(1L, "alex", "alex@", "password", 30, Gender.MALE));
+        verify(summaryDAO).adjust(Gender.MALE, 21, -1);
+        verify(summaryDAO).adjust(Gender.MALE, 30, 1);
+    }
+
+    @Test
+    void batchesAreRecordedPerCell() {
+        underTest.recordCreated(List.of(
+                new Customer(1L, "a", "a@", "password", 21, Gender.MALE),
+                new Customer(2L, "b", "b@", "password", 25, Gender.MALE),
+                new Customer(3L, "c", "c@", "password", 25, Gender.FEMALE)
+        ));
+
+        verify(summaryDAO).adjust(Gender.MALE, 20, 2);
+        verify(summaryDAO).adjust(Gender.FEMALE, 20, 1);
+        verifyNoMoreInteractions(summaryDAO);
+    }
+
+    @Test
+    void reconcileAppliesDriftAsDeltas() {
+        when(summaryDAO.selectDrift()).thenReturn(List.of(
+                new CustomerSummaryRow(Gender.MALE, 20, -1),
+                new CustomerSummaryRow(Gender.FEMALE, 30, 1)
+        ));
+        when(summaryDAO.selectSummary()).thenReturn(
+                List.of(new CustomerSummaryRow(Gender.MALE, 20, 4), new CustomerSummaryRow(Gender.FEMALE, 30, 1))
+        );
+
+        CustomerSummary actual = underTest.reconcile();
+
+        InOrder inOrder = inOrder(summaryDAO);
+        inOrder.verify(summaryDAO).selectDrift();
+        inOrder.verify(summaryDAO).adjust(Gender.MALE, 20, -1);
+        inOrder.verify(summaryDAO).adjust(Gender.FEMALE, 30, 1);
+        inOrder.verify(summaryDAO).selectSummary();
+        assertThat(actual.customers()).isEqualTo(5);
+        assertThat(meterRegistry.get("customer.summary.reconciliation.drift").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void reconcileWithoutDriftWritesNothing() {
+        when(summaryDAO.selectDrift()).thenReturn(List.of());
+
+        underTest.reconcile();
+
+        verify(summaryDAO, never()).adjust(any(), anyInt(), anyLong());
+        assertThat(meterRegistry.get("customer.summary.reconciliation.drift").counter().count()).isZero();
+    }
+}
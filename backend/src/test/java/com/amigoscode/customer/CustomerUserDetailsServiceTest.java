@@ -0,0 +1,72 @@
+package com.amigoscode.customer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CustomerUserDetailsServiceTest {
+    private CustomerUserDetailsService underTest;
+    @Mock
+    private CustomerDAO customerDAO;
+
+    private final Customer alex = new Customer(1L, "Alex", "alex@gmail.com", "password", 21, Gender.MALE);
+
+    @BeforeEach
+    void setUp() {
+        underTest = new CustomerUserDetailsService(
+                customerDAO, new SimpleMeterRegistry(), 100, Duration.ofMinutes(5)
+        );
+    }
+
+    @Test
+    void principalIsLoadedOnceAndHasNoPassword() {
+        when(customerDAO.selectUserByEmail(alex.getEmail())).thenReturn(Optional.of(alex));
+
+        CustomerPrincipal first = underTest.loadPrincipalByUsername(alex.getEmail());
+        CustomerPrincipal second = underTest.loadPrincipalByUsername(alex.getEmail());
+
+        assertThat(second).isSameAs(first);
+        assertThat(first.getPassword()).isNull();
+        assertThat(first.getUsername()).isEqualTo(alex.getEmail());
+        assertThat(first.getAuthorities()).extracting("authority").containsExactly("ROLE_USER");
+        verify(customerDAO, times(1)).selectUserByEmail(alex.getEmail());
+        assertThat(underTest.principalCacheStats().hitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void loginPathAlwaysReadsTheDatabase() {
+        when(customerDAO.selectUserByEmail(alex.getEmail())).thenReturn(Optional.of(alex));
+
+        underTest.loadPrincipalByUsername(alex.getEmail());
+        var actual = underTest.loadUserByUsername(alex.getEmail());
+
+        assertThat(actual.getPassword()).isEqualTo("password");
+        verify(customerDAO, times(2)).selectUserByEmail(alex.getEmail());
+    }
+
+    @Test
+    void customerChangesEvictThePrincipal() {
+        Customer moved = new Customer(1L, "Alex", "alex@yahoo.com", "password", 21, Gender.MALE);
+        when(customerDAO.selectUserByEmail(alex.getEmail()))
+                .thenReturn(Optional.of(alex))
+                .thenReturn(Optional.empty());
+
+        underTest.loadPrincipalByUsername(alex.getEmail());
+        underTest.onCustomerChanged(CustomerChangedEvent.updated(alex, moved));
+
+        assertThatThrownBy(() -> underTest.loadPrincipalByUsername(alex.getEmail()))
+                .isInstanceOf(UsernameNotFoundException.class);
+    }
+}
@@ -0,0 +1,108 @@
+package com.amigoscode.customer;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InstrumentedCustomerDAOTest {
+    private InstrumentedCustomerDAO underTest;
+    private MeterRegistry meterRegistry;
+    @Mock
+    private CustomerDAO customerDAO;
+    private final Customer alex = new Customer(1L, "alex", "alex@", "password", 21, Gender.MALE);
+    private final Customer jamila = new Customer(2L, "jamila", "jamila@", "password", 19, Gender.FEMALE);
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        underTest = new InstrumentedCustomerDAO(customerDAO, "jdbc", meterRegistry);
+    }
+
+    @Test
+    void recordsLatencyAndRowsPerMethod() {
+        when(customerDAO.selectAllCustomers()).thenReturn(List.of(alex, jamila));
+        when(customerDAO.selectCustomerByID(3L)).thenReturn(Optional.empty());
+
+        assertThat(underTest.selectAllCustomers()).containsExactly(alex, jamila);
+        underTest.selectCustomerByID(3L);
+
+        assertThat(timer("selectAllCustomers", "success").count()).isEqualTo(1);
+        assertThat(rows("selectAllCustomers").totalAmount()).isEqualTo(2);
+        assertThat(timer("selectCustomerByID", "success").count()).isEqualTo(1);
+        assertThat(rows("selectCustomerByID").totalAmount()).isZero();
+    }
+
+    @Test
+    void countsErrorsAndRethrows() {
+        IllegalStateException failure = new IllegalStateException("connection refused");
+        doThrow(failure).when(customerDAO).deleteCustomerById(1L);
+
+        assertThatThrownBy(() -> underTest.deleteCustomerById(1L)).isSameAs(failure);
+
+        assertThat(timer("deleteCustomerById", "error").count()).isEqualTo(1);
+        assertThat(timer("deleteCustomerById", "success").count()).isZero();
+    }
+
+    @Test
+    void countsStreamedRows() {
+        doAnswer(invocation -> {
+            Consumer<Customer> action = invocation.getArgument(0);
+            action.accept(alex);
+            action.accept(jamila);
+            return null;
+        }).when(customerDAO).forEachCustomer(any());
+        List<Customer> seen = new ArrayList<>();
+
+        underTest.forEachCustomer(seen::add);
+
+        assertThat(seen).containsExactly(alex, jamila);
+        assertThat(rows("forEachCustomer").totalAmount()).isEqualTo(2);
+    }
+
+    @Test
+    void endpointReportsEachImplementationSeparately() {
+        new InstrumentedCustomerDAO(customerDAO, "jpa", meterRegistry).existsPersonWithId(1L);
+        underTest.existsPersonWithId(1L);
+        underTest.existsPersonWithId(2L);
+
+        CustomerDAOEndpoint endpoint = new CustomerDAOEndpoint(meterRegistry);
+
+        assertThat(endpoint.implementations()).containsOnlyKeys("jdbc", "jpa");
+        assertThat(endpoint.implementation("jdbc"))
+                .singleElement()
+                .satisfies(stats -> {
+                    assertThat(stats.method()).isEqualTo("existsPersonWithId");
+                    assertThat(stats.calls()).isEqualTo(2);
+                    assertThat(stats.errors()).isZero();
+                });
+    }
+
+    private Timer timer(String method, String outcome) {
+        return meterRegistry.get(InstrumentedCustomerDAO.TIMER)
+                .tags("implementation", "jdbc", "method", method, "outcome", outcome)
+                .timer();
+    }
+
+    private DistributionSummary rows(String method) {
+        return meterRegistry.get(InstrumentedCustomerDAO.ROWS)
+                .tags("implementation", "jdbc", "method", method)
+                .summary();
+    }
+}
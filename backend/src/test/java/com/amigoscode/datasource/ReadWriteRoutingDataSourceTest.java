@@ -0,0 +1,101 @@
+package com.amigoscode.datasource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReadWriteRoutingDataSourceTest {
+    private ReadWriteRoutingDataSource underTest;
+    @Mock
+    private DataSource primary;
+    @Mock
+    private DataSource replicaA;
+    @Mock
+    private DataSource replicaB;
+    @Mock
+    private Connection primaryConnection;
+    @Mock
+    private Connection replicaAConnection;
+    @Mock
+    private Connection replicaBConnection;
+
+    @BeforeEach
+    void setUp() {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        replicas.put("replica-0", replicaA);
+        replicas.put("replica-1", replicaB);
+        underTest = new ReadWriteRoutingDataSource(primary, replicas, new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    void writesGoToThePrimary() throws Exception {
+        when(primary.getConnection()).thenReturn(primaryConnection);
+
+        assertThat(underTest.getConnection()).isSameAs(primaryConnection);
+        verifyNoInteractions(replicaA, replicaB);
+    }
+
+    @Test
+    void readOnlyTransactionsRotateOverReplicas() throws Exception {
+        when(replicaA.getConnection()).thenReturn(replicaAConnection);
+        when(replicaB.getConnection()).thenReturn(replicaBConnection);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertThat(underTest.getConnection()).isSameAs(replicaAConnection);
+        assertThat(underTest.getConnection()).isSameAs(replicaBConnection);
+        assertThat(underTest.getConnection()).isSameAs(replicaAConnection);
+        verifyNoInteractions(primary);
+    }
+
+    @Test
+    void unhealthyReplicasAreSkippedAndThePrimaryIsTheLastResort() throws Exception {
+        when(replicaB.getConnection()).thenReturn(replicaBConnection);
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        underTest.markHealthy("replica-0", false);
+        assertThat(underTest.getConnection()).isSameAs(replicaBConnection);
+        assertThat(underTest.getConnection()).isSameAs(replicaBConnection);
+
+        underTest.markHealthy("replica-1", false);
+        assertThat(underTest.getConnection()).isSameAs(primaryConnection);
+        verifyNoInteractions(replicaA);
+    }
+
+    @Test
+    void readsOfAClientThatJustWroteStayOnThePrimary() throws Exception {
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        Connection connection = ReadWriteRoutingDataSource.readFromPrimary(() -> {
+            try {
+                return underTest.getConnection();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        assertThat(connection).isSameAs(primaryConnection);
+        assertThat(ReadWriteRoutingDataSource.isPrimaryRequired()).isFalse();
+        verifyNoInteractions(replicaA, replicaB);
+    }
+}
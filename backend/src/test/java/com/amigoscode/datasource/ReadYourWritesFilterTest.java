@@ -0,0 +1,72 @@
+package com.amigoscode.datasource;
+
+import com.amigoscode.jwt.VerifiedToken;
+import com.amigoscode.jwt.VerifiedTokenCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.lenient;
+
+@ExtendWith(MockitoExtension.class)
+class ReadYourWritesFilterTest {
+    private ReadYourWritesFilter underTest;
+    @Mock
+    private VerifiedTokenCache verifiedTokenCache;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new ReadYourWritesFilter(verifiedTokenCache, Duration.ofMinutes(1), 100);
+        lenient().when(verifiedTokenCache.verify("alex-token")).thenReturn(token("alex@gmail.com"));
+        lenient().when(verifiedTokenCache.verify("jamila-token")).thenReturn(token("jamila@gmail.com"));
+    }
+
+    @Test
+    void customersBehindOneAddressDoNotPinEachOther() throws Exception {
+        send("PUT", "alex-token");
+
+        assertThat(send("GET", "jamila-token")).isFalse();
+        assertThat(send("GET", "alex-token")).isTrue();
+    }
+
+    @Test
+    void anonymousRegistrationPinsItsAddress() throws Exception {
+        send("POST", null);
+
+        assertThat(send("GET", null)).isTrue();
+        assertThat(send("GET", "alex-token")).isTrue();
+    }
+
+    @Test
+    void readsWithoutARecentWriteUseTheReplicas() throws Exception {
+        assertThat(send("GET", "alex-token")).isFalse();
+        assertThat(send("GET", null)).isFalse();
+    }
+
+    //returns whether the request ran with the primary required
+    private boolean send(String method, String token) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, "/api/v1/customers");
+        request.setRemoteAddr("10.0.0.1");
+        if (token != null) {
+            request.addHeader("Authorization", "Bearer " + token);
+        }
+        boolean[] primaryRequired = new boolean[1];
+        underTest.doFilter(request, new MockHttpServletResponse(),
+                (req, res) -> primaryRequired[0] = ReadWriteRoutingDataSource.isPrimaryRequired());
+        assertThat(ReadWriteRoutingDataSource.isPrimaryRequired()).isFalse();
+        return primaryRequired[0];
+    }
+
+    private static VerifiedToken token(String subject) {
+        return new VerifiedToken(subject, List.of(), Instant.now(), Instant.now().plusSeconds(60));
+    }
+}
@@ -0,0 +1,79 @@
+package com.amigoscode.datasource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReplicaHealthCheckTest {
+    private ReplicaHealthCheck underTest;
+    private ReadWriteRoutingDataSource routingDataSource;
+    @Mock
+    private DataSource primary;
+    @Mock
+    private DataSource replica;
+    @Mock
+    private Connection connection;
+    @Mock
+    private Statement statement;
+    @Mock
+    private ResultSet resultSet;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        routingDataSource = new ReadWriteRoutingDataSource(primary, Map.of("replica-0", replica), new SimpleMeterRegistry());
+        underTest = new ReplicaHealthCheck(routingDataSource, Duration.ofSeconds(5));
+        when(replica.getConnection()).thenReturn(connection);
+        when(connection.createStatement()).thenReturn(statement);
+        when(statement.executeQuery(anyString())).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true);
+    }
+
+    @Test
+    void streamingReplicaWithinTheLagStaysInRotation() throws Exception {
+        givenReplica(true, "streaming", 1.5);
+
+        underTest.check();
+
+        assertThat(routingDataSource.isHealthy("replica-0")).isTrue();
+    }
+
+    @Test
+    void replicaThatStoppedReceivingIsTakenOutOfRotation() throws Exception {
+        //nothing new arrives, so receive and replay LSNs match and the lag alone reads as 0
+        givenReplica(true, null, 0);
+
+        underTest.check();
+
+        assertThat(routingDataSource.isHealthy("replica-0")).isFalse();
+    }
+
+    @Test
+    void laggingReplicaIsTakenOutOfRotation() throws Exception {
+        givenReplica(true, "streaming", 30);
+
+        underTest.check();
+
+        assertThat(routingDataSource.isHealthy("replica-0")).isFalse();
+    }
+
+    private void givenReplica(boolean inRecovery, String receiverStatus, double lagSeconds) throws Exception {
+        when(resultSet.getBoolean("in_recovery")).thenReturn(inRecovery);
+        when(resultSet.getString("receiver_status")).thenReturn(receiverStatus);
+        lenient().when(resultSet.getDouble("lag_seconds")).thenReturn(lagSeconds);
+    }
+}
@@ -0,0 +1,130 @@
+package com.amigoscode.datasource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// two independent servers stand in for primary and replica: a row written to one only shows up
+// when reading from that one, which makes the routing visible
+@Testcontainers
+class ReplicaRoutingTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> primaryContainer =
+            new PostgreSQLContainer<>("postgres:latest")
+                    .withDatabaseName("amigoscode-primary")
+                    .withUsername("amigoscode")
+                    .withPassword("password");
+
+    @Container
+    private static final PostgreSQLContainer<?> replicaContainer =
+            new PostgreSQLContainer<>("postgres:latest")
+                    .withDatabaseName("amigoscode-replica")
+                    .withUsername("amigoscode")
+                    .withPassword("password");
+
+    private ReadWriteRoutingDataSource routingDataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+
+    @BeforeAll
+    static void beforeAll() {
+        for (PostgreSQLContainer<?> container : new PostgreSQLContainer<?>[]{primaryContainer, replicaContainer}) {
+            Flyway.configure().dataSource(
+                    container.getJdbcUrl(),
+                    container.getUsername(),
+                    container.getPassword()
+            ).load().migrate();
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        routingDataSource = new ReadWriteRoutingDataSource(
+                dataSource(primaryContainer),
+                Map.of("replica-0", dataSource(replicaContainer)),
+                new SimpleMeterRegistry()
+        );
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routingDataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    @Test
+    void readOnlyTransactionsReadFromTheReplica() {
+        String email = insertCustomer();
+
+        assertThat(countByEmail(readOnly, email)).isZero();
+        assertThat(countByEmail(readWrite, email)).isOne();
+    }
+
+    @Test
+    void readsFallBackToThePrimaryWhenTheReplicaIsUnhealthy() {
+        String email = insertCustomer();
+        routingDataSource.markHealthy("replica-0", false);
+
+        assertThat(countByEmail(readOnly, email)).isOne();
+    }
+
+    @Test
+    void healthCheckKeepsAReachableReplicaInRotation() {
+        routingDataSource.markHealthy("replica-0", false);
+
+        new ReplicaHealthCheck(routingDataSource, Duration.ofSeconds(5)).check();
+
+        assertThat(routingDataSource.isHealthy("replica-0")).isTrue();
+    }
+
+    @Test
+    void readYourWritesPinsReadOnlyTransactionsToThePrimary() {
+        String email = insertCustomer();
+
+        Integer count = ReadWriteRoutingDataSource.readFromPrimary(() -> countByEmail(readOnly, email));
+
+        assertThat(count).isOne();
+    }
+
+    private String insertCustomer() {
+        String email = "replica-routing-" + System.nanoTime() + "@amigoscode.com";
+        readWrite.executeWithoutResult(status -> jdbcTemplate.update("""
+                INSERT INTO customer(name, email, password, age, gender)
+                VALUES (?, ?, 'password', 20, 'MALE')
+                """, "replica routing", email));
+        return email;
+    }
+
+    private Integer countByEmail(TransactionTemplate transactionTemplate, String email) {
+        return transactionTemplate.execute(status -> jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM customer WHERE email = ?", Integer.class, email
+        ));
+    }
+
+    private static DataSource dataSource(PostgreSQLContainer<?> container) {
+        return DataSourceBuilder.create()
+                .driverClassName(container.getDriverClassName())
+                .url(container.getJdbcUrl())
+                .username(container.getUsername())
+                .password(container.getPassword())
+                .build();
+    }
+}
@@ -78,7 +78,9 @@ public class CustomerIT {
                 gender,
                 age,
                 List.of("ROLE_USER"),
-                email
+                email,
+                0L,
+                null
         );
 
         assertThat(allCustomers).contains(expectedCustomer);
@@ -258,17 +260,112 @@ public class CustomerIT {
                 gender,
                 age,
                 List.of("ROLE_USER"),
-                email
+                email,
+                1L,
+                null
         );
 
         assertThat(updatedCustomer).isEqualTo(expected);
     }
-}
 
+    @Test
+    void canRevalidateCustomer() {
+        //crete registration request
+        Faker faker = new Faker();
+        Name fakerName = faker.name();
+        String email = fakerName.lastName() + "-" + UUID.randomUUID() + "@amigoscode.com";
+        int age = RANDOM.nextInt(1,100);
 
+        CustomerRegistrationRequest request = new CustomerRegistrationRequest(
+                fakerName.fullName(), email, "password", age, Gender.FEMALE
+        );
 
+        //send a post request
+        String jwtToken = webTestClient.post()
+                .uri(CUSTOMER_PATH)
+                .accept(MediaType.APPLICATION_JSON)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(Mono.just(request), CustomerRegistrationRequest.class)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .returnResult(Void.class)
+                .getResponseHeaders()
+                .get(HttpHeaders.AUTHORIZATION)
+                .get(0);
+
+        long id = webTestClient.get()
+                .uri(CUSTOMER_PATH)
+                .accept(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.AUTHORIZATION, String.format("Bearer %s", jwtToken))
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBodyList(new ParameterizedTypeReference<CustomerDTO>() {})
+                .returnResult()
+                .getResponseBody()
+                .stream()
+                .filter(c -> c.email().equals(email))
+                .map(CustomerDTO::id)
+                .findFirst()
+                .orElseThrow();
 
+        //get customer by id carries both validators
+        HttpHeaders headers = webTestClient.get()
+                .uri(CUSTOMER_PATH + "/{id}", id)
+                .accept(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.AUTHORIZATION, String.format("Bearer %s", jwtToken))
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"0\"")
+                .expectHeader().exists(HttpHeaders.LAST_MODIFIED)
+                .returnResult(Void.class)
+                .getResponseHeaders();
 
+        //revalidate by etag
+        webTestClient.get()
+                .uri(CUSTOMER_PATH + "/{id}", id)
+                .accept(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.AUTHORIZATION, String.format("Bearer %s", jwtToken))
+                .header(HttpHeaders.IF_NONE_MATCH, headers.getETag())
+                .exchange()
+                .expectStatus()
+                .isNotModified()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, headers.getETag())
+                .expectHeader().valueEquals(HttpHeaders.LAST_MODIFIED, headers.getFirst(HttpHeaders.LAST_MODIFIED));
 
+        //revalidate by date
+        webTestClient.get()
+                .uri(CUSTOMER_PATH + "/{id}", id)
+                .accept(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.AUTHORIZATION, String.format("Bearer %s", jwtToken))
+                .header(HttpHeaders.IF_MODIFIED_SINCE, headers.getFirst(HttpHeaders.LAST_MODIFIED))
+                .exchange()
+                .expectStatus()
+                .isNotModified();
 
+        //send a put request
+        webTestClient.put()
+                .uri(CUSTOMER_PATH + "/{id}", id)
+                .accept(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.AUTHORIZATION, String.format("Bearer %s", jwtToken))
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(Mono.just(new CustomerUpdateRequest(fakerName.fullName(), null, null)), CustomerUpdateRequest.class)
+                .exchange()
+                .expectStatus()
+                .isOk();
 
+        //the old etag no longer matches and the new one comes with the body
+        webTestClient.get()
+                .uri(CUSTOMER_PATH + "/{id}", id)
+                .accept(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.AUTHORIZATION, String.format("Bearer %s", jwtToken))
+                .header(HttpHeaders.IF_NONE_MATCH, headers.getETag())
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"1\"")
+                .expectHeader().exists(HttpHeaders.LAST_MODIFIED);
+    }
+}
@@ -0,0 +1,66 @@
+package com.amigoscode.jwt;
+
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.MissingClaimException;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JWTUtilTest {
+
+    private final JWTUtil underTest = new JWTUtil();
+
+    @Test
+    void canVerifyIssuedToken() {
+        String token = underTest.issueToken("alex@gmail.com", List.of("ROLE_USER"));
+
+        VerifiedToken actual = underTest.verify(token);
+
+        assertThat(actual.subject()).isEqualTo("alex@gmail.com");
+        assertThat(actual.scopes()).containsExactly("ROLE_USER");
+        assertThat(actual.expiresAt()).isAfter(Instant.now());
+        assertThat(underTest.isTokenValid(token, "alex@gmail.com")).isTrue();
+    }
+
+    @Test
+    void verifiedTokenHasNoScopesWhenNoneWereIssued() {
+        String token = underTest.issueToken("alex@gmail.com");
+
+        VerifiedToken actual = underTest.verify(token);
+
+        assertThat(actual.scopes()).isEmpty();
+    }
+
+    @Test
+    void willThrowWhenTokenSignatureIsTampered() {
+        String token = underTest.issueToken("alex@gmail.com", "ROLE_USER");
+        String tampered = token.substring(0, token.length() - 2) + "xx";
+
+        assertThatThrownBy(() -> underTest.verify(tampered))
+                .isInstanceOf(JwtException.class);
+        assertThat(underTest.isTokenValid(tampered, "alex@gmail.com")).isFalse();
+    }
+
+    @Test
+    void willThrowWhenSignedTokenHasNoExpiration() {
+        String token = Jwts.builder()
+                .setSubject("alex@gmail.com")
+                .setIssuedAt(new Date())
+                .signWith(Keys.hmacShaKeyFor(JWTUtil.SECRET_KEY.getBytes()), SignatureAlgorithm.HS256)
+                .compact();
+
+        assertThatThrownBy(() -> underTest.verify(token))
+                .isInstanceOf(MissingClaimException.class);
+        assertThatThrownBy(() -> underTest.getSubject(token))
+                .isInstanceOf(JwtException.class);
+        assertThat(underTest.isTokenValid(token, "alex@gmail.com")).isFalse();
+    }
+}
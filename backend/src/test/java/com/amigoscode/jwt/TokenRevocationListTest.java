@@ -0,0 +1,73 @@
+package com.amigoscode.jwt;
+
+import com.amigoscode.customer.Customer;
+import com.amigoscode.customer.CustomerChangedEvent;
+import com.amigoscode.customer.Gender;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenRevocationListTest {
+
+    private final TokenRevocationList underTest = new TokenRevocationList();
+
+    private static VerifiedToken token(String subject, Instant issuedAt) {
+        return new VerifiedToken(subject, List.of("ROLE_USER"), issuedAt, issuedAt.plus(JWTUtil.TOKEN_LIFETIME));
+    }
+
+    @Test
+    void tokensIssuedBeforeRevocationAreRevoked() {
+        Instant issuedAt = Instant.now().minus(1, ChronoUnit.MINUTES);
+
+        underTest.revoke("alex@gmail.com");
+
+        assertThat(underTest.isRevoked(token("alex@gmail.com", issuedAt))).isTrue();
+        assertThat(underTest.isRevoked(token("jamila@gmail.com", issuedAt))).isFalse();
+    }
+
+    @Test
+    void tokensIssuedAfterRevocationAreAccepted() {
+        underTest.revoke("alex@gmail.com");
+
+        //iat as a JWT carries it, in whole seconds
+        Instant nextSecond = Instant.now().truncatedTo(ChronoUnit.SECONDS).plus(1, ChronoUnit.SECONDS);
+        VerifiedToken token = token("alex@gmail.com", nextSecond);
+
+        assertThat(underTest.isRevoked(token)).isFalse();
+    }
+
+    @Test
+    void tokensIssuedEarlierInTheRevocationSecondAreRevoked() {
+        //issued moments before the revocation, but iat drops the fraction of the second
+        Instant issuedAt = Instant.now();
+        underTest.revoke("alex@gmail.com");
+
+        VerifiedToken token = token("alex@gmail.com", issuedAt.truncatedTo(ChronoUnit.SECONDS));
+
+        assertThat(underTest.isRevoked(token)).isTrue();
+        assertThat(underTest.isRevoked(token("alex@gmail.com", issuedAt))).isTrue();
+    }
+
+    @Test
+    void revokesPreviousEmailWhenCustomerIsDeletedOrEmailChanges() {
+        Customer alex = new Customer(1L, "Alex", "alex@gmail.com", "password", 21, Gender.MALE);
+        Customer renamed = new Customer(1L, "Alexander", "alex@gmail.com", "password", 21, Gender.MALE);
+        Customer jamila = new Customer(2L, "Jamila", "jamila@gmail.com", "password", 19, Gender.FEMALE);
+        Customer moved = new Customer(2L, "Jamila", "jamila@yahoo.com", "password", 19, Gender.FEMALE);
+
+        underTest.onCustomerChanged(CustomerChangedEvent.updated(alex, renamed));
+        assertThat(underTest.size()).isZero();
+
+        underTest.onCustomerChanged(CustomerChangedEvent.updated(jamila, moved));
+        underTest.onCustomerChanged(CustomerChangedEvent.deleted(alex));
+
+        Instant issuedAt = Instant.now().minus(1, ChronoUnit.MINUTES);
+        assertThat(underTest.isRevoked(token("jamila@gmail.com", issuedAt))).isTrue();
+        assertThat(underTest.isRevoked(token("alex@gmail.com", issuedAt))).isTrue();
+        assertThat(underTest.isRevoked(token("jamila@yahoo.com", issuedAt))).isFalse();
+    }
+}
@@ -0,0 +1,68 @@
+package com.amigoscode.jwt;
+
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+class VerifiedTokenCacheTest {
+
+    private final JWTUtil jwtUtil = spy(new JWTUtil());
+
+    private VerifiedTokenCache cache(boolean enabled) {
+        return new VerifiedTokenCache(jwtUtil, new SimpleMeterRegistry(), enabled, 100, Duration.ofMinutes(5));
+    }
+
+    @Test
+    void repeatedTokenIsVerifiedOnce() {
+        VerifiedTokenCache underTest = cache(true);
+        String token = jwtUtil.issueToken("alex@gmail.com", "ROLE_USER");
+
+        VerifiedToken first = underTest.verify(token);
+        VerifiedToken second = underTest.verify(token);
+
+        assertThat(second).isEqualTo(first);
+        verify(jwtUtil, times(1)).verify(token);
+        assertThat(underTest.stats().hitCount()).isEqualTo(1);
+        assertThat(underTest.stats().missCount()).isEqualTo(1);
+    }
+
+    @Test
+    void expiredTokenIsNotServedFromCache() {
+        VerifiedTokenCache underTest = cache(true);
+        VerifiedToken expired = new VerifiedToken("alex@gmail.com", List.of(), Instant.now().minusSeconds(60), Instant.now().minusSeconds(1));
+        doReturn(expired).when(jwtUtil).verify("token");
+
+        underTest.verify("token");
+
+        assertThat(underTest.size()).isZero();
+    }
+
+    @Test
+    void invalidTokenIsNotCached() {
+        VerifiedTokenCache underTest = cache(true);
+
+        assertThatThrownBy(() -> underTest.verify("not-a-token"))
+                .isInstanceOf(JwtException.class);
+
+        assertThat(underTest.size()).isZero();
+    }
+
+    @Test
+    void disabledCacheVerifiesEveryTime() {
+        VerifiedTokenCache underTest = cache(false);
+        String token = jwtUtil.issueToken("alex@gmail.com", "ROLE_USER");
+
+        underTest.verify(token);
+        underTest.verify(token);
+
+        verify(jwtUtil, times(2)).verify(token);
+    }
+}
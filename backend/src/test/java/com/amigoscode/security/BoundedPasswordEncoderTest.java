@@ -0,0 +1,102 @@
+package com.amigoscode.security;
+
+import com.amigoscode.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BoundedPasswordEncoderTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private BoundedPasswordEncoder underTest;
+
+    private final PasswordEncoder blockingEncoder = new PasswordEncoder() {
+        @Override
+        public String encode(CharSequence rawPassword) {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "hashed-" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return encodedPassword.equals("hashed-" + rawPassword);
+        }
+    };
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        underTest.destroy();
+    }
+
+    @Test
+    void delegatesHashingAndRecordsLatency() {
+        underTest = new BoundedPasswordEncoder(blockingEncoder, "login", 1, 1, meterRegistry);
+        release.countDown();
+
+        String encoded = underTest.encode("password");
+
+        assertThat(encoded).isEqualTo("hashed-password");
+        assertThat(underTest.matches("password", encoded)).isTrue();
+        assertThat(meterRegistry.get("password.hashing").tag("operation", "encode").timer().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void rejectsWorkWhenQueueIsFull() throws InterruptedException {
+        underTest = new BoundedPasswordEncoder(blockingEncoder, "login", 1, 1, meterRegistry);
+
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> underTest.encode("a"));
+        waitUntil(() -> meterRegistry.get("executor.active").gauge().value() == 1);
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> underTest.encode("b"));
+        waitUntil(() -> underTest.queueDepth() == 1);
+
+        assertThatThrownBy(() -> underTest.encode("c"))
+                .isInstanceOf(ServiceOverloadedException.class);
+        assertThat(meterRegistry.get("password.hashing.rejected").counter().count()).isEqualTo(1);
+
+        release.countDown();
+        assertThat(running.join()).isEqualTo("hashed-a");
+        assertThat(queued.join()).isEqualTo("hashed-b");
+    }
+
+    @Test
+    void encodeAllWaitsForQueueRoomInsteadOfFailing() throws InterruptedException {
+        underTest = new BoundedPasswordEncoder(blockingEncoder, "bulk", 1, 1, meterRegistry);
+
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> underTest.encode("a"));
+        waitUntil(() -> meterRegistry.get("executor.active").gauge().value() == 1);
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> underTest.encode("b"));
+        waitUntil(() -> underTest.queueDepth() == 1);
+        CompletableFuture<List<String>> batch = CompletableFuture.supplyAsync(() -> underTest.encodeAll(List.of("c", "d")));
+        waitUntil(() -> meterRegistry.get("password.hashing.rejected").counter().count() > 0);
+
+        release.countDown();
+        assertThat(batch.join()).containsExactly("hashed-c", "hashed-d");
+        assertThat(running.join()).isEqualTo("hashed-a");
+        assertThat(queued.join()).isEqualTo("hashed-b");
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.amigoscode.sqltrace;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SqlFingerprintTest {
+
+    @Test
+    void literalsAndWhitespaceAreNormalisedAway() {
+        SqlFingerprint first = SqlFingerprint.of("""
+                SELECT id, name
+                FROM customer
+                WHERE age > 18 AND email = 'a@b.com'
+                """);
+        SqlFingerprint second = SqlFingerprint.of("select id,   name from customer where age > 65 and email = 'it''s@b.com'");
+
+        assertThat(first.normalized())
+                .isEqualTo("select id, name from customer where age > ? and email = ?");
+        assertThat(second.normalized()).isEqualTo(first.normalized());
+        assertThat(second.id()).isEqualTo(first.id());
+    }
+
+    @Test
+    void identifiersAndPlaceholdersKeepTheirDigits() {
+        assertThat(SqlFingerprint.normalize("SELECT age_bucket1 FROM t WHERE id = ANY(CAST(?1 AS bigint[])) LIMIT 10"))
+                .isEqualTo("select age_bucket1 from t where id = any(cast(?1 as bigint[])) limit ?");
+        assertThat(SqlFingerprint.normalize("SELECT \"Name\" FROM customer"))
+                .isEqualTo("select \"Name\" from customer");
+    }
+}
@@ -0,0 +1,147 @@
+package com.amigoscode.sqltrace;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SqlTraceListenerTest {
+    private DataSource underTest;
+    @Mock
+    private DataSource dataSource;
+    @Mock
+    private Connection connection;
+    @Mock
+    private PreparedStatement statement;
+    @Mock
+    private ResultSet resultSet;
+    @Mock
+    private SqlTraceRecorder recorder;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        underTest = SqlTraceListener.trace(dataSource, recorder);
+        when(dataSource.getConnection()).thenReturn(connection);
+    }
+
+    @Test
+    void updatesAreTracedWithBindsAndRowCount() throws Exception {
+        String sql = "UPDATE customer SET age = ? WHERE id = ?";
+        when(connection.prepareStatement(sql)).thenReturn(statement);
+        when(statement.executeUpdate()).thenReturn(1);
+
+        try (Connection traced = underTest.getConnection();
+             PreparedStatement ps = traced.prepareStatement(sql)) {
+            ps.setInt(1, 30);
+            ps.setLong(2, 7L);
+            assertThat(ps.executeUpdate()).isEqualTo(1);
+        }
+
+        verify(recorder).record(eq(sql), eq(2), eq(0), anyLong(), eq(1L));
+        verify(statement).setInt(1, 30);
+        verify(statement).close();
+    }
+
+    @Test
+    void queriesAreTracedOnceTheirRowsAreRead() throws Exception {
+        String sql = "SELECT id FROM customer WHERE age > ?";
+        when(connection.prepareStatement(sql)).thenReturn(statement);
+        when(statement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.getStatement()).thenReturn(statement);
+        when(resultSet.next()).thenReturn(true, true, false);
+
+        try (Connection traced = underTest.getConnection();
+             PreparedStatement ps = traced.prepareStatement(sql)) {
+            ps.setInt(1, 18);
+            try (ResultSet rs = ps.executeQuery()) {
+                verifyNoInteractions(recorder);
+                while (rs.next()) {
+                    rs.getLong(1);
+                }
+            }
+        }
+
+        verify(recorder, times(1)).record(eq(sql), eq(1), eq(0), anyLong(), eq(2L));
+    }
+
+    @Test
+    void executeThenGetResultSetIsTracedWithItsRows() throws Exception {
+        String sql = "SELECT id FROM customer";
+        Statement plain = mock(Statement.class);
+        when(connection.createStatement()).thenReturn(plain);
+        when(plain.execute(sql)).thenReturn(true);
+        when(plain.getResultSet()).thenReturn(resultSet);
+        when(resultSet.getStatement()).thenReturn(plain);
+        when(resultSet.next()).thenReturn(true, false);
+
+        try (Connection traced = underTest.getConnection();
+             Statement st = traced.createStatement()) {
+            assertThat(st.execute(sql)).isTrue();
+            try (ResultSet rs = st.getResultSet()) {
+                while (rs.next()) {
+                    rs.getLong(1);
+                }
+            }
+        }
+
+        verify(recorder, times(1)).record(eq(sql), eq(0), eq(0), anyLong(), eq(1L));
+    }
+
+    @Test
+    void unclosedQueriesAreTracedWhenTheirStatementCloses() throws Exception {
+        String sql = "SELECT id FROM customer";
+        when(connection.prepareStatement(sql)).thenReturn(statement);
+        when(statement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.getStatement()).thenReturn(statement);
+
+        try (Connection traced = underTest.getConnection();
+             PreparedStatement ps = traced.prepareStatement(sql)) {
+            ps.executeQuery();
+        }
+
+        verify(recorder, times(1)).record(eq(sql), eq(0), eq(0), anyLong(), eq(-1L));
+    }
+
+    @Test
+    void batchesReportTheirSizeAndTotalRows() throws Exception {
+        String sql = "INSERT INTO customer(name) VALUES (?)";
+        when(connection.prepareStatement(sql)).thenReturn(statement);
+        when(statement.executeBatch()).thenReturn(new int[]{1, 1, 1});
+
+        try (Connection traced = underTest.getConnection();
+             PreparedStatement ps = traced.prepareStatement(sql)) {
+            for (String name : new String[]{"a", "b", "c"}) {
+                ps.setString(1, name);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+
+        verify(recorder).record(eq(sql), eq(1), eq(3), anyLong(), eq(3L));
+    }
+
+    @Test
+    void statementsHandBackTheTracedConnection() throws Exception {
+        String sql = "SELECT 1";
+        when(connection.prepareStatement(sql)).thenReturn(statement);
+
+        Connection traced = underTest.getConnection();
+        PreparedStatement ps = traced.prepareStatement(sql);
+
+        assertThat(ps.getConnection()).isSameAs(traced);
+        verifyNoInteractions(recorder);
+    }
+}
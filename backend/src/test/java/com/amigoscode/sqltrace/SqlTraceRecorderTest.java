@@ -0,0 +1,61 @@
+package com.amigoscode.sqltrace;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SqlTraceRecorderTest {
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<SqlTrace> traces = new ArrayList<>();
+
+    @Test
+    void slowStatementsAreAlwaysTracedAndFastOnesSampled() {
+        SqlTraceRecorder underTest = recorder(0.0, 16);
+
+        underTest.record("SELECT 1", 0, 0, Duration.ofMillis(1).toNanos(), 1);
+        underTest.record("SELECT pg_sleep(1)", 0, 0, Duration.ofSeconds(1).toNanos(), 1);
+        underTest.drain();
+
+        assertThat(traces).singleElement().satisfies(trace -> {
+            assertThat(trace.sql()).isEqualTo("SELECT pg_sleep(1)");
+            assertThat(trace.slow()).isTrue();
+        });
+        assertThat(meterRegistry.get("sql.trace.slow").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void fullSamplingTracesEveryStatementInOrder() {
+        SqlTraceRecorder underTest = recorder(1.0, 16);
+
+        for (int i = 0; i < 10; i++) {
+            underTest.record("SELECT " + i, 0, 0, 1_000, i);
+        }
+        underTest.drain();
+
+        assertThat(traces).extracting(SqlTrace::rows).containsExactly(0L, 1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L);
+        assertThat(meterRegistry.get("sql.trace.dropped").counter().count()).isZero();
+    }
+
+    @Test
+    void aLappedBufferDropsTheOldestTraces() {
+        SqlTraceRecorder underTest = recorder(1.0, 4);
+
+        for (int i = 0; i < 10; i++) {
+            underTest.record("SELECT " + i, 0, 0, 1_000, i);
+        }
+        underTest.drain();
+
+        assertThat(traces).extracting(SqlTrace::rows).containsExactly(6L, 7L, 8L, 9L);
+        assertThat(meterRegistry.get("sql.trace.dropped").counter().count()).isEqualTo(6);
+    }
+
+    private SqlTraceRecorder recorder(double sampleRate, int bufferSize) {
+        return new SqlTraceRecorder(Duration.ofMillis(200), sampleRate, bufferSize, meterRegistry, traces::add, false);
+    }
+}
@@ -0,0 +1,4 @@
+#!/bin/bash
+# lets the db-replica compose service stream WAL from the primary.
+# init scripts only run on an empty data directory; on an existing volume append the line by hand
+echo "host replication all all scram-sha-256" >> "$PGDATA/pg_hba.conf"